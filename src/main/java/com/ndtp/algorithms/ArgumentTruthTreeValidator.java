@@ -2,13 +2,17 @@ package com.ndtp.algorithms;
 
 import com.ndtp.algorithms.models.TruthTree;
 import com.ndtp.algorithms.predicate.PredicateTruthTreeGenerator;
+import com.ndtp.algorithms.propositional.PropositionalBranchSearch;
 import com.ndtp.algorithms.propositional.PropositionalTruthTreeGenerator;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.AndNode;
 import com.ndtp.models.treenode.NegNode;
 import com.ndtp.models.treenode.WffTree;
+import com.ndtp.models.treenode.WffTreeInterner;
 
 import java.util.ArrayList;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  *
@@ -21,52 +25,76 @@ public final class ArgumentTruthTreeValidator {
     private final WffTree combinedTree;
 
     /**
-     *
+     * Generator of the last truth tree, or null until isValid or getTruthTree needs one. It is
+     * built lazily since its constructor interns the whole combined tree.
      */
     private BaseTruthTreeGenerator truthTreeGenerator;
 
-    public ArgumentTruthTreeValidator(ArrayList<WffTree> _wffTreeList) {
+    /**
+     * Context that the truth tree generators share.
+     */
+    private final ProverContext context;
+
+    /**
+     * Whether to convert the combined tree to negation normal form before building the truth tree.
+     */
+    private boolean negationNormalForm;
+
+    /**
+     * Whether to simplify the combined tree before building the truth tree.
+     */
+    private boolean simplification;
+
+    /**
+     * Whether isValid searches propositional truth trees one branch at a time instead of building them.
+     */
+    private boolean depthFirst;
+
+    /**
+     * Pool that the depth-first search is split over, or null to run it on the calling thread.
+     */
+    private ForkJoinPool pool;
+
+    public ArgumentTruthTreeValidator(ArrayList<WffTree> _wffTreeList, ProverContext _context) {
+        this.context = _context;
+        for (WffTree wff : _wffTreeList) {
+            this.context.recordNotation(wff);
+        }
         this.combinedTree = new WffTree();
         Stack<WffTree> nodes = new Stack<>();
-        WffTree leaf = null;
 
-        // Construct the truth tree by stacking all premises and the negated conclusion.
+        // Construct the truth tree by stacking all premises and the negated conclusion. They are
+        // interned first, so the tree is built from this context's own copies and the caller's
+        // wffs are only ever read, even when other threads validate them as well.
+        WffTreeInterner interner = this.context.getInterner();
         for (int i = 0; i < _wffTreeList.size() - 1; i++) {
-            nodes.push(_wffTreeList.get(i).getChild(0));
+            nodes.push(interner.intern(_wffTreeList.get(i).getChild(0)));
             // If we have two nodes, pop them and perform a conjunction.
             if (nodes.size() == 2) {
-                AndNode andNode = new AndNode();
+                AndNode andNode = this.context.createAndNode();
                 WffTree ch2 = nodes.pop();
                 WffTree ch1 = nodes.pop();
                 andNode.addChild(ch1);
                 andNode.addChild(ch2);
-                // Save the leaf so we can continue adding children.
-                if (leaf != null) {
-                    leaf.addChild(andNode);
-                }
-                leaf = andNode;
                 nodes.push(andNode);
             }
         }
 
         // Finally, negate the conclusion and add it. Create an AND between the negated
         // conclusion and the rest of the premises.
-        AndNode and = new AndNode();
-        NegNode neg = new NegNode();
-        neg.addChild(_wffTreeList.get(_wffTreeList.size() - 1).getChild(0));
+        AndNode and = this.context.createAndNode();
+        NegNode neg = this.context.createNegNode();
+        neg.addChild(interner.intern(_wffTreeList.get(_wffTreeList.size() - 1).getChild(0)));
         and.addChild(nodes.pop());
         and.addChild(neg);
         this.combinedTree.addChild(and);
 
         // Set the flags to make sure that the combined tree knows whether it's a propositional or FOPL formula.
         this.combinedTree.setFlags(_wffTreeList.get(0).getFlags());
+    }
 
-        // Get the truth tree generator ready because we're gonna use it.
-        if (this.combinedTree.isPropositionalWff()) {
-            this.truthTreeGenerator = new PropositionalTruthTreeGenerator(this.combinedTree);
-        } else {
-            this.truthTreeGenerator = new PropositionalTruthTreeGenerator(this.combinedTree);
-        }
+    public ArgumentTruthTreeValidator(ArrayList<WffTree> _wffTreeList) {
+        this(_wffTreeList, new ProverContext());
     }
 
     /**
@@ -81,21 +109,119 @@ public final class ArgumentTruthTreeValidator {
      * @return
      */
     public boolean isValid() {
-        if (this.combinedTree.isPropositionalWff()) {
-            this.truthTreeGenerator = new PropositionalTruthTreeGenerator(this.combinedTree);
-        } else {
-            this.truthTreeGenerator = new PredicateTruthTreeGenerator(this.combinedTree);
+        WffTree tree = this.negationNormalForm ? this.getNegationNormalForm() : this.combinedTree;
+        if (this.depthFirst && this.combinedTree.isPropositionalWff()) {
+            // No generator is built, since it would intern (and keep) the whole tree.
+            WffTree root = tree.getChild(0);
+            if (this.simplification) {
+                root = WffSimplifier.simplify(root, this.context);
+            }
+            PropositionalBranchSearch search = new PropositionalBranchSearch(this.context);
+            return !(this.pool != null ? search.hasOpenBranch(root, this.pool) : search.hasOpenBranch(root));
         }
 
-        ClosedTreeDeterminer closedTreeDeterminer = new ClosedTreeDeterminer(this.truthTreeGenerator.getTruthTree());
+        this.truthTreeGenerator = this.createTruthTreeGenerator(tree);
+        this.truthTreeGenerator.setSimplification(this.simplification);
+
+        // Only the verdict is needed, so stop at the first open branch. The listener is removed
+        // afterwards so that getTruthTree still builds the whole tree.
+        this.truthTreeGenerator.setBranchListener(new BaseTruthTreeGenerator.BranchListener() {
+            @Override
+            public boolean branchCompleted(TruthTree _leaf, boolean _closed) {
+                return _closed;
+            }
+        });
+        TruthTree truthTree = this.truthTreeGenerator.getTruthTree();
+        this.truthTreeGenerator.setBranchListener(null);
+
+        ClosedTreeDeterminer closedTreeDeterminer = new ClosedTreeDeterminer(truthTree);
         return closedTreeDeterminer.hasAllClosed();
     }
 
+    /**
+     * Turns the negation normal form pass on or off for the next call to isValid. With it on,
+     * the premises and the negated conclusion become one n-ary conjunction whose operands
+     * have their negations pushed down to the literals, so the truth tree needs fewer steps.
+     * It is off by default, which keeps the trees in the shape that the input was written in.
+     *
+     * @param _negationNormalForm - true to convert to negation normal form first.
+     */
+    public void setNegationNormalForm(boolean _negationNormalForm) {
+        this.negationNormalForm = _negationNormalForm;
+    }
+
+    /**
+     * Turns the simplification pass (see WffSimplifier) on or off for the next call to isValid.
+     * It is off by default. If the negation normal form pass is on too, it runs first.
+     *
+     * @param _simplification - true to simplify the combined tree first.
+     */
+    public void setSimplification(boolean _simplification) {
+        this.simplification = _simplification;
+    }
+
+    /**
+     * Turns the depth-first mode on or off for the next call to isValid. With it on, the truth
+     * tree of a propositional argument is searched one branch at a time (see
+     * PropositionalBranchSearch) and never built, so only a branch is kept in memory, and the
+     * search stops at the first open branch. getTruthTree still builds the full tree on request.
+     * Predicate arguments always build the tree. It is off by default.
+     *
+     * @param _depthFirst - true to search the branches depth-first.
+     */
+    public void setDepthFirst(boolean _depthFirst) {
+        this.depthFirst = _depthFirst;
+    }
+
+    /**
+     * Splits the depth-first search (see setDepthFirst) of the next call to isValid over a
+     * ForkJoinPool, e.g., ForkJoinPool.commonPool(). The search of one argument then uses
+     * several cores; the context is still only used by one proof at a time.
+     *
+     * @param _pool - pool to run the search in, or null to run it on the calling thread.
+     */
+    public void setParallel(ForkJoinPool _pool) {
+        this.pool = _pool;
+    }
+
+    /**
+     * Converts the combined tree to negation normal form. The negated conclusion is put first:
+     * it usually closes branches quickly, and once it is a plain disjunction it no longer has the
+     * higher priority that a negation gets in the truth tree, so order is what breaks the tie.
+     *
+     * @return combined tree in negation normal form.
+     */
+    private WffTree getNegationNormalForm() {
+        WffTree premisesAndConclusion = this.combinedTree.getChild(0);
+        AndNode conclusionFirst = this.context.createAndNode();
+        conclusionFirst.addChild(premisesAndConclusion.getChild(1));
+        conclusionFirst.addChild(premisesAndConclusion.getChild(0));
+
+        WffTree root = new WffTree();
+        root.setFlags(this.combinedTree.getFlags());
+        root.addChild(conclusionFirst);
+        return NegationNormalForm.convert(root, this.context);
+    }
+
     public WffTree getCombinedTree() {
         return this.combinedTree;
     }
 
+    /**
+     * @return truth tree of the generator that the last call to isValid used, or of the combined
+     * tree as is if isValid has not built one.
+     */
     public TruthTree getTruthTree() {
+        if (this.truthTreeGenerator == null) {
+            this.truthTreeGenerator = this.createTruthTreeGenerator(this.combinedTree);
+        }
         return this.truthTreeGenerator.getTruthTree();
     }
+
+    private BaseTruthTreeGenerator createTruthTreeGenerator(WffTree _tree) {
+        if (this.combinedTree.isPropositionalWff()) {
+            return new PropositionalTruthTreeGenerator(_tree, this.context);
+        }
+        return new PredicateTruthTreeGenerator(_tree, this.context);
+    }
 }
@@ -5,11 +5,15 @@ import com.ndtp.algorithms.models.NDStep;
 import com.ndtp.algorithms.models.NDWffTree;
 import com.ndtp.algorithms.models.ProofType;
 import com.ndtp.input.NDTPParserListener;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.*;
+import com.ndtp.tools.TreeWalker;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 
 /**
  *
@@ -31,6 +35,13 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
      */
     protected final ArrayList<NDWffTree> premisesList;
 
+    /**
+     * Indexes the premises by the alpha keys of their wffs so that membership checks and
+     * lookups do not scan the premises list, and premises that only differ in the names of
+     * their bound variables are treated as the same premise.
+     */
+    protected final HashMap<AlphaKey, NDWffTree> premisesIndex;
+
     /**
      *
      */
@@ -41,14 +52,26 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
      */
     protected final ProofType proofType;
 
-    public BaseNaturalDeductionValidator(ArrayList<WffTree> _wffTreeList, ProofType _proofType) {
+    /**
+     * Session state: operator notation and the interner that shares structurally identical
+     * premises and derived wffs. Passing the same context to several validators in turn lets
+     * premises that repeat across a batch share storage.
+     */
+    protected final ProverContext context;
+
+    public BaseNaturalDeductionValidator(ArrayList<WffTree> _wffTreeList, ProofType _proofType, ProverContext _context) {
         this.originalWffTreeList = _wffTreeList;
         this.proofType = _proofType;
+        this.context = _context;
+        for (WffTree wff : _wffTreeList) {
+            this.context.recordNotation(wff);
+        }
         this.premisesList = new ArrayList<>();
+        this.premisesIndex = new HashMap<>();
         this.originalPremisesList = new ArrayList<>();
-        this.conclusionWff = new NDWffTree(_wffTreeList.get(_wffTreeList.size() - 1).getNodeType() == NodeType.ROOT
+        this.conclusionWff = new NDWffTree(this.context.getInterner().intern(_wffTreeList.get(_wffTreeList.size() - 1).getNodeType() == NodeType.ROOT
                 ? _wffTreeList.get(_wffTreeList.size() - 1).getChild(0)
-                : _wffTreeList.get(_wffTreeList.size() - 1), NDStep.C);
+                : _wffTreeList.get(_wffTreeList.size() - 1)), NDStep.C);
 
         // Add all premises to the list. The invariant is that the last element is guaranteed to be the conclusion.
         for (int i = 0; i < _wffTreeList.size() - 1; i++) {
@@ -56,7 +79,7 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
             WffTree wff = _wffTreeList.get(i).getNodeType() == NodeType.ROOT
                     ? _wffTreeList.get(i).getChild(0)
                     : _wffTreeList.get(i);
-            this.addPremise(new NDWffTree(wff, NDFlag.ACTIVE, NDStep.P));
+            this.addPremise(new NDWffTree(this.context.getInterner().intern(wff), NDFlag.ACTIVE, NDStep.P));
         }
 
         // Under the hood, we want the premises to be sorted from least to most
@@ -65,6 +88,10 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
         Collections.sort(this.premisesList, new NaturalDeductionComparator());
     }
 
+    public BaseNaturalDeductionValidator(ArrayList<WffTree> _wffTreeList, ProofType _proofType) {
+        this(_wffTreeList, _proofType, new ProverContext());
+    }
+
     /**
      * Computes a natural deduction proof for a logic formula. The details should be listed in the
      * subclasses for FOPL and PL respectively.
@@ -80,12 +107,7 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
      * @return NDWffTree object with _tree as its WffTree instance, null if it is not a current premise.
      */
     protected NDWffTree getPremiseNDWffTree(WffTree _tree) {
-        for (NDWffTree ndWffTree : this.premisesList) {
-            if (ndWffTree.getWffTree().stringEquals(_tree)) {
-                return ndWffTree;
-            }
-        }
-        return null;
+        return this.premisesIndex.get(_tree.getAlphaKey());
     }
 
     /**
@@ -144,9 +166,9 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
         if (!_parent.isMTActive()) {
             for (NDWffTree ndWffTree : this.premisesList) {
                 // Check to see if we have the negated consequent satisfied.
-                if (_mtTree.getChild(1).stringEquals(BaseTruthTreeGenerator.getNegatedNode(ndWffTree.getWffTree()))
-                        || ndWffTree.getWffTree().stringEquals(BaseTruthTreeGenerator.getNegatedNode(_mtTree.getChild(1)))) {
-                    WffTree flippedWff = BaseTruthTreeGenerator.getNegatedNode(_mtTree.getChild(0));
+                if (_mtTree.getChild(1).stringEquals(BaseTruthTreeGenerator.getNegatedNode(ndWffTree.getWffTree(), this.context))
+                        || ndWffTree.getWffTree().stringEquals(BaseTruthTreeGenerator.getNegatedNode(_mtTree.getChild(1), this.context))) {
+                    WffTree flippedWff = BaseTruthTreeGenerator.getNegatedNode(_mtTree.getChild(0), this.context);
                     NDWffTree flippedNode = new NDWffTree(flippedWff, NDStep.MT, _parent, ndWffTree);
                     this.addPremise(flippedNode);
                     return true;
@@ -167,10 +189,10 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
      */
     protected boolean findDisjunctiveSyllogism(WffTree _disjTree, NDWffTree _parent) {
         if (!_parent.isDSActive() && _disjTree.stringEquals(_parent.getWffTree())) {
-            WffTree flippedLhs = BaseTruthTreeGenerator.getFlippedNode(_disjTree.getChild(0));
-            WffTree flippedRhs = BaseTruthTreeGenerator.getFlippedNode(_disjTree.getChild(1));
-            boolean lhs = this.premisesList.contains(this.getPremiseNDWffTree(flippedLhs));
-            boolean rhs = this.premisesList.contains(this.getPremiseNDWffTree(flippedRhs));
+            WffTree flippedLhs = BaseTruthTreeGenerator.getFlippedNode(_disjTree.getChild(0), this.context);
+            WffTree flippedRhs = BaseTruthTreeGenerator.getFlippedNode(_disjTree.getChild(1), this.context);
+            boolean lhs = this.premisesIndex.containsKey(flippedLhs.getAlphaKey());
+            boolean rhs = this.premisesIndex.containsKey(flippedRhs.getAlphaKey());
             // If we do not satisfy one of them but do satisfy the other, then we can perform DS.
             if (Boolean.logicalOr(lhs, rhs)) {
                 NDWffTree ndWffTree = null;
@@ -207,11 +229,11 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
                 // is equal to the consequent of the other.
                 ImpNode impNode = null;
                 if (_impNode.getChild(1).stringEquals(othImp.getChild(0))) {
-                    impNode = new ImpNode();
+                    impNode = this.context.createImpNode();
                     impNode.addChild(_impNode.getChild(0));
                     impNode.addChild(othImp.getChild(1));
                 } else if (othImp.getChild(1).stringEquals(_impNode.getChild(0))) {
-                    impNode = new ImpNode();
+                    impNode = this.context.createImpNode();
                     impNode.addChild(othImp.getChild(0));
                     impNode.addChild(_impNode.getChild(1));
                 }
@@ -238,9 +260,9 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
     protected boolean findBiconditionalElimination(WffTree _bicondTree, NDWffTree _parent) {
         if (!_parent.isBCActive()) {
             _parent.setFlags(NDFlag.BC);
-            AndNode and = new AndNode();
-            ImpNode impLhs = new ImpNode();
-            ImpNode impRhs = new ImpNode();
+            AndNode and = this.context.createAndNode();
+            ImpNode impLhs = this.context.createImpNode();
+            ImpNode impRhs = this.context.createImpNode();
             impLhs.addChild(_bicondTree.getChild(0));
             impLhs.addChild(_bicondTree.getChild(1));
             impRhs.addChild(_bicondTree.getChild(1));
@@ -263,9 +285,9 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
      */
     protected boolean findTransposition(WffTree _impNode, NDWffTree _parent) {
         if (_impNode.isImp() && !_parent.isTPActive() && !this.isConclusion(_parent)) {
-            NegNode antecedent = new NegNode();
-            NegNode consequent = new NegNode();
-            ImpNode transpositionNode = new ImpNode();
+            NegNode antecedent = this.context.createNegNode();
+            NegNode consequent = this.context.createNegNode();
+            ImpNode transpositionNode = this.context.createImpNode();
             antecedent.addChild(_impNode.getChild(1));
             consequent.addChild(_impNode.getChild(0));
             transpositionNode.addChild(antecedent);
@@ -301,11 +323,11 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
             if (lhsImp != null && rhsImp != null) {
                 _parent.setFlags(NDFlag.CD);
                 // Left to right.
-                OrNode orNodeLhs = new OrNode();
+                OrNode orNodeLhs = this.context.createOrNode();
                 orNodeLhs.addChild(lhsImp.getWffTree().getChild(1));
                 orNodeLhs.addChild(rhsImp.getWffTree().getChild(1));
                 // Right to left.
-                OrNode orNodeRhs = new OrNode();
+                OrNode orNodeRhs = this.context.createOrNode();
                 orNodeRhs.addChild(rhsImp.getWffTree().getChild(1));
                 orNodeRhs.addChild(lhsImp.getWffTree().getChild(1));
                 this.addPremise(new NDWffTree(orNodeLhs, NDFlag.CD, NDStep.CD, lhsImp, rhsImp, _parent));
@@ -330,9 +352,9 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
             for (NDWffTree ndWffTree : this.premisesList) {
                 WffTree wff = ndWffTree.getWffTree();
                 if (wff.isImp()) {
-                    if (lhs.stringEquals(BaseTruthTreeGenerator.getFlippedNode(wff.getChild(1)))) {
+                    if (lhs.stringEquals(BaseTruthTreeGenerator.getFlippedNode(wff.getChild(1), this.context))) {
                         lhsImp = ndWffTree;
-                    } else if (rhs.stringEquals(BaseTruthTreeGenerator.getFlippedNode(wff.getChild(1)))) {
+                    } else if (rhs.stringEquals(BaseTruthTreeGenerator.getFlippedNode(wff.getChild(1), this.context))) {
                         rhsImp = ndWffTree;
                     }
                 }
@@ -342,13 +364,13 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
             if (lhsImp != null && rhsImp != null) {
                 _parent.setFlags(NDFlag.DD);
                 // Left to right.
-                OrNode orNodeLhs = new OrNode();
-                orNodeLhs.addChild(BaseTruthTreeGenerator.getFlippedNode(lhsImp.getWffTree().getChild(0)));
-                orNodeLhs.addChild(BaseTruthTreeGenerator.getFlippedNode(rhsImp.getWffTree().getChild(0)));
+                OrNode orNodeLhs = this.context.createOrNode();
+                orNodeLhs.addChild(BaseTruthTreeGenerator.getFlippedNode(lhsImp.getWffTree().getChild(0), this.context));
+                orNodeLhs.addChild(BaseTruthTreeGenerator.getFlippedNode(rhsImp.getWffTree().getChild(0), this.context));
                 // Right to left.
-                OrNode orNodeRhs = new OrNode();
-                orNodeRhs.addChild(BaseTruthTreeGenerator.getFlippedNode(rhsImp.getWffTree().getChild(0)));
-                orNodeRhs.addChild(BaseTruthTreeGenerator.getFlippedNode(lhsImp.getWffTree().getChild(0)));
+                OrNode orNodeRhs = this.context.createOrNode();
+                orNodeRhs.addChild(BaseTruthTreeGenerator.getFlippedNode(rhsImp.getWffTree().getChild(0), this.context));
+                orNodeRhs.addChild(BaseTruthTreeGenerator.getFlippedNode(lhsImp.getWffTree().getChild(0), this.context));
                 this.addPremise(new NDWffTree(orNodeLhs, NDFlag.DD, NDStep.DD, lhsImp, rhsImp, _parent));
                 this.addPremise(new NDWffTree(orNodeRhs, NDFlag.DD, NDStep.DD, rhsImp, lhsImp, _parent));
                 return true;
@@ -367,10 +389,10 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
             WffTree deMorganNode = null;
             // Negate a biconditional to get ~(X <-> Y) => ~((X->Y) & (Y->X)).
             if (_binopTree.isNegation() && _binopTree.getChild(0).isBicond()) {
-                NegNode neg = new NegNode();
-                AndNode and = new AndNode();
-                ImpNode lhs = new ImpNode();
-                ImpNode rhs = new ImpNode();
+                NegNode neg = this.context.createNegNode();
+                AndNode and = this.context.createAndNode();
+                ImpNode lhs = this.context.createImpNode();
+                ImpNode rhs = this.context.createImpNode();
                 lhs.addChild(_binopTree.getChild(0).getChild(0));
                 lhs.addChild(_binopTree.getChild(0).getChild(1));
                 rhs.addChild(_binopTree.getChild(0).getChild(1));
@@ -385,8 +407,8 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
                     && _binopTree.getChild(0).getChild(0).isImp() && _binopTree.getChild(0).getChild(1).isImp()
                     && _binopTree.getChild(0).getChild(0).getChild(0).stringEquals(_binopTree.getChild(0).getChild(1).getChild(1))
                     && _binopTree.getChild(0).getChild(0).getChild(1).stringEquals(_binopTree.getChild(0).getChild(1).getChild(0))) {
-                NegNode negNode = new NegNode();
-                BicondNode bicondNode = new BicondNode();
+                NegNode negNode = this.context.createNegNode();
+                BicondNode bicondNode = this.context.createBicondNode();
                 bicondNode.addChild(_binopTree.getChild(0).getChild(0).getChild(0));
                 bicondNode.addChild(_binopTree.getChild(0).getChild(0).getChild(1));
                 negNode.addChild(bicondNode);
@@ -394,17 +416,17 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
             }
             // Two types: one is ~(X B Y) => (~X ~B ~Y)
             else if (_binopTree.isNegation() && (_binopTree.getChild(0).isOr() || _binopTree.getChild(0).isAnd() || _binopTree.getChild(0).isImp())) {
-                deMorganNode = BaseTruthTreeGenerator.getNegatedBinaryNode(_binopTree.getChild(0)); // B
+                deMorganNode = BaseTruthTreeGenerator.getNegatedBinaryNode(_binopTree.getChild(0), this.context); // B
                 deMorganNode.addChild(_binopTree.getChild(0).isImp() ? _binopTree.getChild(0).getChild(0)
-                        : BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0).getChild(0))); // LHS X
-                deMorganNode.addChild(BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0).getChild(1))); // RHS Y
+                        : BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0).getChild(0), this.context)); // LHS X
+                deMorganNode.addChild(BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0).getChild(1), this.context)); // RHS Y
             }
             // Other is (X B Y) => ~(~X ~B ~Y)
             else if ((_binopTree.isOr() || _binopTree.isAnd() || _binopTree.isImp())) {
-                WffTree negBinaryNode = BaseTruthTreeGenerator.getNegatedBinaryNode(_binopTree); // B
-                negBinaryNode.addChild(_binopTree.isImp() ? _binopTree.getChild(0) : BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0))); // LHS X
-                negBinaryNode.addChild(BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(1))); // RHS Y
-                deMorganNode = new NegNode();
+                WffTree negBinaryNode = BaseTruthTreeGenerator.getNegatedBinaryNode(_binopTree, this.context); // B
+                negBinaryNode.addChild(_binopTree.isImp() ? _binopTree.getChild(0) : BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0), this.context)); // LHS X
+                negBinaryNode.addChild(BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(1), this.context)); // RHS Y
+                deMorganNode = this.context.createNegNode();
                 deMorganNode.addChild(negBinaryNode);
             }
             // If we found a node, then it'll be applied/inserted here.
@@ -427,8 +449,8 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
             WffTree newWff = null;
             // Convert (P -> Q) to (~P V Q).
             if (_binopNode.isImp()) {
-                OrNode orNode = new OrNode();
-                NegNode negLhs = new NegNode();
+                OrNode orNode = this.context.createOrNode();
+                NegNode negLhs = this.context.createNegNode();
                 negLhs.addChild(_binopNode.getChild(0));
                 orNode.addChild(negLhs);
                 orNode.addChild(_binopNode.getChild(1));
@@ -439,7 +461,7 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
                 WffTree lhs = _binopNode.getChild(0);
                 WffTree rhs = _binopNode.getChild(1);
                 if (lhs.isNegation()) {
-                    ImpNode impNode = new ImpNode();
+                    ImpNode impNode = this.context.createImpNode();
                     impNode.addChild(lhs.getChild(0)); // Un-negate the lhs.
                     impNode.addChild(rhs);
                     newWff = impNode;
@@ -470,8 +492,8 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
                 dnNDWffTree = new NDWffTree(_node.getChild(0).getChild(0), NDFlag.DNE, NDStep.DNE, _parent);
             } else if (!_parent.isDNEActive()) {
                 // // Double negation introduction (only if it's a goal! Don't add more than is necessary!).
-                NegNode doubleNeg = new NegNode();
-                NegNode neg = new NegNode();
+                NegNode doubleNeg = this.context.createNegNode();
+                NegNode neg = this.context.createNegNode();
                 doubleNeg.addChild(neg);
                 neg.addChild(_node);
                 _parent.setFlags(NDFlag.DNI);
@@ -532,7 +554,7 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
                     NDWffTree wffTwo = this.premisesList.get(j);
                     // Compute the negated of one of the nodes and see if they're equivalent.
                     if (((!wffOne.getWffTree().isDoubleNegation() && !wffTwo.getWffTree().isDoubleNegation())
-                            && BaseTruthTreeGenerator.getFlippedNode(wffOne.getWffTree()).stringEquals(wffTwo.getWffTree()))) {
+                            && BaseTruthTreeGenerator.isComplement(wffTwo.getWffTree(), wffOne.getWffTree(), this.context))) {
                         NDWffTree falseNode = new NDWffTree(new FalseNode(), NDFlag.ACTIVE, NDStep.RI, wffOne, wffTwo);
                         NDWffTree conclusionNode = new NDWffTree(this.conclusionWff.getWffTree(), NDFlag.ACTIVE, NDStep.RE, falseNode);
                         // Assign this as the conclusion node.
@@ -548,42 +570,54 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
     }
 
     /**
+     * Activates the conclusion node and every node that it was (transitively) derived from.
+     * Each node is visited once, even if several derivations share it.
+     *
      * @param _conclusionNode
      */
     protected void activateLinks(NDWffTree _conclusionNode) {
-        if (_conclusionNode == null) {
-            return;
-        }
-        _conclusionNode.setActive(true);
-        for (NDWffTree ndWffTree : _conclusionNode.getDerivedParents()) {
-            this.activateLinks(ndWffTree);
-        }
+        final IdentityHashMap<NDWffTree, Boolean> visited = new IdentityHashMap<>();
+        new TreeWalker<>(NDWffTree.DERIVED_PARENT_ACCESSOR).walk(_conclusionNode, new TreeWalker.Visitor<NDWffTree>() {
+            @Override
+            public boolean enter(NDWffTree _node, int _index, int _depth) {
+                if (visited.put(_node, Boolean.TRUE) != null) {
+                    return false;
+                }
+                _node.setActive(true);
+                return true;
+            }
+
+            @Override
+            public void exit(NDWffTree _node, int _index, int _depth) {
+            }
+        });
     }
 
     /**
      * Attempts to add a premise (NDWffTree) to our running list of premises. A premise is NOT added if there is already
      * an identical premise in the tree OR it's a "redundant node". The definition for that is below.
+     * The wff of a derived premise is interned first, so later rules that negate or flip it reuse
+     * the cached complement instead of building new nodes.
      *
      * @param _ndWffTree NDWffTree to insert as a premise.
      */
     protected void addPremise(NDWffTree _ndWffTree) {
         // THIS NEEDS TO BE ADAPTED TO WORK WITH CONTRADICTIONS SINCE THOSE WILL FAIL!!!!!!!
-        if (!this.premisesList.contains(_ndWffTree) && !this.isRedundantTree(_ndWffTree)) {
+        _ndWffTree.setWffTree(this.context.getInterner().intern(_ndWffTree.getWffTree()));
+        AlphaKey key = _ndWffTree.getWffTree().getAlphaKey();
+        if (!this.premisesIndex.containsKey(key) && !this.isRedundantTree(_ndWffTree)) {
             this.premisesList.add(_ndWffTree);
+            this.premisesIndex.put(key, _ndWffTree);
         }
     }
 
     /**
      * @param _wffTree
-     * @return true if _wffTree is a goal, false otherwise.
+     * @return true if _wffTree is, up to renaming of bound variables, a premise or the conclusion.
      */
     protected boolean isGoal(WffTree _wffTree) {
-        for (NDWffTree ndWffTree : this.premisesList) {
-            if (_wffTree.stringEquals(ndWffTree.getWffTree())) {
-                return true;
-            }
-        }
-        return _wffTree.stringEquals(this.conclusionWff.getWffTree());
+        return this.premisesIndex.containsKey(_wffTree.getAlphaKey())
+                || _wffTree.alphaEquals(this.conclusionWff.getWffTree());
     }
 
     /**
@@ -649,7 +683,7 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
      */
     protected boolean isEventualNegatedGoal(WffTree _tree, int maxIterations) {
         if (maxIterations > NDTPParserListener.MAXIMUM_NEGATED_NODES) return false;
-        NegNode neg = new NegNode();
+        NegNode neg = this.context.createNegNode();
         neg.addChild(_tree);
         for (NDWffTree ndWffTree : this.premisesList) { if (neg.stringEquals(ndWffTree.getWffTree())) { return true; } }
         return neg.stringEquals(this.conclusionWff.getWffTree()) || this.isEventualNegatedGoal(neg, maxIterations + 1);
@@ -661,8 +695,11 @@ public abstract class BaseNaturalDeductionValidator implements NaturalDeductionA
     private static class NaturalDeductionComparator implements Comparator<NDWffTree> {
         @Override
         public int compare(NDWffTree _o1, NDWffTree _o2) {
-            if (_o1.getWffTree().getNodeType() == _o2.getWffTree().getNodeType())
-                return _o1.getWffTree().getStringRep().length() - _o2.getWffTree().getStringRep().length();
+            if (_o1.getWffTree().getNodeType() == _o2.getWffTree().getNodeType()) {
+                int cmp = _o1.getWffTree().getAnalytics().getSize() - _o2.getWffTree().getAnalytics().getSize();
+                // Ties fall back to the (cached) string length, which used to be the only key.
+                return cmp != 0 ? cmp : _o1.getWffTree().getStringRep().length() - _o2.getWffTree().getStringRep().length();
+            }
             return _o1.getValue() - _o2.getValue();
         }
     }
@@ -1,6 +1,7 @@
 package com.ndtp.algorithms;
 
 import com.ndtp.algorithms.models.TruthTree;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.*;
 
 import java.util.ArrayList;
@@ -12,18 +13,60 @@ import java.util.PriorityQueue;
 public abstract class BaseTruthTreeGenerator {
 
     /**
-     *
+     * Receives the branches of a truth tree as they are completed, so that a caller that only
+     * needs a verdict can stop the generator early.
      */
-    public static int identityCount = 0;
+    public interface BranchListener {
+
+        /**
+         * Called once per branch when it closes, or when it is found open with every wff on it
+         * developed. The latter is only reported for propositional trees, where such a branch
+         * stays open for good.
+         *
+         * @param _leaf   - leaf of the branch.
+         * @param _closed - true if the branch closed, false if it is complete and open.
+         * @return true to keep building the tree, false to stop.
+         */
+        boolean branchCompleted(TruthTree _leaf, boolean _closed);
+    }
 
     /**
      *
      */
     protected WffTree tree;
 
+    /**
+     * Session state: node identifiers, operator notation, and the interner that shares
+     * structurally identical formulas (the input tree and any quantifier instantiations)
+     * between the branches of the generated truth tree.
+     */
+    protected final ProverContext context;
+
+    /**
+     * Whether to run WffSimplifier on the tree before building the truth tree.
+     */
+    private boolean simplification;
+
+    /**
+     * Listener for completed branches, or null.
+     */
+    private BranchListener branchListener;
+
+    /**
+     * Number of leaves of the tree being built that have been closed.
+     */
+    private int closedLeaves;
+
+    public BaseTruthTreeGenerator(WffTree _tree, ProverContext _context) {
+        this.context = _context;
+        this.context.recordNotation(_tree);
+        this.tree = this.context.getInterner().intern(_tree);
+        this.context.resetIdentifiers();
+        this.context.resetLiteralIds();
+    }
+
     public BaseTruthTreeGenerator(WffTree _tree) {
-        this.tree = _tree;
-        BaseTruthTreeGenerator.identityCount = 0;
+        this(_tree, new ProverContext());
     }
 
     /**
@@ -37,49 +80,29 @@ public abstract class BaseTruthTreeGenerator {
      */
     public static ArrayList<TruthTree> getLeaves(TruthTree _truthTree) {
         ArrayList<TruthTree> leaves = new ArrayList<>();
-        BaseTruthTreeGenerator.getLeavesHelper(_truthTree, leaves);
+        _truthTree.collectLeaves(leaves);
         return leaves;
     }
 
     /**
-     * Computes the path from every leaf node to the root, looking for
-     * closed branches.
+     * Marks the leaves whose branches are closed.
      * <p>
      * A branch is closed if and only if there exists a wff P such that
-     * ~P is an ancestor.
+     * ~P is an ancestor (or it contains FALSE).
      * <p>
-     * Only leaves may ever be closed. This traversal goes up from all leaves
-     * and tries to find a closure. Closures only occur after a wff is completely
-     * developed (i.e., cannot close in the middle of a development), so if there
-     * exists a node that contradicts with something up the chain, we have to check
-     * it. Looks inefficient, but in practice checks very few nodes because of the
-     * flag.
-     * <p>
-     * The invariant is that if a leaf P has no contradictions (that is, no ancestor
-     * is ~P) when checked, then it will never contradict with an ancestor.
+     * Only leaves may ever be closed. The check itself is done when a node is
+     * created: it looks the complement of its literal up in the literals of its
+     * branch (see BranchLiterals) and inherits whether its parent's branch was
+     * already contradictory, so this is constant time per leaf.
      *
      * @param _leaves - list of leaves to check for closure.
      */
     public static void computeClosedBranches(ArrayList<TruthTree> _leaves) {
+        // Each node looks its complement up in the literals of its branch when it is created.
         for (TruthTree leaf : _leaves) {
-            if (!leaf.isClosed()) {
-                TruthTree currentLeaf = leaf;
-                // Optimization...
-                outer:
-                while (currentLeaf != null && (currentLeaf.getFlags() & NodeFlag.STOP_CLOSE_CHECK) == 0) {
-                    TruthTree parentToCheck = currentLeaf.getParent();
-                    while (parentToCheck != null) {
-                        if (currentLeaf.getWff().stringEquals(getFlippedNode(parentToCheck.getWff()))
-                                && currentLeaf.getWff().isClosable()) {
-                            leaf.setClosed(true);
-                            break outer;
-                        }
-                        parentToCheck = parentToCheck.getParent();
-                    }
-                    currentLeaf = currentLeaf.getParent();
-                }
+            if (leaf.hasContradiction()) {
+                leaf.setClosed(true);
             }
-            leaf.setFlags(NodeFlag.STOP_CLOSE_CHECK);
         }
     }
 
@@ -90,12 +113,18 @@ public abstract class BaseTruthTreeGenerator {
      * If our input is a wff P, then we return ~P. Similarly,
      * If our input is a wff ~P, then we return ~~P.
      *
-     * @param _wff - WffTree object to negate.
+     * @param _wff     - WffTree object to negate.
+     * @param _context - context that supplies the negation symbol.
      * @return negated version of WffTree.
      */
-    public static WffTree getNegatedNode(WffTree _wff) {
+    public static WffTree getNegatedNode(WffTree _wff, ProverContext _context) {
+        // Wffs interned by the context keep their negation, so it is only built once.
+        if (_context.getInterner().owns(_wff)) {
+            return _context.getInterner().getNegation(_wff, _context.getOperatorSymbol(NodeType.NEG));
+        }
+
         WffTree negWff;
-        NegNode neg = new NegNode();
+        NegNode neg = _context.createNegNode();
         neg.addChild(_wff);
         negWff = neg;
 
@@ -112,15 +141,16 @@ public abstract class BaseTruthTreeGenerator {
      * the corresponding subtype instead of a generic WffTree or NegNode. In other words,
      * this method returns an AndNode or an OrNode.
      *
-     * @param _tree - WffTree node to negate.
+     * @param _tree    - WffTree node to negate.
+     * @param _context - context that supplies the operator symbol.
      * @return WffTree node instance of the corresponding negative type.
      * @throws IllegalArgumentException if tree is not an OrNode, ImpNode, or AndNode.
      */
-    public static WffTree getNegatedBinaryNode(WffTree _tree) {
+    public static WffTree getNegatedBinaryNode(WffTree _tree, ProverContext _context) {
         if (_tree.isOr() || _tree.isImp()) {
-            return new AndNode();
+            return _context.createAndNode();
         } else if (_tree.isAnd()) {
-            return new OrNode();
+            return _context.createOrNode();
         }
 
         throw new IllegalArgumentException("Cannot get negated node of type " + _tree);
@@ -133,29 +163,33 @@ public abstract class BaseTruthTreeGenerator {
      * If our input is a wff P, then we return ~P. Similarly,
      * If our input is a wff ~P, then we return P.
      *
-     * @param _wff - WffTree object to negate.
+     * @param _wff     - WffTree object to negate.
+     * @param _context - context that supplies the negation symbol.
      * @return negated version of WffTree.
      */
-    public static WffTree getFlippedNode(WffTree _wff) {
+    public static WffTree getFlippedNode(WffTree _wff, ProverContext _context) {
+        // Wffs interned by the context keep their complement, so it is only built once.
+        if (_context.getInterner().owns(_wff)) {
+            return _context.getInterner().getComplement(_wff, _context.getOperatorSymbol(NodeType.NEG));
+        }
+
         WffTree negWff;
         if (_wff.isNegation()) {
             negWff = _wff.getChild(0);
         } else if (_wff.isExistential()) {
-            WffTree newUniversal = _wff.getChild(0).copy();
             UniversalQuantifierNode univ = new UniversalQuantifierNode(((ExistentialQuantifierNode) _wff).getVariableSymbol());
-            NegNode n = new NegNode();
-            n.addChild(newUniversal);
+            NegNode n = _context.createNegNode();
+            n.addChild(_wff.getChild(0));
             univ.addChild(n);
             return univ;
         } else if (_wff.isUniversal()) {
-            WffTree newExistential = _wff.getChild(0).copy();
             ExistentialQuantifierNode exis = new ExistentialQuantifierNode(((UniversalQuantifierNode) _wff).getVariableSymbol());
-            NegNode n = new NegNode();
-            n.addChild(newExistential);
+            NegNode n = _context.createNegNode();
+            n.addChild(_wff.getChild(0));
             exis.addChild(n);
             return exis;
         } else {
-            NegNode neg = new NegNode();
+            NegNode neg = _context.createNegNode();
             neg.addChild(_wff);
             negWff = neg;
         }
@@ -164,25 +198,18 @@ public abstract class BaseTruthTreeGenerator {
     }
 
     /**
-     * Recursive helper function for computing leaf nodes in a Truth Tree.
-     * Uses a pre-order traversal.
+     * Determines if one wff is the flipped version of another, i.e., if the two close a branch.
+     * When both are interned, the complement is cached and usually the same reference as _wff,
+     * so no nodes or strings are built.
      *
-     * @param _truthTree - TruthTree node to recursively search for leaves.
-     * @param _leaves    - linked list of leaf nodes to add to.
+     * @param _wff     - wff to test.
+     * @param _other   - wff to compute the flipped version of.
+     * @param _context - context that supplies the negation symbol.
+     * @return true if _wff is equal to getFlippedNode(_other), false otherwise.
      */
-    protected static void getLeavesHelper(TruthTree _truthTree, ArrayList<TruthTree> _leaves) {
-        // If both left and right nodes are null then it's a leaf by def.
-        if (_truthTree.getLeft() == null && _truthTree.getRight() == null) {
-            _leaves.add(_truthTree);
-        }
-
-        if (_truthTree.getLeft() != null) {
-            getLeavesHelper(_truthTree.getLeft(), _leaves);
-        }
-
-        if (_truthTree.getRight() != null) {
-            getLeavesHelper(_truthTree.getRight(), _leaves);
-        }
+    public static boolean isComplement(WffTree _wff, WffTree _other, ProverContext _context) {
+        WffTree flipped = getFlippedNode(_other, _context);
+        return _wff == flipped || _wff.stringEquals(flipped);
     }
 
     /**
@@ -230,11 +257,68 @@ public abstract class BaseTruthTreeGenerator {
      * @return new TruthTree object constructed from the WffTree.
      */
     public TruthTree getTruthTree() {
-        TruthTree ttn = new TruthTree(this.tree.getChild(0), null, null);
+        WffTree root = this.tree.getChild(0);
+        if (this.simplification) {
+            root = this.context.getInterner().intern(WffSimplifier.simplify(root, this.context));
+        }
+        TruthTree ttn = new TruthTree(root, this.context);
+        this.closedLeaves = 0;
         this.buildTreeHelper(ttn);
         return ttn;
     }
 
+    /**
+     * Turns the simplification pass on or off for the next call to getTruthTree. With it on,
+     * constants are propagated and redundant operands, stacked negations, and vacuous
+     * quantifiers are removed first, so the truth tree is built from a smaller wff.
+     *
+     * @param _simplification - true to simplify the tree first.
+     */
+    public void setSimplification(boolean _simplification) {
+        this.simplification = _simplification;
+    }
+
+    /**
+     * Sets the listener that the next calls to getTruthTree report completed branches to.
+     * If it asks to stop, getTruthTree returns the tree as it is at that point.
+     *
+     * @param _branchListener - listener, or null for none.
+     */
+    public void setBranchListener(BranchListener _branchListener) {
+        this.branchListener = _branchListener;
+    }
+
+    /**
+     * Checks the leaves attached since the last poll for closed branches, and reports the ones
+     * that closed. With _reportOpen, it also reports the new leaves whose branches are open and
+     * fully developed, i.e., every node from the leaf up to the root has been polled or is a
+     * literal (or a truth constant), which there is nothing to develop in. A wff is developed
+     * on all the open leaves below it at once, so a branch can only become fully developed when
+     * its leaf is new.
+     *
+     * @param _tree       - node that was just polled.
+     * @param _reportOpen - true to report open branches; only valid for propositional trees.
+     * @return false if the listener asked to stop or every branch of the tree is closed, so
+     * there is nothing left to build; true otherwise.
+     */
+    protected boolean checkNewBranches(TruthTree _tree, boolean _reportOpen) {
+        ArrayList<TruthTree> newLeaves = _tree.takeNewLeaves();
+        BaseTruthTreeGenerator.computeClosedBranches(newLeaves);
+        for (TruthTree leaf : newLeaves) {
+            if (leaf.isClosed()) {
+                this.closedLeaves++;
+                if (this.branchListener != null && !this.branchListener.branchCompleted(leaf, true)) {
+                    return false;
+                }
+            } else if (_reportOpen && this.branchListener != null && leaf.isBranchDeveloped()
+                    && !this.branchListener.branchCompleted(leaf, false)) {
+                return false;
+            }
+        }
+        // Nothing is added below a closed leaf, so the rest of the queue would not change the tree.
+        return this.closedLeaves < _tree.getLeafCount();
+    }
+
     /**
      * Prints out the TruthTree in the console in a pretty format.
      * <p>
@@ -275,7 +359,9 @@ public abstract class BaseTruthTreeGenerator {
      * P
      * Q
      * <p>
-     * is the resulting stack. All stacks should be added to the leaves.
+     * is the resulting stack. All stacks should be added to the leaves. A conjunction
+     * with more than two operands (from the negation normal form pass) stacks all of
+     * them in this one step.
      *
      * @param _conj   - Conjunction node.
      * @param _leaves - list of leaves.
@@ -287,12 +373,15 @@ public abstract class BaseTruthTreeGenerator {
         }
 
         // We need to stack on the leaf ONLY.
+        WffTree conj = _conj.getWff();
         for (TruthTree leaf : _leaves) {
             if (!leaf.isClosed()) {
-                leaf.addCenter(new TruthTree(_conj.getWff().getChild(0), leaf, _conj));
-                leaf.getCenter().addCenter(new TruthTree(_conj.getWff().getChild(1), leaf.getCenter(), _conj));
-                _queue.add(leaf.getCenter());
-                _queue.add(leaf.getCenter().getCenter());
+                TruthTree curr = leaf;
+                for (int i = 0; i < conj.getChildrenSize(); i++) {
+                    curr.addCenter(new TruthTree(conj.getChild(i), curr, _conj));
+                    curr = curr.getCenter();
+                    _queue.add(curr);
+                }
             }
         }
     }
@@ -306,6 +395,11 @@ public abstract class BaseTruthTreeGenerator {
      * <p>
      * is the resulting branch. If there are multiple leaves in the current TruthTree
      * node, then this branch is applied to all of them.
+     * <p>
+     * A disjunction with more than two operands (from the negation normal form pass)
+     * opens all of its branches in this one step. Since a TruthTree only has two
+     * children, (A | B | C) branches into A and (B | C), and (B | C) is branched right
+     * away instead of going back through the queue.
      *
      * @param _disj   - Disjunction node.
      * @param _leaves - list of leaves.
@@ -316,12 +410,31 @@ public abstract class BaseTruthTreeGenerator {
             throw new IllegalArgumentException("Error: disjunction expects disjunction node but got " + _disj.getClass());
         }
 
+        WffTree disj = _disj.getWff();
+        WffTree rest = null;
+        if (disj.getChildrenSize() > 2) {
+            rest = this.context.createOrNode();
+            for (int i = 1; i < disj.getChildrenSize(); i++) {
+                rest.addChild(disj.getChild(i));
+            }
+            rest = this.context.getInterner().intern(rest);
+        }
+
         for (TruthTree leaf : _leaves) {
             if (!leaf.isClosed()) {
-                leaf.addLeft(new TruthTree(_disj.getWff().getChild(0), leaf, _disj));
-                leaf.addRight(new TruthTree(_disj.getWff().getChild(1), leaf, _disj));
+                leaf.addLeft(new TruthTree(disj.getChild(0), leaf, _disj));
                 _queue.add(leaf.getLeft());
-                _queue.add(leaf.getRight());
+                if (rest == null) {
+                    leaf.addRight(new TruthTree(disj.getChild(1), leaf, _disj));
+                    _queue.add(leaf.getRight());
+                } else {
+                    leaf.addRight(new TruthTree(rest, leaf, _disj));
+                    // The rest is developed right here rather than through the queue.
+                    leaf.getRight().setFlags(NodeFlag.DEVELOPED);
+                    ArrayList<TruthTree> restLeaf = new ArrayList<>();
+                    restLeaf.add(leaf.getRight());
+                    this.branchDisjunction(leaf.getRight(), restLeaf, _queue);
+                }
             }
         }
     }
@@ -348,7 +461,7 @@ public abstract class BaseTruthTreeGenerator {
 
         for (TruthTree leaf : _leaves) {
             if (!leaf.isClosed()) {
-                leaf.addLeft(new TruthTree(getNegatedNode(_imp.getWff().getChild(0)), leaf, _imp));
+                leaf.addLeft(new TruthTree(getNegatedNode(_imp.getWff().getChild(0), this.context), leaf, _imp));
                 leaf.addRight(new TruthTree(_imp.getWff().getChild(1), leaf, _imp));
                 _queue.add(leaf.getLeft());
                 _queue.add(leaf.getRight());
@@ -379,7 +492,7 @@ public abstract class BaseTruthTreeGenerator {
         for (TruthTree leaf : _leaves) {
             if (!leaf.isClosed()) {
                 leaf.addCenter(new TruthTree(impNode.getChild(0), leaf, _negRoot));
-                leaf.getCenter().addCenter(new TruthTree(getNegatedNode(impNode.getChild(1)), leaf.getCenter(), _negRoot));
+                leaf.getCenter().addCenter(new TruthTree(getNegatedNode(impNode.getChild(1), this.context), leaf.getCenter(), _negRoot));
                 _queue.add(leaf.getCenter());
                 _queue.add(leaf.getCenter().getCenter());
             }
@@ -410,11 +523,11 @@ public abstract class BaseTruthTreeGenerator {
             if (!leaf.isClosed()) {
                 // Left subtree.
                 leaf.addLeft(new TruthTree(xorNode.getChild(0), leaf, _xorRoot));
-                leaf.getLeft().addCenter(new TruthTree(getNegatedNode(xorNode.getChild(1)), leaf.getLeft(), _xorRoot));
+                leaf.getLeft().addCenter(new TruthTree(getNegatedNode(xorNode.getChild(1), this.context), leaf.getLeft(), _xorRoot));
 
                 // Right subtree.
                 leaf.addRight(new TruthTree(xorNode.getChild(1), leaf, _xorRoot));
-                leaf.getRight().addCenter(new TruthTree(getNegatedNode(xorNode.getChild(0)), leaf.getRight(), _xorRoot));
+                leaf.getRight().addCenter(new TruthTree(getNegatedNode(xorNode.getChild(0), this.context), leaf.getRight(), _xorRoot));
 
                 // Add them to the queue.
                 _queue.add(leaf.getLeft());
@@ -452,8 +565,8 @@ public abstract class BaseTruthTreeGenerator {
                 leaf.getLeft().addCenter(new TruthTree(xorNode.getChild(1), leaf.getLeft(), _negRoot));
 
                 // Right subtree.
-                leaf.addRight(new TruthTree(getNegatedNode(xorNode.getChild(0)), leaf, _negRoot));
-                leaf.getRight().addCenter(new TruthTree(getNegatedNode(xorNode.getChild(1)), leaf.getRight(), _negRoot));
+                leaf.addRight(new TruthTree(getNegatedNode(xorNode.getChild(0), this.context), leaf, _negRoot));
+                leaf.getRight().addCenter(new TruthTree(getNegatedNode(xorNode.getChild(1), this.context), leaf.getRight(), _negRoot));
 
                 // Add them to the queue.
                 _queue.add(leaf.getLeft());
@@ -488,8 +601,8 @@ public abstract class BaseTruthTreeGenerator {
                 leaf.getLeft().addCenter(new TruthTree(bicondNode.getChild(1), leaf.getLeft(), _bicond));
 
                 // Right subtree.
-                leaf.addRight(new TruthTree(getNegatedNode(bicondNode.getChild(0)), leaf, _bicond));
-                leaf.getRight().addCenter(new TruthTree(getNegatedNode(bicondNode.getChild(1)), leaf.getRight(), _bicond));
+                leaf.addRight(new TruthTree(getNegatedNode(bicondNode.getChild(0), this.context), leaf, _bicond));
+                leaf.getRight().addCenter(new TruthTree(getNegatedNode(bicondNode.getChild(1), this.context), leaf.getRight(), _bicond));
 
                 // Add them to the queue.
                 _queue.add(leaf.getLeft());
@@ -522,10 +635,10 @@ public abstract class BaseTruthTreeGenerator {
             if (!leaf.isClosed()) {
                 // Left subtree.
                 leaf.addLeft(new TruthTree(bicondNode.getChild(0), leaf, _negRoot));
-                leaf.getLeft().addCenter(new TruthTree(getNegatedNode(bicondNode.getChild(1)), leaf.getLeft(), _negRoot));
+                leaf.getLeft().addCenter(new TruthTree(getNegatedNode(bicondNode.getChild(1), this.context), leaf.getLeft(), _negRoot));
 
                 // Right subtree.
-                leaf.addRight(new TruthTree(getNegatedNode(bicondNode.getChild(0)), leaf, _negRoot));
+                leaf.addRight(new TruthTree(getNegatedNode(bicondNode.getChild(0), this.context), leaf, _negRoot));
                 leaf.getRight().addCenter(new TruthTree(bicondNode.getChild(1), leaf.getRight(), _negRoot));
 
                 // Add them to the queue.
@@ -573,17 +686,15 @@ public abstract class BaseTruthTreeGenerator {
                 }
             }
         } else {
-            negatedAtom = getNegatedBinaryNode(child);
-
-            // Create the negation nodes for the children.
-            NegNode n1 = new NegNode();
-            NegNode n2 = new NegNode();
+            negatedAtom = getNegatedBinaryNode(child, this.context);
 
-            n1.addChild(child.getChild(0));
-            n2.addChild(child.getChild(1));
-            negatedAtom.addChild(n1);
-            negatedAtom.addChild(n2);
-            enqueuedTTNode = new TruthTree(negatedAtom, _negRoot, _negRoot);
+            // Create the negation nodes for the children (there may be more than two).
+            for (int i = 0; i < child.getChildrenSize(); i++) {
+                NegNode n = this.context.createNegNode();
+                n.addChild(child.getChild(i));
+                negatedAtom.addChild(n);
+            }
+            enqueuedTTNode = new TruthTree(this.context.getInterner().intern(negatedAtom), _negRoot, _negRoot);
 
             // Call the respective branch/stack function. Removes De'Morgan's laws.
             if (child.isAnd()) {
@@ -0,0 +1,211 @@
+package com.ndtp.algorithms;
+
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.*;
+import com.ndtp.tools.TreeWalker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Optional preprocessing pass for the truth tree generators. It pushes every negation down to
+ * an atom, predicate, or identity, rewrites implications as disjunctions, and flattens nested
+ * conjunctions and disjunctions into single n-ary AND and OR nodes. The generators then stack
+ * an n-ary conjunction, or open all the branches of an n-ary disjunction, in one step instead
+ * of one binary step (and one trip through the priority queue) per operand.
+ * <p>
+ * Biconditionals and exclusive ors are kept, since expanding them would duplicate their
+ * operands; only the negations around them are moved inside:
+ * <p>
+ * ~(A <-> B) becomes (A <-> ~B), ~(A ⊕ B) becomes (A <-> B), and ~(∀x)P becomes (∃x)~P.
+ * </p>
+ * The result is logically equivalent to the input and shares its unchanged leaves. Generated
+ * operators use the notation recorded in the context.
+ */
+public final class NegationNormalForm {
+
+    private NegationNormalForm() {
+    }
+
+    /**
+     * Converts a wff to negation normal form. The wff is walked without recursion, so its
+     * depth is not bounded by the thread's stack.
+     *
+     * @param _tree    - wff to convert. It is not modified.
+     * @param _context - context that supplies the operator symbols.
+     * @return new wff in negation normal form.
+     */
+    public static WffTree convert(WffTree _tree, final ProverContext _context) {
+        // Post-order: each node is converted from the converted children on top of the list.
+        // The polarity of a node depends on its ancestors, so it is kept per depth on the way down.
+        final ArrayList<WffTree> converted = new ArrayList<>();
+        WffTree.getWalker().walk(_tree, new TreeWalker.Visitor<WffTree>() {
+            /**
+             * Nodes on the path from the root, by depth.
+             */
+            private WffTree[] path = new WffTree[16];
+
+            /**
+             * Polarity of each node on the path: false if it occurs under an odd number of negations.
+             */
+            private boolean[] positive = new boolean[16];
+
+            @Override
+            public boolean enter(WffTree _node, int _index, int _depth) {
+                if (_depth == this.path.length) {
+                    this.path = Arrays.copyOf(this.path, _depth * 2);
+                    this.positive = Arrays.copyOf(this.positive, _depth * 2);
+                }
+                this.path[_depth] = _node;
+                this.positive[_depth] = _depth == 0
+                        || NegationNormalForm.isPositiveChild(this.path[_depth - 1], this.positive[_depth - 1], _index);
+                // Literals are converted as a whole.
+                return !NegationNormalForm.isLiteral(_node);
+            }
+
+            @Override
+            public void exit(WffTree _node, int _index, int _depth) {
+                int childCount = NegationNormalForm.isLiteral(_node) ? 0 : _node.getChildrenSize();
+                int first = converted.size() - childCount;
+                WffTree[] children = new WffTree[childCount];
+                for (int i = 0; i < childCount; i++) {
+                    children[i] = converted.get(first + i);
+                }
+                converted.subList(first, converted.size()).clear();
+                converted.add(NegationNormalForm.convertNode(_node, children, this.positive[_depth], _context));
+                this.path[_depth] = null;
+            }
+        });
+        return converted.get(0);
+    }
+
+    /**
+     * @param _parent   - node that is being converted.
+     * @param _positive - false if _parent occurs under an odd number of negations.
+     * @param _index    - index of the child.
+     * @return false if the child of _parent at _index has to be negated, true otherwise.
+     */
+    private static boolean isPositiveChild(WffTree _parent, boolean _positive, int _index) {
+        switch (_parent.getNodeType()) {
+            case NEG:
+                return !_positive;
+            case IMP:
+                // (A -> B) is (~A | B), and ~(A -> B) is (A & ~B).
+                return _index == 0 ? !_positive : _positive;
+            case BICOND:
+                return _index == 0 || _positive;
+            case XOR:
+                return true;
+            default:
+                return _positive;
+        }
+    }
+
+    /**
+     * @return true if _tree is an atom, predicate, identity, or truth constant.
+     */
+    private static boolean isLiteral(WffTree _tree) {
+        switch (_tree.getNodeType()) {
+            case ROOT:
+            case NEG:
+            case AND:
+            case OR:
+            case IMP:
+            case BICOND:
+            case XOR:
+            case EXISTENTIAL:
+            case UNIVERSAL:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Converts one node whose children have been converted already.
+     *
+     * @param _tree     - node to convert.
+     * @param _children - converted children of _tree; empty for a literal.
+     * @param _positive - false if _tree occurs under an odd number of negations.
+     * @param _context  - context that supplies the operator symbols.
+     * @return negation normal form of _tree, or of ~_tree if _positive is false.
+     */
+    private static WffTree convertNode(WffTree _tree, WffTree[] _children, boolean _positive, ProverContext _context) {
+        switch (_tree.getNodeType()) {
+            case ROOT: {
+                WffTree root = _tree.shallowCopy();
+                for (WffTree ch : _children) {
+                    root.addChild(ch);
+                }
+                return root;
+            }
+            case NEG:
+                return _children[0];
+            case AND:
+            case OR: {
+                // De Morgan: a negated conjunction is a disjunction of negations, and vice versa.
+                boolean isAnd = _tree.isAnd() == _positive;
+                WffTree node = isAnd ? _context.createAndNode() : _context.createOrNode();
+                for (WffTree ch : _children) {
+                    NegationNormalForm.addFlattened(node, ch);
+                }
+                return node;
+            }
+            case IMP: {
+                WffTree node = _positive ? _context.createOrNode() : _context.createAndNode();
+                NegationNormalForm.addFlattened(node, _children[0]);
+                NegationNormalForm.addFlattened(node, _children[1]);
+                return node;
+            }
+            case BICOND: {
+                // ~(A <-> B) becomes (A <-> ~B); the polarity of the operands was set on the way down.
+                WffTree node = _context.createBicondNode();
+                node.addChild(_children[0]);
+                node.addChild(_children[1]);
+                return node;
+            }
+            case XOR: {
+                WffTree node = _positive ? _context.createExclusiveOrNode() : _context.createBicondNode();
+                node.addChild(_children[0]);
+                node.addChild(_children[1]);
+                return node;
+            }
+            case EXISTENTIAL:
+            case UNIVERSAL: {
+                String variable = ((QuantifierNode) _tree).getVariableSymbol();
+                WffTree node;
+                if (_positive) {
+                    node = _tree.shallowCopy();
+                } else if (_tree.isExistential()) {
+                    node = new UniversalQuantifierNode(variable);
+                } else {
+                    node = new ExistentialQuantifierNode(variable);
+                }
+                node.addChild(_children[0]);
+                return node;
+            }
+            default: {
+                // Atoms, predicates, identities, and the truth constants are literals.
+                if (_positive) {
+                    return _tree;
+                }
+                NegNode neg = _context.createNegNode();
+                neg.addChild(_tree);
+                return neg;
+            }
+        }
+    }
+
+    /**
+     * Adds _operand to the n-ary node _node, merging it in if it is the same operator.
+     */
+    private static void addFlattened(WffTree _node, WffTree _operand) {
+        if (_operand.getNodeType() == _node.getNodeType()) {
+            for (int i = 0; i < _operand.getChildrenSize(); i++) {
+                _node.addChild(_operand.getChild(i));
+            }
+        } else {
+            _node.addChild(_operand);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.ndtp.algorithms;
+
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.*;
+import com.ndtp.tools.TreeWalker;
+
+import java.util.ArrayList;
+
+/**
+ * Optional preprocessing pass that rewrites a wff into a smaller, logically equivalent one
+ * before a truth tree is built for it. It:
+ * <p>
+ * - propagates the constants TRUE and FALSE, e.g., (A & TRUE) becomes A and (A -> FALSE) becomes ~A,
+ * - collapses stacked negations, so ~~A becomes A,
+ * - removes redundant operands: (A & A) becomes A, (A -> A) becomes TRUE, and (A & ~A) becomes FALSE,
+ * - drops vacuous quantifiers, i.e., those whose variable does not occur free in their body.
+ * </p>
+ * Operands are compared up to notation, like stringEquals. After the pass, TRUE and FALSE
+ * only remain if the whole wff is one of them; a truth tree branch that contains FALSE is
+ * closed. Subtrees that do not change are shared with the input, rebuilt operators keep
+ * their symbols, and generated negations use the notation recorded in the context.
+ * <p>
+ * Whether a quantifier is vacuous is read from the free variables of its body rather than
+ * QuantifierNode.isVacuous, since that flag is only meaningful for nodes that the parser
+ * has marked.
+ * </p>
+ */
+public final class WffSimplifier {
+
+    private WffSimplifier() {
+    }
+
+    /**
+     * Simplifies a wff. The wff is walked without recursion, so its depth is not bounded by
+     * the thread's stack.
+     *
+     * @param _tree    - wff to simplify. It is not modified.
+     * @param _context - context that supplies the operator symbols.
+     * @return simplified wff, or _tree itself if nothing could be simplified.
+     */
+    public static WffTree simplify(WffTree _tree, final ProverContext _context) {
+        // Post-order: each node is simplified from the simplified children on top of the list.
+        final ArrayList<WffTree> simplified = new ArrayList<>();
+        WffTree.getWalker().walk(_tree, new TreeWalker.Visitor<WffTree>() {
+            @Override
+            public boolean enter(WffTree _node, int _index, int _depth) {
+                return true;
+            }
+
+            @Override
+            public void exit(WffTree _node, int _index, int _depth) {
+                int first = simplified.size() - _node.getChildrenSize();
+                WffTree[] children = new WffTree[_node.getChildrenSize()];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = simplified.get(first + i);
+                }
+                simplified.subList(first, simplified.size()).clear();
+                simplified.add(WffSimplifier.simplifyNode(_node, children, _context));
+            }
+        });
+        return simplified.get(0);
+    }
+
+    /**
+     * Simplifies one node whose children have been simplified already.
+     *
+     * @param _tree     - node to simplify.
+     * @param _children - simplified children of _tree.
+     * @param _context  - context that supplies the operator symbols.
+     * @return simplified node, or _tree itself if nothing could be simplified.
+     */
+    private static WffTree simplifyNode(WffTree _tree, WffTree[] _children, ProverContext _context) {
+        switch (_tree.getNodeType()) {
+            case ROOT:
+                return WffSimplifier.rebuild(_tree, _children);
+            case NEG:
+                return WffSimplifier.negate(_children[0], _tree, _context);
+            case AND:
+            case OR:
+                return WffSimplifier.simplifyJunction(_tree, _children);
+            case IMP: {
+                WffTree lhs = _children[0];
+                WffTree rhs = _children[1];
+                if (lhs.isFalse() || rhs.isTruth() || lhs.stringEquals(rhs)) {
+                    return new TruthNode();
+                } else if (lhs.isTruth()) {
+                    return rhs;
+                } else if (rhs.isFalse()) {
+                    return WffSimplifier.negate(lhs, null, _context);
+                }
+                return WffSimplifier.rebuild(_tree, lhs, rhs);
+            }
+            case BICOND:
+            case XOR: {
+                // An exclusive or is a negated biconditional, so only the polarity differs.
+                boolean bicond = _tree.isBicond();
+                WffTree lhs = _children[0];
+                WffTree rhs = _children[1];
+                if (lhs.isTruth() || lhs.isFalse()) {
+                    return lhs.isTruth() == bicond ? rhs : WffSimplifier.negate(rhs, null, _context);
+                } else if (rhs.isTruth() || rhs.isFalse()) {
+                    return rhs.isTruth() == bicond ? lhs : WffSimplifier.negate(lhs, null, _context);
+                } else if (lhs.stringEquals(rhs)) {
+                    return bicond ? new TruthNode() : new FalseNode();
+                } else if (WffSimplifier.isComplement(lhs, rhs)) {
+                    return bicond ? new FalseNode() : new TruthNode();
+                }
+                return WffSimplifier.rebuild(_tree, lhs, rhs);
+            }
+            case EXISTENTIAL:
+            case UNIVERSAL: {
+                WffTree body = _children[0];
+                int variableId = ((QuantifierNode) _tree).getVariableSymbolId();
+                if (body.isTruth() || body.isFalse() || !body.getAnalytics().containsFreeVariable(variableId)) {
+                    return body;
+                }
+                return WffSimplifier.rebuild(_tree, body);
+            }
+            case IDENTITY:
+                // (a = a) always holds.
+                return _tree.getChild(0).stringEquals(_tree.getChild(1)) ? new TruthNode() : _tree;
+            default:
+                // Atoms, predicates, and the truth constants cannot be simplified.
+                return _tree;
+        }
+    }
+
+    /**
+     * Simplifies an n-ary conjunction or disjunction. TRUE operands of a conjunction (and FALSE
+     * operands of a disjunction) are dropped, as are repeated operands. An operand that is the
+     * complement of another one, or the other constant, decides the whole node.
+     */
+    private static WffTree simplifyJunction(WffTree _tree, WffTree[] _children) {
+        boolean isAnd = _tree.isAnd();
+        ArrayList<WffTree> operands = new ArrayList<>(_children.length);
+        boolean changed = false;
+        for (int i = 0; i < _children.length; i++) {
+            WffTree op = _children[i];
+            changed |= op != _tree.getChild(i);
+            if (isAnd ? op.isFalse() : op.isTruth()) {
+                return op;
+            } else if (isAnd ? op.isTruth() : op.isFalse()) {
+                changed = true;
+                continue;
+            }
+
+            boolean redundant = false;
+            for (WffTree other : operands) {
+                if (other.stringEquals(op)) {
+                    redundant = true;
+                    break;
+                } else if (WffSimplifier.isComplement(other, op)) {
+                    return isAnd ? new FalseNode() : new TruthNode();
+                }
+            }
+            if (redundant) {
+                changed = true;
+            } else {
+                operands.add(op);
+            }
+        }
+
+        if (operands.isEmpty()) {
+            return isAnd ? new TruthNode() : new FalseNode();
+        } else if (operands.size() == 1) {
+            return operands.get(0);
+        } else if (!changed) {
+            return _tree;
+        }
+        WffTree node = _tree.shallowCopy();
+        for (WffTree op : operands) {
+            node.addChild(op);
+        }
+        return node;
+    }
+
+    /**
+     * Negates an already simplified wff: constants are flipped and a negation is removed.
+     *
+     * @param _tree     - simplified wff to negate.
+     * @param _original - negation in the input that _tree came from, reused if _tree is its
+     *                  unchanged child; null if there is none.
+     * @param _context  - context that supplies the negation symbol.
+     * @return simplified negation of _tree.
+     */
+    private static WffTree negate(WffTree _tree, WffTree _original, ProverContext _context) {
+        if (_tree.isTruth()) {
+            return new FalseNode();
+        } else if (_tree.isFalse()) {
+            return new TruthNode();
+        } else if (_tree.isNegation()) {
+            return _tree.getChild(0);
+        } else if (_original != null && _original.getChild(0) == _tree) {
+            return _original;
+        }
+        NegNode neg = _context.createNegNode();
+        neg.addChild(_tree);
+        return neg;
+    }
+
+    /**
+     * @return true if one of the wffs is the negation of the other, false otherwise.
+     */
+    private static boolean isComplement(WffTree _a, WffTree _b) {
+        return (_a.isNegation() && _a.getChild(0).stringEquals(_b))
+                || (_b.isNegation() && _b.getChild(0).stringEquals(_a));
+    }
+
+    /**
+     * Returns _tree with the given children, or _tree itself if they are its own children.
+     */
+    private static WffTree rebuild(WffTree _tree, WffTree... _children) {
+        boolean changed = false;
+        for (int i = 0; i < _children.length; i++) {
+            changed |= _children[i] != _tree.getChild(i);
+        }
+        if (!changed) {
+            return _tree;
+        }
+
+        WffTree node = _tree.shallowCopy();
+        for (WffTree ch : _children) {
+            node.addChild(ch);
+        }
+        return node;
+    }
+}
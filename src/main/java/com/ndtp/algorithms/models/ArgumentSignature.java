@@ -0,0 +1,248 @@
+package com.ndtp.algorithms.models;
+
+import com.ndtp.models.treenode.NodeType;
+import com.ndtp.models.treenode.QuantifierNode;
+import com.ndtp.models.treenode.SymbolTable;
+import com.ndtp.models.treenode.WffTree;
+import com.ndtp.models.treenode.WffTreeInterner;
+import com.ndtp.tools.TreeWalker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Signature of an argument (a list of premises followed by a conclusion) that does not change
+ * when atoms, predicate letters, constants, or variables are consistently renamed. For example,
+ * (P → Q), P ⊢ Q and (A → B), A ⊢ B have equal signatures, so a result cache keyed by
+ * ArgumentSignature can serve the second argument from the result of the first.
+ * <p>
+ * The signature is a canonical labeling of the argument: its wffs are walked in order, in
+ * prefix order, and each symbol gets the next label of its kind the first time it occurs. The
+ * labels replace the symbols in the encoding, and bound variables are encoded by how many
+ * quantifiers separate them from their binder, so renaming bound variables does not matter
+ * either. The premises are compared in the order given; notation and spacing never matter.
+ * </p>
+ * Each signature also keeps the original symbol for each label, as an id of the SymbolTable that
+ * it was computed with, so getRenaming translates the symbols of one argument into those of an
+ * equivalent one.
+ */
+public final class ArgumentSignature {
+
+    /**
+     * Token that separates two wffs of the argument.
+     */
+    private static final int SEPARATOR_TOKEN = 0xFE << 24;
+
+    /**
+     * Token type of a bound variable; the low bits hold the number of quantifiers between it
+     * and its binder.
+     */
+    private static final int BOUND_VARIABLE_TOKEN = 0xFF << 24;
+
+    /**
+     * Kinds of symbols that are labeled separately.
+     */
+    private static final int ATOM_KIND = 0;
+    private static final int PREDICATE_KIND = 1;
+    private static final int CONSTANT_KIND = 2;
+    private static final int VARIABLE_KIND = 3;
+    private static final int KIND_COUNT = 4;
+
+    /**
+     * Canonical token sequence of the argument.
+     */
+    private final int[] encoding;
+
+    /**
+     * For each kind of symbol, the original symbol ids in label order.
+     */
+    private final int[][] symbolIds;
+
+    /**
+     * Table that resolves the ids in symbolIds.
+     */
+    private final SymbolTable symbolTable;
+
+    private final int hash;
+
+    /**
+     * Computes the signature of an argument.
+     *
+     * @param _wffTreeList - premises followed by the conclusion, as the validators take them.
+     * @param _symbolTable - table to look up the symbols in, e.g., the one of the prover context.
+     */
+    public ArgumentSignature(ArrayList<WffTree> _wffTreeList, SymbolTable _symbolTable) {
+        if (_wffTreeList == null || _wffTreeList.isEmpty()) {
+            throw new IllegalArgumentException("Cannot compute the signature of an empty argument.");
+        } else if (_symbolTable == null) {
+            throw new IllegalArgumentException("A signature needs a SymbolTable.");
+        }
+        this.symbolTable = _symbolTable;
+
+        ArrayList<HashMap<Integer, Integer>> labels = new ArrayList<>();
+        for (int k = 0; k < KIND_COUNT; k++) {
+            labels.add(new HashMap<>());
+        }
+
+        int length = _wffTreeList.size();
+        for (WffTree wff : _wffTreeList) {
+            length += wff.getAnalytics().getSize();
+        }
+        int[] enc = new int[length];
+        int pos = 0;
+        for (WffTree wff : _wffTreeList) {
+            pos = this.encode(wff, enc, pos, labels);
+            enc[pos++] = SEPARATOR_TOKEN;
+        }
+        this.encoding = Arrays.copyOf(enc, pos);
+
+        this.symbolIds = new int[KIND_COUNT][];
+        for (int k = 0; k < KIND_COUNT; k++) {
+            this.symbolIds[k] = new int[labels.get(k).size()];
+            for (HashMap.Entry<Integer, Integer> e : labels.get(k).entrySet()) {
+                this.symbolIds[k][e.getValue()] = e.getKey();
+            }
+        }
+        this.hash = Arrays.hashCode(this.encoding);
+    }
+
+    public ArgumentSignature(ArrayList<WffTree> _wffTreeList) {
+        this(_wffTreeList, new WffTreeInterner().getSymbolTable());
+    }
+
+    /**
+     * Returns how the symbols of this argument map to the symbols of an argument with the same
+     * signature: each atom, predicate letter, constant, and free variable of this argument is
+     * mapped to the symbol that plays the same part in _other.
+     *
+     * @param _other - signature of an equivalent argument.
+     * @return HashMap from the symbols of this argument to the symbols of _other.
+     * @throws IllegalArgumentException if the signatures are not equal.
+     */
+    public HashMap<String, String> getRenaming(ArgumentSignature _other) {
+        if (!this.equals(_other)) {
+            throw new IllegalArgumentException("Cannot rename between arguments with different signatures.");
+        }
+
+        HashMap<String, String> renaming = new HashMap<>();
+        for (int k = 0; k < KIND_COUNT; k++) {
+            for (int i = 0; i < this.symbolIds[k].length; i++) {
+                renaming.put(this.symbolTable.getSymbol(this.symbolIds[k][i]), _other.symbolTable.getSymbol(_other.symbolIds[k][i]));
+            }
+        }
+        return renaming;
+    }
+
+    /**
+     * @param _nodeType - ATOM, PREDICATE, CONSTANT, or VARIABLE.
+     * @return original symbols of that kind, in label order.
+     */
+    public ArrayList<String> getSymbols(NodeType _nodeType) {
+        int kind = ArgumentSignature.getKind(_nodeType);
+        if (kind < 0) {
+            throw new IllegalArgumentException("Only atoms, predicates, constants, and variables are labeled, not " + _nodeType + ".");
+        }
+
+        ArrayList<String> symbols = new ArrayList<>(this.symbolIds[kind].length);
+        for (int id : this.symbolIds[kind]) {
+            symbols.add(this.symbolTable.getSymbol(id));
+        }
+        return symbols;
+    }
+
+    @Override
+    public boolean equals(Object _obj) {
+        if (this == _obj) {
+            return true;
+        }
+        if (!(_obj instanceof ArgumentSignature)) {
+            return false;
+        }
+        ArgumentSignature o = (ArgumentSignature) _obj;
+        return this.hash == o.hash && Arrays.equals(this.encoding, o.encoding);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    /**
+     * Writes the canonical tokens of a wff into _encoding, labeling symbols as they are first
+     * seen. The wff is walked without recursion, so its depth is not bounded by the thread's stack.
+     *
+     * @param _tree     - wff to encode.
+     * @param _encoding - array to write the tokens to.
+     * @param _pos      - position of the first token of _tree.
+     * @param _labels   - label of each symbol seen so far, per kind.
+     * @return position after the last token of _tree.
+     */
+    private int encode(WffTree _tree, final int[] _encoding, int _pos, final ArrayList<HashMap<Integer, Integer>> _labels) {
+        final SymbolTable table = this.symbolTable;
+        final int[] pos = {_pos};
+        WffTree.getWalker().walk(_tree, new TreeWalker.Visitor<WffTree>() {
+            /**
+             * Symbol ids of the enclosing quantified variables, innermost last.
+             */
+            private int[] binders = new int[8];
+
+            private int binderCount;
+
+            @Override
+            public boolean enter(WffTree _node, int _index, int _depth) {
+                if (_node.isVariable()) {
+                    int id = table.getSymbolId(_node.getSymbol());
+                    for (int i = this.binderCount - 1; i >= 0; i--) {
+                        if (this.binders[i] == id) {
+                            _encoding[pos[0]++] = BOUND_VARIABLE_TOKEN | (this.binderCount - 1 - i);
+                            return false;
+                        }
+                    }
+                }
+
+                if (!_node.isRoot()) {
+                    int kind = ArgumentSignature.getKind(_node.getNodeType());
+                    int label = 0xFFFF;
+                    if (kind >= 0) {
+                        HashMap<Integer, Integer> kindLabels = _labels.get(kind);
+                        label = kindLabels.computeIfAbsent(table.getSymbolId(_node.getSymbol()), k -> kindLabels.size());
+                    }
+                    _encoding[pos[0]++] = ((_node.getNodeType().ordinal() + 1) << 24)
+                            | (Math.min(_node.getChildrenSize(), 0xFF) << 16)
+                            | (label & 0xFFFF);
+                }
+                if (_node.isExistential() || _node.isUniversal()) {
+                    if (this.binderCount == this.binders.length) {
+                        this.binders = Arrays.copyOf(this.binders, this.binderCount * 2);
+                    }
+                    this.binders[this.binderCount++] = table.getSymbolId(((QuantifierNode) _node).getVariableSymbol());
+                }
+                return true;
+            }
+
+            @Override
+            public void exit(WffTree _node, int _index, int _depth) {
+                if (_node.isExistential() || _node.isUniversal()) {
+                    this.binderCount--;
+                }
+            }
+        });
+        return pos[0];
+    }
+
+    private static int getKind(NodeType _nodeType) {
+        switch (_nodeType) {
+            case ATOM:
+                return ATOM_KIND;
+            case PREDICATE:
+                return PREDICATE_KIND;
+            case CONSTANT:
+                return CONSTANT_KIND;
+            case VARIABLE:
+                return VARIABLE_KIND;
+            default:
+                return -1;
+        }
+    }
+}
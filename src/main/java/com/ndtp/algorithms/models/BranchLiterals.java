@@ -0,0 +1,111 @@
+package com.ndtp.algorithms.models;
+
+/**
+ * Persistent set of the literals on a truth tree branch. A literal is an atom, predicate, or
+ * identity (identified by its literal id, see ProverContext.getLiteralId) under zero, one, or
+ * two negations; the number of negations is its depth.
+ * <p>
+ * Adding a literal returns a new set and leaves the old one alone, so a node shares the set of
+ * its parent's branch and only pays for the literal that it adds itself. Literal ids below 64
+ * are kept in one bitmask per depth, which is enough for a propositional proof (it has at most
+ * 26 atoms) in its own context. Larger ids go in a linked list that is shared with the parent's set; a small filter
+ * over that list lets most lookups skip it.
+ * </p>
+ */
+public final class BranchLiterals {
+
+    /**
+     * Literals under more than two negations are never looked up, so they are not stored.
+     */
+    public static final int MAX_DEPTH = 2;
+
+    private static final int MASK_BITS = 64;
+
+    /**
+     * Set of a branch without any literals.
+     */
+    public static final BranchLiterals EMPTY = new BranchLiterals(new long[MAX_DEPTH + 1], 0, null);
+
+    /**
+     * Bitmask of the literal ids below MASK_BITS, by depth.
+     */
+    private final long[] masks;
+
+    /**
+     * Bloom filter over the literals in the overflow list.
+     */
+    private final long overflowFilter;
+
+    private final Entry overflow;
+
+    private BranchLiterals(long[] _masks, long _overflowFilter, Entry _overflow) {
+        this.masks = _masks;
+        this.overflowFilter = _overflowFilter;
+        this.overflow = _overflow;
+    }
+
+    /**
+     * @param _literalId - id of the literal.
+     * @param _depth     - number of negations around it.
+     * @return set with the literal added, or this set if it already has it.
+     */
+    public BranchLiterals with(int _literalId, int _depth) {
+        BranchLiterals.checkDepth(_depth);
+        if (this.contains(_literalId, _depth)) {
+            return this;
+        } else if (_literalId < MASK_BITS) {
+            long[] masks = this.masks.clone();
+            masks[_depth] |= 1L << _literalId;
+            return new BranchLiterals(masks, this.overflowFilter, this.overflow);
+        }
+
+        return new BranchLiterals(this.masks, this.overflowFilter | BranchLiterals.filterBit(_literalId, _depth),
+                new Entry(_literalId, _depth, this.overflow));
+    }
+
+    /**
+     * @param _literalId - id of the literal.
+     * @param _depth     - number of negations around it.
+     * @return true if the literal is in this set, false otherwise.
+     */
+    public boolean contains(int _literalId, int _depth) {
+        BranchLiterals.checkDepth(_depth);
+        if (_literalId < MASK_BITS) {
+            return (this.masks[_depth] & (1L << _literalId)) != 0;
+        } else if ((this.overflowFilter & BranchLiterals.filterBit(_literalId, _depth)) == 0) {
+            return false;
+        }
+
+        for (Entry e = this.overflow; e != null; e = e.next) {
+            if (e.literalId == _literalId && e.depth == _depth) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long filterBit(int _literalId, int _depth) {
+        return 1L << ((_literalId * (MAX_DEPTH + 1) + _depth) & (MASK_BITS - 1));
+    }
+
+    private static void checkDepth(int _depth) {
+        if (_depth < 0 || _depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Literal depth must be between 0 and " + MAX_DEPTH + " but got " + _depth);
+        }
+    }
+
+    private static final class Entry {
+
+        private final int literalId;
+
+        private final int depth;
+
+        private final Entry next;
+
+        private Entry(int _literalId, int _depth, Entry _next) {
+            this.literalId = _literalId;
+            this.depth = _depth;
+            this.next = _next;
+        }
+    }
+}
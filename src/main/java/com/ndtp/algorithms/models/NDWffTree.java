@@ -1,6 +1,7 @@
 package com.ndtp.algorithms.models;
 
 import com.ndtp.models.treenode.WffTree;
+import com.ndtp.tools.TreeWalker;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -10,6 +11,23 @@ import java.util.Collections;
  */
 public class NDWffTree {
 
+    /**
+     * Lets a TreeWalker follow the derivation of a node: the "children" of an NDWffTree are
+     * the nodes it was derived from. Derivations share parents, so a walk over them may reach
+     * the same node more than once.
+     */
+    public static final TreeWalker.ChildAccessor<NDWffTree> DERIVED_PARENT_ACCESSOR = new TreeWalker.ChildAccessor<NDWffTree>() {
+        @Override
+        public int getChildCount(NDWffTree _node) {
+            return _node.derivedParents == null ? 0 : _node.derivedParents.size();
+        }
+
+        @Override
+        public NDWffTree getChild(NDWffTree _node, int _index) {
+            return _node.derivedParents.get(_index);
+        }
+    };
+
     /**
      *
      */
@@ -68,11 +86,20 @@ public class NDWffTree {
         return this.getWffTree().hashCode();
     }
 
+    /**
+     * Two NDWffTrees are equal if their wffs are structurally equal; the derivation step and
+     * parents are not compared.
+     */
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NDWffTree)) {
+            return false;
+        }
         NDWffTree otherTree = (NDWffTree) o;
-        return this.getWffTree().equals(otherTree.getWffTree())
-                || this.getWffTree().stringEquals(otherTree.getWffTree());
+        return this.getWffTree().equals(otherTree.getWffTree());
     }
 
     public ArrayList<NDWffTree> getDerivedParents() {
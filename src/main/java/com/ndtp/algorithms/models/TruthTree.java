@@ -1,10 +1,11 @@
 package com.ndtp.algorithms.models;
 
 import com.ndtp.algorithms.BaseTruthTreeGenerator;
-import com.ndtp.models.treenode.ConstantNode;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.NodeFlag;
 import com.ndtp.models.treenode.WffTree;
 import com.ndtp.tools.NDTPUtils;
+import com.ndtp.tools.TreeWalker;
 
 import java.util.*;
 
@@ -38,6 +39,32 @@ public class TruthTree implements Comparable<TruthTree> {
      */
     private static int thresholdLimit = 500;
 
+    /**
+     * Lets a TreeWalker walk a truth tree: child 0 is the left (or center) child, and child 1
+     * is the right child.
+     */
+    public static final TreeWalker.ChildAccessor<TruthTree> CHILD_ACCESSOR = new TreeWalker.ChildAccessor<TruthTree>() {
+        @Override
+        public int getChildCount(TruthTree _node) {
+            return 2;
+        }
+
+        @Override
+        public TruthTree getChild(TruthTree _node, int _index) {
+            return _index == 0 ? _node.left : _node.right;
+        }
+    };
+
+    /**
+     * Walker for truth tree traversals; one per thread, so its stack is reused between calls.
+     */
+    private static final ThreadLocal<TreeWalker<TruthTree>> WALKER = new ThreadLocal<TreeWalker<TruthTree>>() {
+        @Override
+        protected TreeWalker<TruthTree> initialValue() {
+            return new TreeWalker<>(CHILD_ACCESSOR);
+        }
+    };
+
     /**
      * WffTree "value" for the TruthTree.
      */
@@ -67,6 +94,11 @@ public class TruthTree implements Comparable<TruthTree> {
      */
     private final Map<Character, HashSet<Character>> substitutions;
 
+    /**
+     * Context of the proof that this truth tree belongs to; shared by every node in the tree.
+     */
+    private final ProverContext context;
+
     /**
      * Identifier number of this truth tree node in the tree itself.
      */
@@ -98,22 +130,115 @@ public class TruthTree implements Comparable<TruthTree> {
      */
     private int universalCount;
 
-    public TruthTree(WffTree _node, TruthTree _parent, TruthTree _derivedParent) {
+    /**
+     * Leftmost and rightmost leaves of the subtree rooted at this node. A leaf is both.
+     */
+    private TruthTree firstLeaf;
+    private TruthTree lastLeaf;
+
+    /**
+     * While this node is a leaf, the leaves next to it in the whole tree, from left to right.
+     * The leaves below any node are then the run from its firstLeaf to its lastLeaf.
+     */
+    private TruthTree previousLeaf;
+    private TruthTree nextLeaf;
+
+    /**
+     * Leaves attached since the last call to takeNewLeaves, and the number of leaves; one for
+     * the whole tree.
+     */
+    private final LeafLog leafLog;
+
+    /**
+     * Literals on the branch from the root down to this node; shared with the parent's branch.
+     */
+    private final BranchLiterals literals;
+
+    /**
+     * Whether the branch from the root down to this node contains a contradiction, i.e., a
+     * literal whose complement is above it or a FALSE node.
+     */
+    private final boolean contradiction;
+
+    /**
+     * Number of nodes on the branch from the root down to this node, itself included, that are
+     * still to be developed: they are not flagged DEVELOPED, and they are not literals or truth
+     * constants, which there is nothing to develop in. Flagging a node DEVELOPED decrements it
+     * on the leaves below the node, so it is kept up to date for the leaves, which are where
+     * new nodes are attached.
+     */
+    private int undeveloped;
+
+    private TruthTree(WffTree _node, TruthTree _parent, TruthTree _derivedParent, ProverContext _context) {
         this.node = _node;
         this.parent = _parent;
         this.derivedParent = _derivedParent;
+        this.context = _context;
         this.availableConstants = new HashSet<>();
         this.substitutions = new HashMap<>();
-        this.identifierNo = ++BaseTruthTreeGenerator.identityCount;
+        this.identifierNo = this.context.nextIdentifier();
+        this.firstLeaf = this;
+        this.lastLeaf = this;
+        if (_parent != null) {
+            this.leafLog = _parent.leafLog;
+        } else {
+            this.leafLog = new LeafLog();
+            this.leafLog.added.add(this);
+        }
 
         // Compute the union of the constants from the parent.
         if (_parent != null) {
             this.availableConstants.addAll(_parent.getAvailableConstants());
         }
 
+        // Extend the parent's branch literals with this node, if it is a literal.
+        BranchLiterals literals = _parent != null ? _parent.literals : BranchLiterals.EMPTY;
+        boolean contradiction = _parent != null && _parent.contradiction;
+        WffTree base = _node;
+        int depth = 0;
+        while (base.isNegation() && depth < BranchLiterals.MAX_DEPTH) {
+            base = base.getChild(0);
+            depth++;
+        }
+        if (_node.isFalse()) {
+            contradiction = true;
+        } else if (base.isAtom() || base.isPredicate() || base.isIdentity()) {
+            int literalId = this.context.getLiteralId(base);
+            // A closable wff P or ~P closes against its negation above it, and ~P also against P.
+            if (_node.isClosable()) {
+                contradiction |= literals.contains(literalId, depth + 1)
+                        || (depth == 1 && literals.contains(literalId, 0));
+            }
+            literals = literals.with(literalId, depth);
+        }
+        this.literals = literals;
+        this.contradiction = contradiction;
+        this.undeveloped = (_parent != null ? _parent.undeveloped : 0) + (this.needsDevelopment() ? 1 : 0);
+
         this.setTruthTreeValue();
     }
 
+    /**
+     * Creates a node below _parent; it belongs to the same proof as its parent.
+     *
+     * @param _node          - wff of the node.
+     * @param _parent        - parent of the node.
+     * @param _derivedParent - node that derived this step.
+     */
+    public TruthTree(WffTree _node, TruthTree _parent, TruthTree _derivedParent) {
+        this(_node, _parent, _derivedParent, _parent.context);
+    }
+
+    /**
+     * Creates the root of a truth tree.
+     *
+     * @param _node    - wff of the root.
+     * @param _context - context of the proof that the tree belongs to.
+     */
+    public TruthTree(WffTree _node, ProverContext _context) {
+        this(_node, null, null, _context);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this.getClass() != obj.getClass()) {
@@ -139,10 +264,20 @@ public class TruthTree implements Comparable<TruthTree> {
      */
     public String getTexTree() {
         StringBuilder sb = new StringBuilder();
-        this.getTexTreeHelper(this, sb, 0);
+        this.getTexTreeHelper(this, sb);
         return sb.toString();
     }
 
+    /**
+     * Returns the walker for truth tree traversals. It belongs to the calling thread, and walks
+     * may be nested, so it can be used freely from that thread.
+     *
+     * @return TreeWalker over TruthTree nodes.
+     */
+    public static TreeWalker<TruthTree> getWalker() {
+        return WALKER.get();
+    }
+
     /**
      * Performs existential decomposition on this truth tree.
      * <p>
@@ -169,9 +304,8 @@ public class TruthTree implements Comparable<TruthTree> {
         // Replace all variables found with the constant.
         for (TruthTree leaf : _leaves) {
             if (!leaf.isClosed()) {
-                // Create a copy and replace the selected variable.
-                WffTree _newRoot = _existentialTruthTree.getWff().getChild(0).copy();
-                this.replaceSymbol(_newRoot, _variableToReplace, constant);
+                // Instantiate the body with the constant; identical instances share one node.
+                WffTree _newRoot = this.context.getInterner().intern(this.replaceSymbol(_existentialTruthTree.getWff().getChild(0), _variableToReplace, constant));
 
                 // Add to the tree and the queue.
                 if (!this.treeContains(leaf, _newRoot)) {
@@ -200,9 +334,8 @@ public class TruthTree implements Comparable<TruthTree> {
             TruthTree l = leaf;
             for (char c : _universalTruthTree.availableConstants) {
                 if (!l.isClosed()) {
-                    // Create a copy and replace the selected variable.
-                    WffTree _newRoot = _universalTruthTree.getWff().getChild(0).copy();
-                    this.replaceSymbol(_newRoot, _variableToReplace, c);
+                    // Instantiate the body with the constant; identical instances share one node.
+                    WffTree _newRoot = this.context.getInterner().intern(this.replaceSymbol(_universalTruthTree.getWff().getChild(0), _variableToReplace, c));
 
                     if (!this.treeContains(l, _newRoot)) {
                         // Add to the tree and the queue.
@@ -238,7 +371,7 @@ public class TruthTree implements Comparable<TruthTree> {
         String constantTwo = _identityTruthTree.getWff().getChild(1).getSymbol();
 
         // If the constants are the same, then there's really nothing we can do.
-        if (constantOne.equalsIgnoreCase(constantTwo)) {
+        if (_identityTruthTree.getWff().getChild(0).getSymbolId() == _identityTruthTree.getWff().getChild(1).getSymbolId()) {
             return;
         }
 
@@ -248,11 +381,11 @@ public class TruthTree implements Comparable<TruthTree> {
             while (curr != null && !curr.isClosed()) {
                 WffTree wff = curr.getWff();
                 if (wff.isClosable()) {
-                    WffTree newLeaf = wff.copy();
-                    if (newLeaf.getStringRep().contains(constantOne)) {
-                        this.replaceSymbol(newLeaf, constantOne.charAt(0), constantTwo.charAt(0));
-                    } else if (newLeaf.getStringRep().contains(constantTwo)) {
-                        this.replaceSymbol(newLeaf, constantTwo.charAt(0), constantOne.charAt(0));
+                    WffTree newLeaf;
+                    if (wff.getStringRep().contains(constantOne)) {
+                        newLeaf = this.context.getInterner().intern(this.replaceSymbol(wff, constantOne.charAt(0), constantTwo.charAt(0)));
+                    } else if (wff.getStringRep().contains(constantTwo)) {
+                        newLeaf = this.context.getInterner().intern(this.replaceSymbol(wff, constantTwo.charAt(0), constantOne.charAt(0)));
                     } else {
                         // If this leaf has no instances of replacable constants, just continue going up.
                         curr = curr.getParent();
@@ -284,7 +417,9 @@ public class TruthTree implements Comparable<TruthTree> {
      * Determines whether a leaf has a WffTree as its ancestor. Useful for
      * determining whether a node should be inserted into a branch. A Wff
      * should only be inserted once on any particular branch, so if there's
-     * an identical ancestor, it shouldn't be added there.
+     * an identical ancestor, it shouldn't be added there. Wffs that only differ
+     * in the names of their bound variables, or in the order and grouping of the
+     * operands of AND, OR, BICOND, XOR, and identity, count as identical.
      *
      * @param _leaf
      * @param _searchWff
@@ -294,7 +429,7 @@ public class TruthTree implements Comparable<TruthTree> {
         TruthTree curr = _leaf.getParent();
 
         while (curr != null) {
-            if (_searchWff.stringEquals(curr.getWff())) {
+            if (_searchWff.acEquals(curr.getWff())) {
                 return true;
             }
             curr = curr.getParent();
@@ -316,6 +451,7 @@ public class TruthTree implements Comparable<TruthTree> {
     }
 
     public void addLeft(TruthTree _left) {
+        this.replaceLeaf(_left);
         this.left = _left;
     }
 
@@ -324,6 +460,24 @@ public class TruthTree implements Comparable<TruthTree> {
     }
 
     public void addRight(TruthTree _right) {
+        if (this.left == null || this.right != null) {
+            throw new IllegalStateException("Can only add a right child next to a left child.");
+        }
+
+        // The new leaves go right after the last leaf of the left subtree.
+        TruthTree oldLast = this.lastLeaf;
+        _right.firstLeaf.previousLeaf = oldLast;
+        _right.lastLeaf.nextLeaf = oldLast.nextLeaf;
+        if (oldLast.nextLeaf != null) {
+            oldLast.nextLeaf.previousLeaf = _right.lastLeaf;
+        }
+        oldLast.nextLeaf = _right.firstLeaf;
+        for (TruthTree t = this; t != null && t.lastLeaf == oldLast; t = t.parent) {
+            t.lastLeaf = _right.lastLeaf;
+        }
+        int added = this.leafLog.added.size();
+        _right.collectLeaves(this.leafLog.added);
+        this.leafLog.leafCount += this.leafLog.added.size() - added;
         this.right = _right;
     }
 
@@ -336,6 +490,7 @@ public class TruthTree implements Comparable<TruthTree> {
             throw new IllegalArgumentException("Cannot add truth tree to right child - add it to the left only.");
         }
 
+        this.replaceLeaf(_c);
         this.left = _c;
     }
 
@@ -347,6 +502,55 @@ public class TruthTree implements Comparable<TruthTree> {
         return this.left;
     }
 
+    /**
+     * Appends the leaves of the subtree rooted at this node to _leaves, from left to right.
+     * The leaves are kept in a linked list as the tree grows, so this is proportional to the
+     * number of leaves rather than to the size of the subtree.
+     *
+     * @param _leaves - list to append to.
+     */
+    public void collectLeaves(ArrayList<TruthTree> _leaves) {
+        for (TruthTree leaf = this.firstLeaf; ; leaf = leaf.nextLeaf) {
+            _leaves.add(leaf);
+            if (leaf == this.lastLeaf) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns the leaves that were attached anywhere in this tree since the last call (the
+     * root counts as attached when it is created), leaving out those that have since been
+     * extended. These are the only leaves whose branches can have become closed.
+     *
+     * @return ArrayList of new leaves.
+     */
+    public ArrayList<TruthTree> takeNewLeaves() {
+        ArrayList<TruthTree> leaves = new ArrayList<>(this.leafLog.added.size());
+        for (TruthTree leaf : this.leafLog.added) {
+            if (leaf.isLeafNode()) {
+                leaves.add(leaf);
+            }
+        }
+        this.leafLog.added.clear();
+        return leaves;
+    }
+
+    /**
+     * @return number of leaves in the whole tree that this node belongs to.
+     */
+    public int getLeafCount() {
+        return this.leafLog.leafCount;
+    }
+
+    /**
+     * @return true if the branch from the root down to this node contains a contradiction,
+     * false otherwise.
+     */
+    public boolean hasContradiction() {
+        return this.contradiction;
+    }
+
     public boolean isClosed() {
         return (this.flags & NodeFlag.CLOSED) != 0;
     }
@@ -372,9 +576,34 @@ public class TruthTree implements Comparable<TruthTree> {
     }
 
     public void setFlags(int flag) {
+        // Developing a node develops it on every branch through it.
+        if ((flag & NodeFlag.DEVELOPED) != 0 && (this.flags & NodeFlag.DEVELOPED) == 0 && this.needsDevelopment()) {
+            for (TruthTree leaf = this.firstLeaf; ; leaf = leaf.nextLeaf) {
+                leaf.undeveloped--;
+                if (leaf == this.lastLeaf) {
+                    break;
+                }
+            }
+        }
         this.flags |= flag;
     }
 
+    /**
+     * @return true if every node on the branch from the root down to this leaf has been
+     * developed or has nothing to develop.
+     */
+    public boolean isBranchDeveloped() {
+        return this.undeveloped == 0;
+    }
+
+    /**
+     * @return true if the wff of this node is not a literal or a truth constant, so a rule
+     * has to develop it.
+     */
+    private boolean needsDevelopment() {
+        return !this.node.isClosable() && !this.node.isTruth() && !this.node.isFalse();
+    }
+
     public Set<Character> getAvailableConstants() {
         return this.availableConstants;
     }
@@ -427,67 +656,110 @@ public class TruthTree implements Comparable<TruthTree> {
         }
     }
 
+    /**
+     * Puts the leaves of _child in the place of this node in the leaf list, since _child
+     * becomes the only child of this node, which must be a leaf.
+     *
+     * @param _child - new left (or center) child.
+     */
+    private void replaceLeaf(TruthTree _child) {
+        if (!this.isLeafNode()) {
+            throw new IllegalStateException("Can only add a left or center child to a leaf.");
+        }
+
+        _child.firstLeaf.previousLeaf = this.previousLeaf;
+        _child.lastLeaf.nextLeaf = this.nextLeaf;
+        if (this.previousLeaf != null) {
+            this.previousLeaf.nextLeaf = _child.firstLeaf;
+        }
+        if (this.nextLeaf != null) {
+            this.nextLeaf.previousLeaf = _child.lastLeaf;
+        }
+        this.previousLeaf = null;
+        this.nextLeaf = null;
+
+        // Only the ancestors whose first or last leaf was this node change; they form a path
+        // that ends at the first ancestor where neither was.
+        for (TruthTree t = this; t != null && (t.firstLeaf == this || t.lastLeaf == this); t = t.parent) {
+            if (t.firstLeaf == this) {
+                t.firstLeaf = _child.firstLeaf;
+            }
+            if (t.lastLeaf == this) {
+                t.lastLeaf = _child.lastLeaf;
+            }
+        }
+        // This node stops being a leaf.
+        int added = this.leafLog.added.size();
+        _child.collectLeaves(this.leafLog.added);
+        this.leafLog.leafCount += this.leafLog.added.size() - added - 1;
+    }
+
     /**
      * Searches through the tree in preorder to build a LaTeX version of it.
      * We use the forest package with a premade template.
      *
-     * @param _tree   - TruthTree object to start from.
-     * @param _sb     - StringBuilder to continuously concatenate to.
-     * @param _indent - level of indentation for the current brackets.
+     * @param _tree - TruthTree object to start from.
+     * @param _sb   - StringBuilder to continuously concatenate to.
      */
-    private void getTexTreeHelper(TruthTree _tree, StringBuilder _sb, int _indent) {
-        if (_tree == null) {
-            return;
-        }
+    private void getTexTreeHelper(TruthTree _tree, final StringBuilder _sb) {
+        TruthTree.getWalker().walk(_tree, new TreeWalker.Visitor<TruthTree>() {
+            @Override
+            public boolean enter(TruthTree _node, int _index, int _depth) {
+                // Left and rights will need to branch, whereas just a left is a stack.
+                if (_index == 1) {
+                    _sb.append("\n");
+                }
+                _sb.append(NDTPUtils.repeatString(_depth, "\t"));
+                _sb.append("[");
+                _sb.append(_node.getWff().getTexCommand());
 
-        _sb.append(NDTPUtils.repeatString(_indent, "\t"));
-        _sb.append("[");
-        _sb.append(_tree.getWff().getTexCommand());
+                // If it's a rule we can apply infinitely many times, add the asterisk.
+                if (_node.getWff().isUniversal() || _node.getWff().isIdentity()) {
+                    _sb.append(", uni");
+                }
 
-        // If it's a rule we can apply infinitely many times, add the asterisk.
-        if (_tree.getWff().isUniversal() || _tree.getWff().isIdentity()) {
-            _sb.append(", uni");
-        }
+                if (_node.isLeafNode()) {
+                    _sb.append(", " + (_node.isClosed() ? "closed" : "open"));
+                } else {
+                    _sb.append("\n");
+                }
+                return true;
+            }
 
-        if (_tree.isLeafNode()) {
-            _sb.append(", " + (_tree.isClosed() ? "closed" : "open"));
-        } else {
-            // Left and rights will need to branch, whereas just a left is a stack.
-            _sb.append("\n");
-            if (_tree.getLeft() != null && _tree.getRight() != null) {
-                this.getTexTreeHelper(_tree.getLeft(), _sb, _indent + 1);
+            @Override
+            public void exit(TruthTree _node, int _index, int _depth) {
                 _sb.append("\n");
-                this.getTexTreeHelper(_tree.getRight(), _sb, _indent + 1);
-            } else if (_tree.getLeft() != null) {
-                this.getTexTreeHelper(_tree.getLeft(), _sb, _indent + 1);
+                _sb.append(NDTPUtils.repeatString(_depth, "\t") + "]");
             }
-        }
-
-        _sb.append("\n");
-        _sb.append(NDTPUtils.repeatString(_indent, "\t") + "]");
+        });
     }
 
     /**
      * Replaces a variable or a constant with a constant node in a WffTree. This is used when performing
-     * existential, universal decomposition, or identity decomposition.
+     * existential, universal decomposition, or identity decomposition. The original WffTree is left
+     * untouched (it may be interned); only the nodes above the replaced occurrences are rebuilt, and
+     * the rest of the tree is shared with the result.
      *
-     * @param _newRoot           - root of WffTree to modify.
+     * @param _root              - root of WffTree to replace symbols in.
      * @param _variableToReplace - variable that we want to replace e.g. (x) = x
      * @param _constant          - constant to replace variable with.
+     * @return WffTree with the replacements applied.
      */
-    private void replaceSymbol(WffTree _newRoot, char _variableToReplace, char _constant) {
+    private WffTree replaceSymbol(WffTree _root, char _variableToReplace, char _constant) {
         if (this.universalCount >= TruthTree.thresholdLimit) {
             System.err.println("Error - universal constant has reached the upper limit of " + TruthTree.thresholdLimit + ".");
         }
 
-        for (int i = 0; i < _newRoot.getChildrenSize(); i++) {
-            if (_newRoot.getChild(i).isVariable() || _newRoot.getChild(0).isConstant()) {
-                char v = _newRoot.getChild(i).getSymbol().charAt(0);
-                if (v == _variableToReplace) {
-                    _newRoot.setChild(i, new ConstantNode("" + _constant));
-                }
-            }
-            this.replaceSymbol(_newRoot.getChild(i), _variableToReplace, _constant);
-        }
+        return _root.replaceSymbol(_variableToReplace, this.context.getSymbolTable().getConstant(_constant));
+    }
+
+    /**
+     * Bookkeeping of the leaves that is shared by all nodes of a tree.
+     */
+    private static final class LeafLog {
+
+        private final ArrayList<TruthTree> added = new ArrayList<>();
+
+        private int leafCount = 1;
     }
 }
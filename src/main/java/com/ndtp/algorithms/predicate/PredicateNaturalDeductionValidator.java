@@ -6,6 +6,7 @@ import com.ndtp.algorithms.models.NDFlag;
 import com.ndtp.algorithms.models.NDStep;
 import com.ndtp.algorithms.models.NDWffTree;
 import com.ndtp.algorithms.models.ProofType;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.*;
 import com.ndtp.tools.NDTPUtils;
 
@@ -34,8 +35,8 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
      */
     private final HashSet<Character> conclusionConstants;
 
-    public PredicateNaturalDeductionValidator(ArrayList<WffTree> _wffTreeList, ProofType _proofType) {
-        super(_wffTreeList, _proofType);
+    public PredicateNaturalDeductionValidator(ArrayList<WffTree> _wffTreeList, ProofType _proofType, ProverContext _context) {
+        super(_wffTreeList, _proofType, _context);
         // Get all constants and conclusion constants...
         this.constants = new HashSet<>();
         this.conclusionConstants = new HashSet<>();
@@ -44,6 +45,10 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
         this.addAllConstantsToSet(_wffTreeList.get(_wffTreeList.size() - 1), this.conclusionConstants);
     }
 
+    public PredicateNaturalDeductionValidator(ArrayList<WffTree> _wffTreeList, ProofType _proofType) {
+        this(_wffTreeList, _proofType, new ProverContext());
+    }
+
     /**
      * Computes a natural deduction proof for a predicate logic formula. We use a couple of heuristics to ensure
      * the runtime/search space isn't COMPLETELY insane (those being that we only apply certain rules if others fail
@@ -122,9 +127,9 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
         }
         // First do a transposition equivalence.
         if (conclusionNode.isImp()) {
-            ImpNode transpositionNode = new ImpNode();
-            transpositionNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(1)));
-            transpositionNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0)));
+            ImpNode transpositionNode = this.context.createImpNode();
+            transpositionNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(1), this.context));
+            transpositionNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0), this.context));
             this.conclusionWff.setFlags(NDFlag.TP);
             conclusionEquivalentList.add(new NDWffTree(transpositionNode, NDFlag.TP | NDFlag.DEM | NDFlag.MI | NDFlag.ALTC, NDStep.TP, this.conclusionWff));
         }
@@ -134,10 +139,10 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             WffTree deMorganNode = null;
             // Negate a biconditional to get ~(X <-> Y) => ~((X->Y) & (Y->X)).
             if (conclusionNode.isNegation() && conclusionNode.getChild(0).isBicond()) {
-                NegNode neg = new NegNode();
-                AndNode and = new AndNode();
-                ImpNode lhs = new ImpNode();
-                ImpNode rhs = new ImpNode();
+                NegNode neg = this.context.createNegNode();
+                AndNode and = this.context.createAndNode();
+                ImpNode lhs = this.context.createImpNode();
+                ImpNode rhs = this.context.createImpNode();
                 lhs.addChild(conclusionNode.getChild(0).getChild(0));
                 lhs.addChild(conclusionNode.getChild(0).getChild(1));
                 rhs.addChild(conclusionNode.getChild(0).getChild(1));
@@ -152,8 +157,8 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
                     && conclusionNode.getChild(0).getChild(0).isImp() && conclusionNode.getChild(0).getChild(1).isImp()
                     && conclusionNode.getChild(0).getChild(0).getChild(0).stringEquals(conclusionNode.getChild(0).getChild(1).getChild(1))
                     && conclusionNode.getChild(0).getChild(0).getChild(1).stringEquals(conclusionNode.getChild(0).getChild(1).getChild(0))) {
-                NegNode negNode = new NegNode();
-                BicondNode bicondNode = new BicondNode();
+                NegNode negNode = this.context.createNegNode();
+                BicondNode bicondNode = this.context.createBicondNode();
                 bicondNode.addChild(conclusionNode.getChild(0).getChild(0).getChild(0));
                 bicondNode.addChild(conclusionNode.getChild(0).getChild(0).getChild(1));
                 negNode.addChild(bicondNode);
@@ -161,24 +166,24 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             }
             // Four types: one is ~(X B Y) => (~X ~B ~Y)
             else if (conclusionNode.isNegation() && (conclusionNode.getChild(0).isOr() || conclusionNode.getChild(0).isAnd() || conclusionNode.getChild(0).isImp())) {
-                deMorganNode = BaseTruthTreeGenerator.getNegatedBinaryNode(conclusionNode.getChild(0)); // B
+                deMorganNode = BaseTruthTreeGenerator.getNegatedBinaryNode(conclusionNode.getChild(0), this.context); // B
                 deMorganNode.addChild(conclusionNode.getChild(0).isImp() ? conclusionNode.getChild(0).getChild(0)
-                        : BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0).getChild(0))); // LHS X
-                deMorganNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0).getChild(1))); // RHS Y
+                        : BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0).getChild(0), this.context)); // LHS X
+                deMorganNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0).getChild(1), this.context)); // RHS Y
             }
             // Other is (X B Y) => ~(~X ~B ~Y)
             else if ((conclusionNode.isOr() || conclusionNode.isAnd() || conclusionNode.isImp())) {
-                WffTree negBinaryNode = BaseTruthTreeGenerator.getNegatedBinaryNode(conclusionNode); // B
-                negBinaryNode.addChild(conclusionNode.isImp() ? conclusionNode.getChild(0) : BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0))); // LHS X
-                negBinaryNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(1))); // RHS Y
-                deMorganNode = new NegNode();
+                WffTree negBinaryNode = BaseTruthTreeGenerator.getNegatedBinaryNode(conclusionNode, this.context); // B
+                negBinaryNode.addChild(conclusionNode.isImp() ? conclusionNode.getChild(0) : BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0), this.context)); // LHS X
+                negBinaryNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(1), this.context)); // RHS Y
+                deMorganNode = this.context.createNegNode();
                 deMorganNode.addChild(negBinaryNode);
             }
             // Other turns ~(x)W to (Ex)~W
             else if (conclusionNode.isNegation() && conclusionNode.getChild(0).isUniversal()) {
                 String v = ((UniversalQuantifierNode) conclusionNode.getChild(0)).getVariableSymbol();
                 ExistentialQuantifierNode existentialQuantifierNode = new ExistentialQuantifierNode(v);
-                NegNode neg = new NegNode();
+                NegNode neg = this.context.createNegNode();
                 neg.addChild(conclusionNode.getChild(0).getChild(0));
                 existentialQuantifierNode.addChild(neg);
                 deMorganNode = existentialQuantifierNode;
@@ -187,7 +192,7 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             else if (conclusionNode.isNegation() && conclusionNode.getChild(0).isExistential()) {
                 String v = ((ExistentialQuantifierNode) conclusionNode.getChild(0)).getVariableSymbol();
                 UniversalQuantifierNode universalQuantifierNode = new UniversalQuantifierNode(v);
-                NegNode neg = new NegNode();
+                NegNode neg = this.context.createNegNode();
                 neg.addChild(conclusionNode.getChild(0).getChild(0));
                 universalQuantifierNode.addChild(neg);
                 deMorganNode = universalQuantifierNode;
@@ -205,8 +210,8 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             WffTree newWff = null;
             // Convert (P -> Q) to (~P V Q).3
             if (conclusionNode.isImp()) {
-                OrNode orNode = new OrNode();
-                NegNode negLhs = new NegNode();
+                OrNode orNode = this.context.createOrNode();
+                NegNode negLhs = this.context.createNegNode();
                 negLhs.addChild(conclusionNode.getChild(0));
                 orNode.addChild(negLhs);
                 orNode.addChild(conclusionNode.getChild(1));
@@ -217,7 +222,7 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
                 WffTree lhs = conclusionNode.getChild(0);
                 WffTree rhs = conclusionNode.getChild(1);
                 if (lhs.isNegation()) {
-                    ImpNode impNode = new ImpNode();
+                    ImpNode impNode = this.context.createImpNode();
                     impNode.addChild(lhs.getChild(0)); // Un-negate the lhs.
                     impNode.addChild(rhs);
                     newWff = impNode;
@@ -345,7 +350,7 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
         NDWffTree lhsNDWffTree = this.satisfy(_impTree.getChild(0), _parent);
         NDWffTree rhsNDWffTree = this.satisfy(_impTree.getChild(1), _parent);
         if (lhsNDWffTree != null && rhsNDWffTree != null) {
-            ImpNode impNode = new ImpNode();
+            ImpNode impNode = this.context.createImpNode();
             impNode.addChild(_impTree.getChild(0));
             impNode.addChild(_impTree.getChild(1));
             NDWffTree impNDWffTree = new NDWffTree(impNode, NDFlag.II, NDStep.II,
@@ -383,7 +388,7 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
         NDWffTree lhs = this.satisfy(_conjTree.getChild(0), _parent);
         NDWffTree rhs = this.satisfy(_conjTree.getChild(1), _parent);
         if (lhs != null && rhs != null) {
-            AndNode andNode = new AndNode();
+            AndNode andNode = this.context.createAndNode();
             andNode.addChild(lhs.getWffTree());
             andNode.addChild(rhs.getWffTree());
             NDWffTree andNDWffTree = new NDWffTree(andNode, NDFlag.AI, NDStep.AI, lhs, rhs);
@@ -421,7 +426,7 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             // There's two conditions: we're either adding from the conclusion or from
             // another premise. If the parent is the conclusion, then we're adding from
             // that (obviously) and one of the nodes won't be retrievable via getPremise....
-            OrNode orNode = new OrNode();
+            OrNode orNode = this.context.createOrNode();
             orNode.addChild(_disjTree.getChild(0));
             orNode.addChild(_disjTree.getChild(1));
 
@@ -463,8 +468,8 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             }
         }
         // We first have a subgoal of X -> Y and Y -> X.
-        ImpNode impLhs = new ImpNode();
-        ImpNode impRhs = new ImpNode();
+        ImpNode impLhs = this.context.createImpNode();
+        ImpNode impRhs = this.context.createImpNode();
         impLhs.addChild(_bicondTree.getChild(0));
         impLhs.addChild(_bicondTree.getChild(1));
         impRhs.addChild(_bicondTree.getChild(1));
@@ -474,7 +479,7 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
         NDWffTree lhsNDWffTree = this.satisfy(impLhs, _parent);
         NDWffTree rhsNDWffTree = this.satisfy(impRhs, _parent);
         if (lhsNDWffTree != null && rhsNDWffTree != null) {
-            BicondNode bicondNode = new BicondNode();
+            BicondNode bicondNode = this.context.createBicondNode();
             bicondNode.addChild(_bicondTree.getChild(0));
             bicondNode.addChild(_bicondTree.getChild(1));
             NDWffTree bicondNDWffTree = new NDWffTree(bicondNode, NDFlag.BC, NDStep.BCI,
@@ -556,10 +561,10 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             WffTree deMorganNode = null;
             // Negate a biconditional to get ~(X <-> Y) => ~((X->Y) & (Y->X)).
             if (_binopTree.isNegation() && _binopTree.getChild(0).isBicond()) {
-                NegNode neg = new NegNode();
-                AndNode and = new AndNode();
-                ImpNode lhs = new ImpNode();
-                ImpNode rhs = new ImpNode();
+                NegNode neg = this.context.createNegNode();
+                AndNode and = this.context.createAndNode();
+                ImpNode lhs = this.context.createImpNode();
+                ImpNode rhs = this.context.createImpNode();
                 lhs.addChild(_binopTree.getChild(0).getChild(0));
                 lhs.addChild(_binopTree.getChild(0).getChild(1));
                 rhs.addChild(_binopTree.getChild(0).getChild(1));
@@ -574,8 +579,8 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
                     && _binopTree.getChild(0).getChild(0).isImp() && _binopTree.getChild(0).getChild(1).isImp()
                     && _binopTree.getChild(0).getChild(0).getChild(0).stringEquals(_binopTree.getChild(0).getChild(1).getChild(1))
                     && _binopTree.getChild(0).getChild(0).getChild(1).stringEquals(_binopTree.getChild(0).getChild(1).getChild(0))) {
-                NegNode negNode = new NegNode();
-                BicondNode bicondNode = new BicondNode();
+                NegNode negNode = this.context.createNegNode();
+                BicondNode bicondNode = this.context.createBicondNode();
                 bicondNode.addChild(_binopTree.getChild(0).getChild(0).getChild(0));
                 bicondNode.addChild(_binopTree.getChild(0).getChild(0).getChild(1));
                 negNode.addChild(bicondNode);
@@ -583,24 +588,24 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             }
             // Four types: one is ~(X B Y) => (~X ~B ~Y)
             else if (_binopTree.isNegation() && (_binopTree.getChild(0).isOr() || _binopTree.getChild(0).isAnd() || _binopTree.getChild(0).isImp())) {
-                deMorganNode = BaseTruthTreeGenerator.getNegatedBinaryNode(_binopTree.getChild(0)); // B
+                deMorganNode = BaseTruthTreeGenerator.getNegatedBinaryNode(_binopTree.getChild(0), this.context); // B
                 deMorganNode.addChild(_binopTree.getChild(0).isImp() ? _binopTree.getChild(0).getChild(0)
-                        : BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0).getChild(0))); // LHS X
-                deMorganNode.addChild(BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0).getChild(1))); // RHS Y
+                        : BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0).getChild(0), this.context)); // LHS X
+                deMorganNode.addChild(BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0).getChild(1), this.context)); // RHS Y
             }
             // Other is (X B Y) => ~(~X ~B ~Y)
             else if ((_binopTree.isOr() || _binopTree.isAnd() || _binopTree.isImp())) {
-                WffTree negBinaryNode = BaseTruthTreeGenerator.getNegatedBinaryNode(_binopTree); // B
-                negBinaryNode.addChild(_binopTree.isImp() ? _binopTree.getChild(0) : BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0))); // LHS X
-                negBinaryNode.addChild(BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(1))); // RHS Y
-                deMorganNode = new NegNode();
+                WffTree negBinaryNode = BaseTruthTreeGenerator.getNegatedBinaryNode(_binopTree, this.context); // B
+                negBinaryNode.addChild(_binopTree.isImp() ? _binopTree.getChild(0) : BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(0), this.context)); // LHS X
+                negBinaryNode.addChild(BaseTruthTreeGenerator.getFlippedNode(_binopTree.getChild(1), this.context)); // RHS Y
+                deMorganNode = this.context.createNegNode();
                 deMorganNode.addChild(negBinaryNode);
             }
             // Other turns ~(x)W to (Ex)~W
             else if (_binopTree.isNegation() && _binopTree.getChild(0).isUniversal()) {
                 String v = ((UniversalQuantifierNode) _binopTree.getChild(0)).getVariableSymbol();
                 ExistentialQuantifierNode existentialQuantifierNode = new ExistentialQuantifierNode(v);
-                NegNode neg = new NegNode();
+                NegNode neg = this.context.createNegNode();
                 neg.addChild(_binopTree.getChild(0).getChild(0));
                 existentialQuantifierNode.addChild(neg);
                 deMorganNode = existentialQuantifierNode;
@@ -609,7 +614,7 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
             else if (_binopTree.isNegation() && _binopTree.getChild(0).isExistential()) {
                 String v = ((ExistentialQuantifierNode) _binopTree.getChild(0)).getVariableSymbol();
                 UniversalQuantifierNode universalQuantifierNode = new UniversalQuantifierNode(v);
-                NegNode neg = new NegNode();
+                NegNode neg = this.context.createNegNode();
                 neg.addChild(_binopTree.getChild(0).getChild(0));
                 universalQuantifierNode.addChild(neg);
                 deMorganNode = universalQuantifierNode;
@@ -638,8 +643,8 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
         }
 
         // Replace all variables found with the constant.
-        WffTree _newRoot = _existentialNDWffTree.getWffTree().getChild(0).copy();
-        this.replaceSymbol(_newRoot, _variableToReplace, constant, ReplaceType.CONSTANT);
+        WffTree _newRoot = this.context.getInterner().intern(this.replaceSymbol(_existentialNDWffTree.getWffTree().getChild(0),
+                _variableToReplace, constant, ReplaceType.CONSTANT));
         this.addPremise(new NDWffTree(_newRoot, NDFlag.EX, NDStep.EE, _existentialNDWffTree));
         this.constants.add(constant);
     }
@@ -656,52 +661,43 @@ public final class PredicateNaturalDeductionValidator extends BaseNaturalDeducti
         Set<Character> replaceConstants = NDTPUtils.union(this.constants, this.conclusionConstants);
 
         for (char c : replaceConstants) {
-            // Create a copy and replace the selected variable.
-            WffTree _newRoot = _universalNDWffTree.getWffTree().getChild(0).copy();
-            this.replaceSymbol(_newRoot, _variableToReplace, c, ReplaceType.CONSTANT);
+            // Instantiate the body with the constant; identical instances share one node.
+            WffTree _newRoot = this.context.getInterner().intern(this.replaceSymbol(_universalNDWffTree.getWffTree().getChild(0),
+                    _variableToReplace, c, ReplaceType.CONSTANT));
             this.addPremise(new NDWffTree(_newRoot, NDStep.UE, _universalNDWffTree));
         }
     }
 
     /**
-     * Recursively adds all constants found in a WffTree to a HashSet. The constants
-     * should be listed as a ConstantNode.
+     * Adds all constants found in a WffTree to a HashSet. The constants come from the
+     * wff's cached analytics, so there is no traversal.
      *
-     * @param _tree    - WffTree to recursively check.
+     * @param _tree    - WffTree to check.
      * @param _charSet - HashSet of characters to add the discovered constants to.
      */
     private void addAllConstantsToSet(WffTree _tree, HashSet<Character> _charSet) {
-        if (_tree != null && _tree.isConstant()) {
-            _charSet.add(_tree.getSymbol().charAt(0));
-        }
-        for (WffTree child : _tree.getChildren()) {
-            this.addAllConstantsToSet(child, _charSet);
+        for (int id : _tree.getAnalytics().getConstantIds()) {
+            _charSet.add(this.context.getSymbolTable().getSymbol(id).charAt(0));
         }
     }
 
     /**
      * Replaces a variable or a constant with a constant node in a WffTree. This is used when performing
-     * existential, universal decomposition, or identity decomposition.
+     * existential, universal decomposition, or identity decomposition. The original WffTree is left
+     * untouched (it may be interned); only the nodes above the replaced occurrences are rebuilt, and
+     * the rest of the tree is shared with the result.
      *
-     * @param _newRoot         - root of WffTree to modify.
+     * @param _root            - root of WffTree to replace symbols in.
      * @param _symbolToReplace - constant or variable that we want to replace e.g. (x) = x
      * @param _symbol          - symbol to replace _symbolToReplace with.
      * @param _type            - type of node to insert to the tree. This should either be ReplaceType.CONSTANT or ReplaceType.VARIABLE.
+     * @return WffTree with the replacements applied.
      */
-    private void replaceSymbol(WffTree _newRoot, char _symbolToReplace, char _symbol, ReplaceType _type) {
-        for (int i = 0; i < _newRoot.getChildrenSize(); i++) {
-            if (_newRoot.getChild(i).isVariable() || _newRoot.getChild(0).isConstant()) {
-                char s = _newRoot.getChild(i).getSymbol().charAt(0);
-                if (s == _symbolToReplace) {
-                    if (_type == ReplaceType.CONSTANT) {
-                        _newRoot.setChild(i, new ConstantNode("" + _symbol));
-                    } else if (_type == ReplaceType.VARIABLE) {
-                        _newRoot.setChild(i, new VariableNode("" + _symbol));
-                    }
-                }
-            }
-            this.replaceSymbol(_newRoot.getChild(i), _symbolToReplace, _symbol, _type);
-        }
+    private WffTree replaceSymbol(WffTree _root, char _symbolToReplace, char _symbol, ReplaceType _type) {
+        WffTree replacement = _type == ReplaceType.VARIABLE
+                ? this.context.getSymbolTable().getVariable(_symbol)
+                : this.context.getSymbolTable().getConstant(_symbol);
+        return _root.replaceSymbol(_symbolToReplace, replacement);
     }
 
     /**
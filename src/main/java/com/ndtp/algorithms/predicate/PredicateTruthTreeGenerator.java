@@ -2,7 +2,9 @@ package com.ndtp.algorithms.predicate;
 
 import com.ndtp.algorithms.BaseTruthTreeGenerator;
 import com.ndtp.algorithms.models.TruthTree;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.ExistentialQuantifierNode;
+import com.ndtp.models.treenode.NodeFlag;
 import com.ndtp.models.treenode.NodeType;
 import com.ndtp.models.treenode.UniversalQuantifierNode;
 import com.ndtp.models.treenode.WffTree;
@@ -20,6 +22,10 @@ public final class PredicateTruthTreeGenerator extends BaseTruthTreeGenerator {
      */
     private static int timeout = 1000;
 
+    public PredicateTruthTreeGenerator(WffTree _tree, ProverContext _context) {
+        super(_tree, _context);
+    }
+
     public PredicateTruthTreeGenerator(WffTree _tree) {
         super(_tree);
     }
@@ -51,8 +57,12 @@ public final class PredicateTruthTreeGenerator extends BaseTruthTreeGenerator {
 
             TruthTree tree = queue.poll();
             WffTree curr = tree.getWff();
+            // Closing is checked once per leaf, when it is new; the leaves of the polled
+            // node are then a walk along the leaf list.
+            if (!this.checkNewBranches(tree, false)) {
+                return;
+            }
             leaves = BaseTruthTreeGenerator.getLeaves(tree);
-            BaseTruthTreeGenerator.computeClosedBranches(leaves);
 
             // If the tree is closed then we don't need to continue...
             if (tree.isClosed()) {
@@ -86,6 +96,7 @@ public final class PredicateTruthTreeGenerator extends BaseTruthTreeGenerator {
             } else if (curr.isBicond()) {
                 this.branchBiconditional(tree, leaves, queue);
             }
+            tree.setFlags(NodeFlag.DEVELOPED);
         }
     }
 
@@ -179,7 +190,7 @@ public final class PredicateTruthTreeGenerator extends BaseTruthTreeGenerator {
      *                 is added to this priority queue.
      */
     private void distributeNegationQuantifier(TruthTree _negRoot, ArrayList<TruthTree> _leaves, PriorityQueue<TruthTree> _queue) {
-        WffTree negatedQuantifier = getFlippedNode(_negRoot.getWff().getChild(0));
+        WffTree negatedQuantifier = getFlippedNode(_negRoot.getWff().getChild(0), this.context);
         for (TruthTree tt : _leaves) {
             if (!tt.isClosed()) {
                 tt.addCenter(new TruthTree(negatedQuantifier, tt, _negRoot));
@@ -201,20 +212,17 @@ public final class PredicateTruthTreeGenerator extends BaseTruthTreeGenerator {
     }
 
     /**
-     * Recursively searches through the tree from a leaf to the parent to find
-     * all constants in use. A constant is a lower-case letter from a-t.
+     * Searches through the tree from a leaf to the parent to find all constants in use.
+     * Each wff's constants come from its cached analytics, so word operators such as
+     * "and" are not mistaken for constants.
      *
      * @param _tree - TruthTree (should be a leaf node).
      */
     private void getAllConstantsHelper(TruthTree _tree) {
         TruthTree curr = _tree;
         while (curr != null) {
-            String str = curr.getWff().getStringRep();
-            for (int c = 0; c < str.length(); c++) {
-                char ch = str.charAt(c);
-                if (ch >= 'a' && ch <= 't') {
-                    _tree.addConstant(ch);
-                }
+            for (int id : curr.getWff().getAnalytics().getConstantIds()) {
+                _tree.addConstant(this.context.getSymbolTable().getSymbol(id).charAt(0));
             }
             curr = curr.getParent();
         }
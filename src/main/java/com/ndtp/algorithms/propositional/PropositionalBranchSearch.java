@@ -0,0 +1,420 @@
+package com.ndtp.algorithms.propositional;
+
+import com.ndtp.algorithms.models.BranchLiterals;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.NegNode;
+import com.ndtp.models.treenode.WffTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decides whether a propositional truth tree has an open branch without building the tree.
+ * It applies the same rules as PropositionalTruthTreeGenerator, but follows one branch at a
+ * time: stacking rules are applied first, then the first alternative of a branching rule is
+ * taken, and when the branch closes it backtracks to the last branching rule that still has
+ * an alternative left. It stops at the first branch that is fully developed and still open.
+ * <p>
+ * Only the current branch is kept: the wffs that are left to develop, the literals on the
+ * branch, and a trail of the changes since each open branching rule so that they can be
+ * undone. Memory is therefore proportional to the length of a branch rather than to the size
+ * of the tree. There is no iteration limit, unlike the truth tree generators.
+ * </p>
+ * <p>
+ * Given a ForkJoinPool, the other alternatives of a branching rule are explored by tasks of
+ * their own once the branch has at least FORK_THRESHOLD branching wffs left to develop, since
+ * the branches below a rule are independent. A task that finds an open branch tells the
+ * others to stop, and they give up at their next step. The wff is only read during the search
+ * (its literal ids are assigned up front), so the tasks can share it and the context.
+ * </p>
+ */
+public final class PropositionalBranchSearch {
+
+    /**
+     * Number of branching wffs that a branch must have left before its alternatives are
+     * forked. Below it, the subtree is at most 2^FORK_THRESHOLD branches, which is too
+     * little work to be worth a task.
+     */
+    public static final int FORK_THRESHOLD = 4;
+
+    /**
+     * Changes recorded on the trail.
+     */
+    private static final int PUSH_STACK = 0;
+    private static final int POP_STACK = 1;
+    private static final int PUSH_BRANCH = 2;
+    private static final int POP_BRANCH = 3;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ProverContext context;
+
+    public PropositionalBranchSearch(ProverContext _context) {
+        this.context = _context;
+    }
+
+    /**
+     * Searches the truth tree of a wff for an open branch on the calling thread.
+     *
+     * @param _wff - propositional wff at the root of the truth tree.
+     * @return true if some branch stays open, i.e., _wff is satisfiable, false if every branch closes.
+     */
+    public boolean hasOpenBranch(WffTree _wff) {
+        this.context.resetLiteralIds();
+        Explorer explorer = new Explorer(null);
+        explorer.add(_wff);
+        return explorer.explore();
+    }
+
+    /**
+     * Searches the truth tree of a wff for an open branch, splitting the search over _pool.
+     *
+     * @param _wff  - propositional wff at the root of the truth tree.
+     * @param _pool - pool to run the search in.
+     * @return true if some branch stays open, i.e., _wff is satisfiable, false if every branch closes.
+     */
+    public boolean hasOpenBranch(WffTree _wff, ForkJoinPool _pool) {
+        // Give every atom its literal id now, so that the tasks only ever look ids up.
+        this.context.resetLiteralIds();
+        ArrayList<WffTree> nodes = new ArrayList<>();
+        WffTree.getWalker().preOrder(_wff, nodes);
+        for (WffTree node : nodes) {
+            if (node.isAtom()) {
+                this.context.getLiteralId(node);
+            }
+        }
+
+        AtomicBoolean open = new AtomicBoolean();
+        Explorer explorer = new Explorer(open);
+        explorer.add(_wff);
+        _pool.invoke(explorer);
+        // A task that stops because another one found an open branch returns false, so the
+        // answer is the flag rather than what the first task returned.
+        return open.get();
+    }
+
+    /**
+     * Explores the branches below one starting branch. It is a task, so that it can be forked,
+     * but the serial search simply calls explore.
+     */
+    @SuppressWarnings("serial")
+    private final class Explorer extends RecursiveTask<Boolean> {
+
+        /**
+         * Set once any task finds an open branch; null if the search is not parallel.
+         */
+        private final AtomicBoolean open;
+
+        /**
+         * Wffs on the branch that are still to be developed by a stacking rule (or are literals).
+         */
+        private final ArrayList<WffTree> stacking;
+
+        /**
+         * Wffs on the branch that are still to be developed by a branching rule.
+         */
+        private final ArrayList<WffTree> branching;
+
+        /**
+         * Changes to stacking and branching, oldest first; the wff is only needed to undo a pop.
+         */
+        private final ArrayList<WffTree> trail;
+        private int[] trailOps;
+
+        private BranchLiterals literals;
+
+        private Explorer(AtomicBoolean _open) {
+            this.open = _open;
+            this.stacking = new ArrayList<>();
+            this.branching = new ArrayList<>();
+            this.trail = new ArrayList<>();
+            this.trailOps = new int[INITIAL_CAPACITY];
+            this.literals = BranchLiterals.EMPTY;
+        }
+
+        /**
+         * Creates a task for another alternative of a branching rule on _branch.
+         */
+        private Explorer(Explorer _branch, WffTree[] _alternative) {
+            this(_branch.open);
+            this.stacking.addAll(_branch.stacking);
+            this.branching.addAll(_branch.branching);
+            this.literals = _branch.literals;
+            for (WffTree wff : _alternative) {
+                this.add(wff);
+            }
+        }
+
+        @Override
+        protected Boolean compute() {
+            return this.explore();
+        }
+
+        /**
+         * @return true if a branch below the starting branch stays open, false if they all close
+         * (or if another task found an open branch first).
+         */
+        private boolean explore() {
+            ArrayList<ChoicePoint> choices = new ArrayList<>();
+            ArrayList<Explorer> forked = new ArrayList<>();
+            while (true) {
+                if (this.open != null && this.open.get()) {
+                    // Another task found an open branch; the forked tasks that have not
+                    // started yet are not needed either.
+                    for (Explorer task : forked) {
+                        task.cancel(false);
+                    }
+                    return false;
+                }
+
+                if (this.develop()) {
+                    if (this.branching.isEmpty()) {
+                        if (this.open != null) {
+                            this.open.set(true);
+                        }
+                        return true;
+                    }
+                    WffTree wff = this.pop(this.branching, POP_BRANCH);
+                    WffTree[][] alternatives = PropositionalBranchSearch.this.getAlternatives(wff);
+                    if (this.open != null && this.branching.size() >= FORK_THRESHOLD) {
+                        // Hand the other alternatives to tasks of their own and keep the first.
+                        for (int i = 1; i < alternatives.length; i++) {
+                            Explorer task = new Explorer(this, alternatives[i]);
+                            task.fork();
+                            forked.add(task);
+                        }
+                        for (WffTree alt : alternatives[0]) {
+                            this.add(alt);
+                        }
+                        continue;
+                    }
+                    choices.add(new ChoicePoint(alternatives, this.trail.size(), this.literals));
+                } else if (choices.isEmpty()) {
+                    break;
+                }
+
+                // Take the next alternative of the last branching rule. After a closed branch, this
+                // backtracks to the point where the rule was applied first.
+                ChoicePoint choice = choices.get(choices.size() - 1);
+                this.undo(choice.trailSize);
+                this.literals = choice.literals;
+                WffTree[] alternative = choice.alternatives[choice.next++];
+                if (choice.next == choice.alternatives.length) {
+                    choices.remove(choices.size() - 1);
+                }
+                for (WffTree wff : alternative) {
+                    this.add(wff);
+                }
+            }
+
+            // Every branch explored here closed, so the answer is up to the forked tasks.
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                Explorer task = forked.get(i);
+                if (!task.isCancelled() && task.join()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Applies the stacking rules to the branch until only branching wffs are left.
+         *
+         * @return true if the branch is still open, false if it closed.
+         */
+        private boolean develop() {
+            while (!this.stacking.isEmpty()) {
+                WffTree wff = this.pop(this.stacking, POP_STACK);
+                if (wff.isFalse()) {
+                    return false;
+                } else if (wff.isAtom()) {
+                    if (!this.addLiteral(wff, 0)) {
+                        return false;
+                    }
+                } else if (wff.isAnd()) {
+                    for (int i = 0; i < wff.getChildrenSize(); i++) {
+                        this.add(wff.getChild(i));
+                    }
+                } else if (wff.isNegation()) {
+                    WffTree child = wff.getChild(0);
+                    if (child.isTruth()) {
+                        return false;
+                    } else if (child.isAtom()) {
+                        if (!this.addLiteral(child, 1)) {
+                            return false;
+                        }
+                    } else if (child.isNegation()) {
+                        this.add(child.getChild(0));
+                    } else if (child.isOr()) {
+                        for (int i = 0; i < child.getChildrenSize(); i++) {
+                            this.add(PropositionalBranchSearch.this.negate(child.getChild(i)));
+                        }
+                    } else if (child.isImp()) {
+                        this.add(child.getChild(0));
+                        this.add(PropositionalBranchSearch.this.negate(child.getChild(1)));
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Adds an atom (or its negation) to the literals of the branch.
+         *
+         * @param _atom  - atom.
+         * @param _depth - 1 if the atom is negated, 0 otherwise.
+         * @return false if the branch already has the complement, true otherwise.
+         */
+        private boolean addLiteral(WffTree _atom, int _depth) {
+            int literalId = PropositionalBranchSearch.this.context.getLiteralId(_atom);
+            if (this.literals.contains(literalId, 1 - _depth)) {
+                return false;
+            }
+            this.literals = this.literals.with(literalId, _depth);
+            return true;
+        }
+
+        /**
+         * Puts a wff on the branch to be developed.
+         *
+         * @param _wff - propositional wff.
+         */
+        private void add(WffTree _wff) {
+            WffTree wff = _wff.isNegation() ? _wff.getChild(0) : _wff;
+            if (wff.isPredicate() || wff.isQuantifier() || wff.isIdentity()) {
+                throw new IllegalArgumentException("Branch search expects a propositional wff but got " + _wff.getStringRep());
+            } else if (_wff.isTruth() || (_wff.isNegation() && wff.isFalse())) {
+                // Nothing to develop.
+                return;
+            }
+
+            boolean branches = _wff.isNegation()
+                    ? wff.isAnd() || wff.isBicond() || wff.isExclusiveOr()
+                    : wff.isOr() || wff.isImp() || wff.isBicond() || wff.isExclusiveOr();
+            if (branches) {
+                this.push(this.branching, PUSH_BRANCH, _wff);
+            } else {
+                this.push(this.stacking, PUSH_STACK, _wff);
+            }
+        }
+
+        private void push(ArrayList<WffTree> _list, int _op, WffTree _wff) {
+            _list.add(_wff);
+            this.record(_op, null);
+        }
+
+        private WffTree pop(ArrayList<WffTree> _list, int _op) {
+            WffTree wff = _list.remove(_list.size() - 1);
+            this.record(_op, wff);
+            return wff;
+        }
+
+        private void record(int _op, WffTree _wff) {
+            if (this.trail.size() == this.trailOps.length) {
+                this.trailOps = Arrays.copyOf(this.trailOps, this.trailOps.length * 2);
+            }
+            this.trailOps[this.trail.size()] = _op;
+            this.trail.add(_wff);
+        }
+
+        /**
+         * Undoes the changes on the trail back to _trailSize, newest first.
+         */
+        private void undo(int _trailSize) {
+            while (this.trail.size() > _trailSize) {
+                int i = this.trail.size() - 1;
+                WffTree wff = this.trail.remove(i);
+                switch (this.trailOps[i]) {
+                    case PUSH_STACK:
+                        this.stacking.remove(this.stacking.size() - 1);
+                        break;
+                    case POP_STACK:
+                        this.stacking.add(wff);
+                        break;
+                    case PUSH_BRANCH:
+                        this.branching.remove(this.branching.size() - 1);
+                        break;
+                    default:
+                        this.branching.add(wff);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param _wff - wff that branches.
+     * @return wffs to stack on each of the branches, from left to right.
+     */
+    private WffTree[][] getAlternatives(WffTree _wff) {
+        if (_wff.isNegation()) {
+            WffTree child = _wff.getChild(0);
+            if (child.isAnd()) {
+                WffTree[][] alternatives = new WffTree[child.getChildrenSize()][];
+                for (int i = 0; i < alternatives.length; i++) {
+                    alternatives[i] = new WffTree[]{this.negate(child.getChild(i))};
+                }
+                return alternatives;
+            } else if (child.isBicond()) {
+                return new WffTree[][]{{child.getChild(0), this.negate(child.getChild(1))},
+                        {this.negate(child.getChild(0)), child.getChild(1)}};
+            }
+            // Negated exclusive or.
+            return new WffTree[][]{{child.getChild(0), child.getChild(1)},
+                    {this.negate(child.getChild(0)), this.negate(child.getChild(1))}};
+        } else if (_wff.isOr()) {
+            WffTree[][] alternatives = new WffTree[_wff.getChildrenSize()][];
+            for (int i = 0; i < alternatives.length; i++) {
+                alternatives[i] = new WffTree[]{_wff.getChild(i)};
+            }
+            return alternatives;
+        } else if (_wff.isImp()) {
+            return new WffTree[][]{{this.negate(_wff.getChild(0))}, {_wff.getChild(1)}};
+        } else if (_wff.isBicond()) {
+            return new WffTree[][]{{_wff.getChild(0), _wff.getChild(1)},
+                    {this.negate(_wff.getChild(0)), this.negate(_wff.getChild(1))}};
+        }
+        // Exclusive or.
+        return new WffTree[][]{{_wff.getChild(0), this.negate(_wff.getChild(1))},
+                {_wff.getChild(1), this.negate(_wff.getChild(0))}};
+    }
+
+    /**
+     * Builds ~_wff. Unlike BaseTruthTreeGenerator.getNegatedNode, this never goes through the
+     * interner, which is not thread-safe.
+     */
+    private WffTree negate(WffTree _wff) {
+        NegNode neg = this.context.createNegNode();
+        neg.addChild(_wff);
+        return neg;
+    }
+
+    /**
+     * A branching rule whose alternatives are still being explored.
+     */
+    private static final class ChoicePoint {
+
+        private final WffTree[][] alternatives;
+
+        /**
+         * Trail size and literals of the branch just after the rule was taken off it.
+         */
+        private final int trailSize;
+
+        private final BranchLiterals literals;
+
+        /**
+         * Index of the next alternative to explore.
+         */
+        private int next;
+
+        private ChoicePoint(WffTree[][] _alternatives, int _trailSize, BranchLiterals _literals) {
+            this.alternatives = _alternatives;
+            this.trailSize = _trailSize;
+            this.literals = _literals;
+        }
+    }
+}
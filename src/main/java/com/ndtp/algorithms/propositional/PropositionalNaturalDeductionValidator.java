@@ -7,6 +7,7 @@ import com.ndtp.algorithms.models.NDFlag;
 import com.ndtp.algorithms.models.NDStep;
 import com.ndtp.algorithms.models.NDWffTree;
 import com.ndtp.algorithms.models.ProofType;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.*;
 
 import java.util.ArrayList;
@@ -21,6 +22,10 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
      */
     private static int timeout = 1000;
 
+    public PropositionalNaturalDeductionValidator(ArrayList<WffTree> _wffTreeList, ProofType _proofType, ProverContext _context) {
+        super(_wffTreeList, _proofType, _context);
+    }
+
     public PropositionalNaturalDeductionValidator(ArrayList<WffTree> _wffTreeList, ProofType _proofType) {
         super(_wffTreeList, _proofType);
     }
@@ -35,7 +40,7 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
      */
     @Override
     public ArrayList<NDWffTree> getNaturalDeductionProof() {
-        ArgumentTruthTreeValidator truthTreeValidator = new ArgumentTruthTreeValidator(this.originalWffTreeList);
+        ArgumentTruthTreeValidator truthTreeValidator = new ArgumentTruthTreeValidator(this.originalWffTreeList, this.context);
         if (!truthTreeValidator.isValid()) { return null; }
 
         int cycles = 0;
@@ -102,9 +107,9 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
 
         // Now do a transposition equivalence.
         if (conclusionNode.isImp()) {
-            ImpNode transpositionNode = new ImpNode();
-            transpositionNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(1)));
-            transpositionNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0)));
+            ImpNode transpositionNode = this.context.createImpNode();
+            transpositionNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(1), this.context));
+            transpositionNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0), this.context));
             this.conclusionWff.setFlags(NDFlag.TP);
             conclusionEquivalentList.add(new NDWffTree(transpositionNode, NDFlag.TP | NDFlag.DNE | NDFlag.DEM | NDFlag.MI | NDFlag.ALTC, NDStep.TP, this.conclusionWff));
         }
@@ -114,10 +119,10 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
             WffTree deMorganNode = null;
             // Negate a biconditional to get ~(X <-> Y) => ~((X->Y) & (Y->X)).
             if (conclusionNode.isNegation() && conclusionNode.getChild(0).isBicond()) {
-                NegNode neg = new NegNode();
-                AndNode and = new AndNode();
-                ImpNode lhs = new ImpNode();
-                ImpNode rhs = new ImpNode();
+                NegNode neg = this.context.createNegNode();
+                AndNode and = this.context.createAndNode();
+                ImpNode lhs = this.context.createImpNode();
+                ImpNode rhs = this.context.createImpNode();
                 lhs.addChild(conclusionNode.getChild(0).getChild(0));
                 lhs.addChild(conclusionNode.getChild(0).getChild(1));
                 rhs.addChild(conclusionNode.getChild(0).getChild(1));
@@ -132,8 +137,8 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
                     && conclusionNode.getChild(0).getChild(0).isImp() && conclusionNode.getChild(0).getChild(1).isImp()
                     && conclusionNode.getChild(0).getChild(0).getChild(0).stringEquals(conclusionNode.getChild(0).getChild(1).getChild(1))
                     && conclusionNode.getChild(0).getChild(0).getChild(1).stringEquals(conclusionNode.getChild(0).getChild(1).getChild(0))) {
-                NegNode negNode = new NegNode();
-                BicondNode bicondNode = new BicondNode();
+                NegNode negNode = this.context.createNegNode();
+                BicondNode bicondNode = this.context.createBicondNode();
                 bicondNode.addChild(conclusionNode.getChild(0).getChild(0).getChild(0));
                 bicondNode.addChild(conclusionNode.getChild(0).getChild(0).getChild(1));
                 negNode.addChild(bicondNode);
@@ -141,17 +146,17 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
             }
             // Two types: one is ~(X B Y) => (~X ~B ~Y)
             else if (conclusionNode.isNegation() && (conclusionNode.getChild(0).isOr() || conclusionNode.getChild(0).isAnd() || conclusionNode.getChild(0).isImp())) {
-                deMorganNode = BaseTruthTreeGenerator.getNegatedBinaryNode(conclusionNode.getChild(0)); // B
+                deMorganNode = BaseTruthTreeGenerator.getNegatedBinaryNode(conclusionNode.getChild(0), this.context); // B
                 deMorganNode.addChild(conclusionNode.getChild(0).isImp() ? conclusionNode.getChild(0).getChild(0)
-                        : BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0).getChild(0))); // LHS X
-                deMorganNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0).getChild(1))); // RHS Y
+                        : BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0).getChild(0), this.context)); // LHS X
+                deMorganNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0).getChild(1), this.context)); // RHS Y
             }
             // Other is (X B Y) => ~(~X ~B ~Y)
             else if ((conclusionNode.isOr() || conclusionNode.isAnd() || conclusionNode.isImp())) {
-                WffTree negBinaryNode = BaseTruthTreeGenerator.getNegatedBinaryNode(conclusionNode); // B
-                negBinaryNode.addChild(conclusionNode.isImp() ? conclusionNode.getChild(0) : BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0))); // LHS X
-                negBinaryNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(1))); // RHS Y
-                deMorganNode = new NegNode();
+                WffTree negBinaryNode = BaseTruthTreeGenerator.getNegatedBinaryNode(conclusionNode, this.context); // B
+                negBinaryNode.addChild(conclusionNode.isImp() ? conclusionNode.getChild(0) : BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(0), this.context)); // LHS X
+                negBinaryNode.addChild(BaseTruthTreeGenerator.getFlippedNode(conclusionNode.getChild(1), this.context)); // RHS Y
+                deMorganNode = this.context.createNegNode();
                 deMorganNode.addChild(negBinaryNode);
             }
             // If we found a node, then it'll be applied/inserted here.
@@ -166,8 +171,8 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
             WffTree newWff = null;
             // Convert (P -> Q) to (~P V Q).
             if (conclusionNode.isImp()) {
-                OrNode orNode = new OrNode();
-                NegNode negLhs = new NegNode();
+                OrNode orNode = this.context.createOrNode();
+                NegNode negLhs = this.context.createNegNode();
                 negLhs.addChild(conclusionNode.getChild(0));
                 orNode.addChild(negLhs);
                 orNode.addChild(conclusionNode.getChild(1));
@@ -178,7 +183,7 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
                 WffTree lhs = conclusionNode.getChild(0);
                 WffTree rhs = conclusionNode.getChild(1);
                 if (lhs.isNegation()) {
-                    ImpNode impNode = new ImpNode();
+                    ImpNode impNode = this.context.createImpNode();
                     impNode.addChild(lhs.getChild(0)); // Un-negate the lhs.
                     impNode.addChild(rhs);
                     newWff = impNode;
@@ -273,7 +278,7 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
 
         // Otherwise, try to construct an implication node - see if both sides are satisfiable.
         if (this.satisfy(_impTree.getChild(0), _parent) && this.satisfy(_impTree.getChild(1), _parent)) {
-            ImpNode impNode = new ImpNode();
+            ImpNode impNode = this.context.createImpNode();
             impNode.addChild(_impTree.getChild(0));
             impNode.addChild(_impTree.getChild(1));
             this.addPremise(new NDWffTree(impNode, NDFlag.II, NDStep.II,
@@ -304,7 +309,7 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
         // Then try to create a conjunction if it's a goal and satisfied on both sides.
         if (this.satisfy(_conjTree.getChild(0), _parent)
                 && this.satisfy(_conjTree.getChild(1), _parent)) {
-            AndNode andNode = new AndNode();
+            AndNode andNode = this.context.createAndNode();
             andNode.addChild(_conjTree.getChild(0));
             andNode.addChild(_conjTree.getChild(1));
             this.addPremise(new NDWffTree(andNode, NDFlag.AI, NDStep.AI,
@@ -340,7 +345,7 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
             // There's two conditions: we're either adding from the conclusion or from
             // another premise. If the parent is the conclusion, then we're adding from
             // that (obviously) and one of the nodes won't be retrievable via getPremise....
-            OrNode orNode = new OrNode();
+            OrNode orNode = this.context.createOrNode();
             orNode.addChild(_disjTree.getChild(0));
             orNode.addChild(_disjTree.getChild(1));
 
@@ -378,8 +383,8 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
             if (this.findBiconditionalElimination(_bicondTree, _parent)) return true;
         }
         // We first have a subgoal of X -> Y and Y -> X.
-        ImpNode impLhs = new ImpNode();
-        ImpNode impRhs = new ImpNode();
+        ImpNode impLhs = this.context.createImpNode();
+        ImpNode impRhs = this.context.createImpNode();
         impLhs.addChild(_bicondTree.getChild(0));
         impLhs.addChild(_bicondTree.getChild(1));
         impRhs.addChild(_bicondTree.getChild(1));
@@ -387,7 +392,7 @@ public final class PropositionalNaturalDeductionValidator extends BaseNaturalDed
 
         // Check to see if both implications are satisfied.
         if (this.satisfy(impLhs, _parent) && this.satisfy(impRhs, _parent)) {
-            BicondNode bicondNode = new BicondNode();
+            BicondNode bicondNode = this.context.createBicondNode();
             bicondNode.addChild(_bicondTree.getChild(0));
             bicondNode.addChild(_bicondTree.getChild(1));
             this.addPremise(new NDWffTree(bicondNode, NDFlag.BC, NDStep.BCI,
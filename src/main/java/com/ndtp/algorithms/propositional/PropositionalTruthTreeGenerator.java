@@ -2,6 +2,8 @@ package com.ndtp.algorithms.propositional;
 
 import com.ndtp.algorithms.BaseTruthTreeGenerator;
 import com.ndtp.algorithms.models.TruthTree;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.NodeFlag;
 import com.ndtp.models.treenode.WffTree;
 
 import java.util.ArrayList;
@@ -17,6 +19,10 @@ public final class PropositionalTruthTreeGenerator extends BaseTruthTreeGenerato
      */
     private static int timeout = 1000;
 
+    public PropositionalTruthTreeGenerator(WffTree _tree, ProverContext _context) {
+        super(_tree, _context);
+    }
+
     public PropositionalTruthTreeGenerator(WffTree _tree) {
         super(_tree);
     }
@@ -48,8 +54,12 @@ public final class PropositionalTruthTreeGenerator extends BaseTruthTreeGenerato
 
             TruthTree tree = queue.poll();
             WffTree curr = tree.getWff();
+            // Closing is checked once per leaf, when it is new; the leaves of the polled
+            // node are then a walk along the leaf list.
+            if (!this.checkNewBranches(tree, true)) {
+                return;
+            }
             leaves = BaseTruthTreeGenerator.getLeaves(tree);
-            BaseTruthTreeGenerator.computeClosedBranches(leaves);
 
             // If the tree is closed then we don't need to continue...
             if (tree.isClosed()) {
@@ -76,6 +86,7 @@ public final class PropositionalTruthTreeGenerator extends BaseTruthTreeGenerato
             } else if (curr.isExclusiveOr()) {
                 this.branchExclusiveOr(tree, leaves, queue);
             }
+            tree.setFlags(NodeFlag.DEVELOPED);
         }
     }
 }
@@ -12,8 +12,10 @@ import java.util.*;
  * so after parsing you can call sawError() to see if there was a problem.
  * <p>
  * For NDTP, we can use this in the front-end for displaying error messages.
- * Simply call NDTPErrorListener.getErrorIterator() and
- * NDTPErrorListener.getWarningIterator() to get an Iterator object for them.
+ * Simply call getErrorIterator() and getWarningIterator() on the listener of
+ * the ProverContext that was parsed with to get an Iterator object for them.
+ * Each context has its own listener, so parses in different contexts do not
+ * see each other's errors.
  *
  * @author Joshua Crotts
  * @modified 2/20/2021
@@ -23,22 +25,22 @@ public class NDTPErrorListener extends BaseErrorListener {
     /**
      * Set of all compiler errors generated while parsing.
      */
-    private static final Set<Message> errors = new HashSet<>();
+    private final Set<Message> errors = new HashSet<>();
 
     /**
      * Set of all warning errors generated while parsing.
      */
-    private static final Set<Message> warnings = new HashSet<>();
+    private final Set<Message> warnings = new HashSet<>();
 
     /**
      * Keeps track of whether we have encountered an error or not.
      */
-    private static boolean gotError = false;
+    private boolean gotError = false;
 
     /**
      * Keeps track of whether we have encountered a warning or not.
      */
-    private static boolean gotWarning = false;
+    private boolean gotWarning = false;
 
     public NDTPErrorListener() {
         super();
@@ -51,8 +53,8 @@ public class NDTPErrorListener extends BaseErrorListener {
      * @param ctx
      * @param errorMsg
      */
-    public static void syntaxError(ParserRuleContext ctx, String errorMsg) {
-        NDTPErrorListener.gotError = true;
+    public void syntaxError(ParserRuleContext ctx, String errorMsg) {
+        this.gotError = true;
         int lineNo = -1;
         int colNo = -1;
 
@@ -64,7 +66,7 @@ public class NDTPErrorListener extends BaseErrorListener {
                     "Internal compiler error - ParserRuleContext cannot be null in ErrorListener.");
         }
 
-        NDTPErrorListener.errors.add(new Message(errorMsg, colNo));
+        this.errors.add(new Message(errorMsg, colNo));
     }
 
     /**
@@ -75,8 +77,8 @@ public class NDTPErrorListener extends BaseErrorListener {
      * @param warningMsg
      * @return void.
      */
-    public static void syntaxWarning(ParserRuleContext ctx, String warningMsg) {
-        NDTPErrorListener.gotWarning = true;
+    public void syntaxWarning(ParserRuleContext ctx, String warningMsg) {
+        this.gotWarning = true;
         int lineNo = -1;
         int colNo = -1;
 
@@ -88,7 +90,7 @@ public class NDTPErrorListener extends BaseErrorListener {
                     "Internal compiler error - ParserRuleContext cannot be null in ErrorListener.");
         }
 
-        NDTPErrorListener.warnings.add(new Message(warningMsg, colNo));
+        this.warnings.add(new Message(warningMsg, colNo));
     }
 
     /**
@@ -97,10 +99,10 @@ public class NDTPErrorListener extends BaseErrorListener {
      *
      * @return void.
      */
-    public static void printErrors() {
-        List<Message> errorList = new ArrayList<Message>(NDTPErrorListener.errors);
+    public void printErrors() {
+        List<Message> errorList = new ArrayList<Message>(this.errors);
         errorList.sort(Comparator.comparing(Message::getColNo));
-        System.err.print("ERRORS(" + NDTPErrorListener.errors.size() + "):\n");
+        System.err.print("ERRORS(" + this.errors.size() + "):\n");
         for (Message error : errorList) {
             System.err.println(error);
         }
@@ -112,10 +114,10 @@ public class NDTPErrorListener extends BaseErrorListener {
      *
      * @return void.
      */
-    public static void printWarnings() {
-        List<Message> warningList = new ArrayList<Message>(NDTPErrorListener.warnings);
+    public void printWarnings() {
+        List<Message> warningList = new ArrayList<Message>(this.warnings);
         warningList.sort(Comparator.comparing(Message::getColNo));
-        System.out.print("WARNINGS(" + NDTPErrorListener.warnings.size() + "):\n");
+        System.out.print("WARNINGS(" + this.warnings.size() + "):\n");
         for (Message warning : warningList) {
             System.out.println(warning);
         }
@@ -126,8 +128,8 @@ public class NDTPErrorListener extends BaseErrorListener {
      *
      * @return true if an error was seen.
      */
-    public static boolean sawError() {
-        return gotError;
+    public boolean sawError() {
+        return this.gotError;
     }
 
     /**
@@ -135,8 +137,8 @@ public class NDTPErrorListener extends BaseErrorListener {
      *
      * @return true if a warning was seen.
      */
-    public static boolean sawWarning() {
-        return gotWarning;
+    public boolean sawWarning() {
+        return this.gotWarning;
     }
 
     /**
@@ -145,8 +147,8 @@ public class NDTPErrorListener extends BaseErrorListener {
      *
      * @return Iterator<Message> object.
      */
-    public static Iterator<Message> getErrorIterator() {
-        return errors.iterator();
+    public Iterator<Message> getErrorIterator() {
+        return this.errors.iterator();
     }
 
     /**
@@ -155,20 +157,19 @@ public class NDTPErrorListener extends BaseErrorListener {
      *
      * @return Iterator<Message> object.
      */
-    public static Iterator<Message> getWarningIterator() {
-        return warnings.iterator();
+    public Iterator<Message> getWarningIterator() {
+        return this.warnings.iterator();
     }
 
     /**
-     * Since this is a static error listener, we need to reset the warnings and
-     * errors each time we use this in a unit testing environment or we'll have
-     * false positives.
+     * Clears the warnings and errors so that the listener can be reused for
+     * another parse in the same context without false positives.
      */
-    public static void reset() {
-        NDTPErrorListener.warnings.clear();
-        NDTPErrorListener.errors.clear();
-        NDTPErrorListener.gotError = false;
-        NDTPErrorListener.gotWarning = false;
+    public void reset() {
+        this.warnings.clear();
+        this.errors.clear();
+        this.gotError = false;
+        this.gotWarning = false;
     }
 
     /**
@@ -229,8 +230,8 @@ public class NDTPErrorListener extends BaseErrorListener {
             }
         }
 
-        gotError = true;
-        NDTPErrorListener.errors.add(new Message(errorMsg, col + 1));
+        this.gotError = true;
+        this.errors.add(new Message(errorMsg, col + 1));
     }
 
     /**
@@ -2,6 +2,7 @@ package com.ndtp.input;
 
 import com.ndtp.NDTPLexer;
 import com.ndtp.NDTPParser;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.WffTree;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
@@ -18,32 +19,44 @@ public class NDTPParserAdapter {
      * method should be called by any class that sends input from a front-end
      * and wants to create an AST, whether it be stdin or JavaFX.
      *
-     * @param _wff - String of wff characters.
+     * @param _wff     - String of wff characters.
+     * @param _context - context to parse in; its error listener collects the errors.
      * @return ArrayList<WffTree> representing abstract syntax trees returned. If
      * this list contains only one WffTree, then we can run most algorithms.
      */
-    public static ArrayList<WffTree> getAbstractSyntaxTree(String _wff) {
-        NDTPErrorListener.reset();
+    public static ArrayList<WffTree> getAbstractSyntaxTree(String _wff, ProverContext _context) {
+        _context.getErrorListener().reset();
         CharStream charStream = CharStreams.fromString(_wff);
-        NDTPParserListener parser = NDTPParserAdapter.parseStream(charStream);
+        NDTPParserListener parser = NDTPParserAdapter.parseStream(charStream, _context);
         // For now, the errors are just printed in the tester class - if
         // JUnit is integrated, these should be removed so they align with the tests.
-        NDTPErrorListener.printErrors();
-        NDTPErrorListener.printWarnings();
+        _context.getErrorListener().printErrors();
+        _context.getErrorListener().printWarnings();
         return parser.getSyntaxTrees();
     }
 
+    /**
+     * Builds the abstract syntax tree(s) from the user input string in a new ProverContext.
+     *
+     * @param _wff - String of wff characters.
+     * @return ArrayList<WffTree> representing abstract syntax trees returned.
+     */
+    public static ArrayList<WffTree> getAbstractSyntaxTree(String _wff) {
+        return NDTPParserAdapter.getAbstractSyntaxTree(_wff, new ProverContext());
+    }
+
     /**
      * Runs the parser and syntax tree constructor for the provided input stream.
      * The returned object can be used to access the syntax tree for either further
      * processing or for checking results in automated tests.
      *
-     * @param input an initialized CharStream
+     * @param input   an initialized CharStream
+     * @param context context to parse in
      */
-    private static NDTPParserListener parseStream(CharStream input) {
+    private static NDTPParserListener parseStream(CharStream input, ProverContext context) {
         // "input" is the character-by-character input - connect to lexer
         NDTPLexer lexer = new NDTPLexer(input);
-        NDTPErrorListener errorListener = new NDTPErrorListener();
+        NDTPErrorListener errorListener = context.getErrorListener();
         lexer.removeErrorListeners();
         lexer.addErrorListener(errorListener);
 
@@ -58,7 +71,7 @@ public class NDTPParserAdapter {
 
         // Now do the parsing, and walk the parse tree with our listeners
         ParseTreeWalker walker = new ParseTreeWalker();
-        NDTPParserListener compiler = new NDTPParserListener(parser);
+        NDTPParserListener compiler = new NDTPParserListener(parser, context);
         walker.walk(compiler, tree);
 
         return compiler;
@@ -2,6 +2,7 @@ package com.ndtp.input;
 
 import com.ndtp.NDTPBaseListener;
 import com.ndtp.NDTPParser;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.*;
 import org.antlr.v4.runtime.tree.ParseTreeProperty;
 
@@ -40,6 +41,11 @@ public class NDTPParserListener extends NDTPBaseListener {
      */
     private final NDTPPredicateTable predicateTable;
 
+    /**
+     * Collects the errors of this parse; it belongs to the ProverContext being parsed with.
+     */
+    private final NDTPErrorListener errorListener;
+
     /**
      * Stack to keep track of all in-progress subwffs.
      */
@@ -61,10 +67,11 @@ public class NDTPParserListener extends NDTPBaseListener {
      */
     private int negationCount = 0;
 
-    public NDTPParserListener(NDTPParser _flatParser) {
+    public NDTPParserListener(NDTPParser _flatParser, ProverContext _context) {
         super();
 
         this.NDTP_PARSER = _flatParser;
+        this.errorListener = _context.getErrorListener();
         this.PARSE_TREE = new ParseTreeProperty<>();
         this.predicateTable = new NDTPPredicateTable();
         this.treeRoots = new Stack<>();
@@ -73,9 +80,9 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void enterPropositionalWff(NDTPParser.PropositionalWffContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         if (this.wffTree != null && this.wffTree.isPredicateWff()) {
-            NDTPErrorListener.syntaxError(ctx, "Wff cannot be both propositional and predicate.");
+            this.errorListener.syntaxError(ctx, "Wff cannot be both propositional and predicate.");
             return;
         }
 
@@ -85,25 +92,25 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPropositionalWff(NDTPParser.PropositionalWffContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.currentTrees.add(this.wffTree.copy());
     }
 
     @Override
     public void enterAtom(NDTPParser.AtomContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         WffTree atomNode = new AtomNode(ctx.ATOM().getText());
         this.PARSE_TREE.put(ctx, atomNode);
     }
 
     @Override
     public void enterPropWff(NDTPParser.PropWffContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
     }
 
     @Override
     public void exitPropWff(NDTPParser.PropWffContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         if (ctx.atom() != null) {
             this.wffTree.addChild(this.PARSE_TREE.get(ctx.atom()));
         }
@@ -111,10 +118,10 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void enterPropNegRule(NDTPParser.PropNegRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.negationCount++;
         if (this.negationCount > NDTPParserListener.MAXIMUM_NEGATED_NODES) {
-            NDTPErrorListener.syntaxError(ctx, "Error: cannot have more than four stacked negated nodes");
+            this.errorListener.syntaxError(ctx, "Error: cannot have more than four stacked negated nodes");
             return;
         }
 
@@ -126,14 +133,14 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPropNegRule(NDTPParser.PropNegRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.negationCount--;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPropAndRule(NDTPParser.PropAndRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         AndNode andNode = new AndNode(ctx.AND().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = andNode;
@@ -141,13 +148,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPropAndRule(NDTPParser.PropAndRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPropOrRule(NDTPParser.PropOrRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         OrNode orNode = new OrNode(ctx.OR().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = orNode;
@@ -155,13 +162,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPropOrRule(NDTPParser.PropOrRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPropImpRule(NDTPParser.PropImpRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         ImpNode impNode = new ImpNode(ctx.IMP().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = impNode;
@@ -169,13 +176,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPropImpRule(NDTPParser.PropImpRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPropBicondRule(NDTPParser.PropBicondRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         BicondNode bicondNode = new BicondNode(ctx.BICOND().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = bicondNode;
@@ -183,13 +190,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPropBicondRule(NDTPParser.PropBicondRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPropExclusiveOrRule(NDTPParser.PropExclusiveOrRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         ExclusiveOrNode xorNode = new ExclusiveOrNode(ctx.XOR().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = xorNode;
@@ -197,7 +204,7 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPropExclusiveOrRule(NDTPParser.PropExclusiveOrRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
@@ -205,9 +212,9 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void enterPredicateWff(NDTPParser.PredicateWffContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         if (this.wffTree != null && this.wffTree.isPropositionalWff()) {
-            NDTPErrorListener.syntaxError(ctx, "Wff cannot be both propositional and predicate.");
+            this.errorListener.syntaxError(ctx, "Wff cannot be both propositional and predicate.");
             return;
         }
 
@@ -217,13 +224,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPredicateWff(NDTPParser.PredicateWffContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.currentTrees.add(this.wffTree.copy());
     }
 
     @Override
     public void exitPredicate(NDTPParser.PredicateContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         AtomNode atomNode = (AtomNode) this.PARSE_TREE.get(ctx.atom());
 
         // Loop through the children and add them to the list.
@@ -238,7 +245,7 @@ public class NDTPParserListener extends NDTPBaseListener {
 
         // Check to see if a definition exists and differs from this one. Throws a syntax error if so.
         if (predicateTable.isDifferent(predicate)) {
-            NDTPErrorListener.syntaxError(ctx, "Predicate " + atomLetter + " has arity " + parameters.size()
+            this.errorListener.syntaxError(ctx, "Predicate " + atomLetter + " has arity " + parameters.size()
                     + " but a previous version of " + atomLetter
                     + " has arity " + this.predicateTable.getArity(predicate) + ".");
         }
@@ -249,33 +256,33 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void enterConstant(NDTPParser.ConstantContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         WffTree constantNode = new ConstantNode(ctx.CONSTANT().getText());
         this.PARSE_TREE.put(ctx, constantNode);
     }
 
     @Override
     public void enterVariable(NDTPParser.VariableContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         WffTree variableNode = new VariableNode(ctx.VARIABLE().getText());
         this.PARSE_TREE.put(ctx, variableNode);
     }
 
     @Override
     public void exitPredQuantifier(NDTPParser.PredQuantifierContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void exitUniversal(NDTPParser.UniversalContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         VariableNode variableNode = null;
 
         if (ctx.variable() != null) {
             variableNode = (VariableNode) this.PARSE_TREE.get(ctx.variable());
         } else {
-            NDTPErrorListener.syntaxError(ctx, "Cannot use non-variable " + ctx.constant().getText() + " as variable in universal quantifier.");
+            this.errorListener.syntaxError(ctx, "Cannot use non-variable " + ctx.constant().getText() + " as variable in universal quantifier.");
             return;
         }
 
@@ -290,13 +297,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitExistential(NDTPParser.ExistentialContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         VariableNode variableNode = null;
 
         if (ctx.variable() != null) {
             variableNode = (VariableNode) this.PARSE_TREE.get(ctx.variable());
         } else {
-            NDTPErrorListener.syntaxError(ctx, "Cannot use non-variable " + ctx.constant().getText() + " as variable in existential quantifier.");
+            this.errorListener.syntaxError(ctx, "Cannot use non-variable " + ctx.constant().getText() + " as variable in existential quantifier.");
             return;
         }
 
@@ -308,7 +315,7 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void enterPredNegRule(NDTPParser.PredNegRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.negationCount++;
 
         NegNode negNode = new NegNode(ctx.NEG().getText());
@@ -318,9 +325,9 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPredNegRule(NDTPParser.PredNegRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         if (this.negationCount > NDTPParserListener.MAXIMUM_NEGATED_NODES) {
-            NDTPErrorListener.syntaxError(ctx, "Error: cannot have more than four stacked negated nodes");
+            this.errorListener.syntaxError(ctx, "Error: cannot have more than four stacked negated nodes");
             return;
         }
 
@@ -330,7 +337,7 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void enterPredAndRule(NDTPParser.PredAndRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         AndNode andNode = new AndNode(ctx.AND().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = andNode;
@@ -338,13 +345,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPredAndRule(NDTPParser.PredAndRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPredOrRule(NDTPParser.PredOrRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         OrNode orNode = new OrNode(ctx.OR().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = orNode;
@@ -352,13 +359,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPredOrRule(NDTPParser.PredOrRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPredImpRule(NDTPParser.PredImpRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         ImpNode impNode = new ImpNode(ctx.IMP().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = impNode;
@@ -366,13 +373,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPredImpRule(NDTPParser.PredImpRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPredBicondRule(NDTPParser.PredBicondRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         BicondNode bicondNode = new BicondNode(ctx.BICOND().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = bicondNode;
@@ -380,13 +387,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPredBicondRule(NDTPParser.PredBicondRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void enterPredExclusiveOrRule(NDTPParser.PredExclusiveOrRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         ExclusiveOrNode xorNode = new ExclusiveOrNode(ctx.XOR().getText());
         this.treeRoots.push(this.wffTree);
         this.wffTree = xorNode;
@@ -394,13 +401,13 @@ public class NDTPParserListener extends NDTPBaseListener {
 
     @Override
     public void exitPredExclusiveOrRule(NDTPParser.PredExclusiveOrRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         this.popTreeRoot();
     }
 
     @Override
     public void exitPredIdentityRule(NDTPParser.PredIdentityRuleContext ctx) {
-        if (NDTPErrorListener.sawError()) return;
+        if (this.errorListener.sawError()) return;
         IdentityNode identityNode = new IdentityNode();
         identityNode.addChild(this.PARSE_TREE.get(ctx.getChild(0)));
         identityNode.addChild(this.PARSE_TREE.get(ctx.getChild(2)));
@@ -416,7 +423,7 @@ public class NDTPParserListener extends NDTPBaseListener {
      * be evaluated. Otherwise, use an algorithm for 2+.
      */
     public ArrayList<WffTree> getSyntaxTrees() {
-        return NDTPErrorListener.sawError() ? null : this.currentTrees;
+        return this.errorListener.sawError() ? null : this.currentTrees;
     }
 
     /**
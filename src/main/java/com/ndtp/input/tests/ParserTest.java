@@ -11,6 +11,7 @@ import com.ndtp.algorithms.propositional.PropositionalNaturalDeductionValidator;
 import com.ndtp.input.NDTPErrorListener;
 import com.ndtp.input.NDTPParserAdapter;
 import com.ndtp.input.NDTPParserListener;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.WffTree;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
@@ -65,7 +66,8 @@ public class ParserTest {
      */
     public static void main(String[] argv) throws IOException {
         BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-        ArrayList<WffTree> resultList = NDTPParserAdapter.getAbstractSyntaxTree(reader.readLine());
+        ProverContext context = new ProverContext();
+        ArrayList<WffTree> resultList = NDTPParserAdapter.getAbstractSyntaxTree(reader.readLine(), context);
         if (resultList == null) {
             return;
         }
@@ -73,15 +75,15 @@ public class ParserTest {
         // If we have at least two wffs, we can see if they form a valid or invalid argument.
         if (resultList.size() >= 2) {
             // Argument validator (truth tree test).
-            ArgumentTruthTreeValidator validator = new ArgumentTruthTreeValidator(resultList);
+            ArgumentTruthTreeValidator validator = new ArgumentTruthTreeValidator(resultList, context);
             System.out.println("Deductively valid: " + validator.isValid());
             NaturalDeductionAlgorithm ndValidator = null;
             if (resultList.get(0).isPropositionalWff()) {
                 System.out.println("PL Natural Deduction:");
-                ndValidator = new PropositionalNaturalDeductionValidator(resultList, ProofType.DIRECT);
+                ndValidator = new PropositionalNaturalDeductionValidator(resultList, ProofType.DIRECT, context);
             } else if (resultList.get(0).isPredicateWff()) {
                 System.out.println("FOPL Natural Deduction:");
-                ndValidator = new PredicateNaturalDeductionValidator(resultList, ProofType.DIRECT);
+                ndValidator = new PredicateNaturalDeductionValidator(resultList, ProofType.DIRECT, context);
             }
 
             // Natural deduction prover.
@@ -106,9 +108,12 @@ public class ParserTest {
      * @param input an initialized CharStream
      */
     private static NDTPParserListener parseStream(CharStream input) {
+        // Each parse gets its own context so that errors do not carry over between files.
+        ProverContext context = new ProverContext();
+
         // "input" is the character-by-character input - connect to lexer
         NDTPLexer lexer = new NDTPLexer(input);
-        NDTPErrorListener errorListener = new NDTPErrorListener();
+        NDTPErrorListener errorListener = context.getErrorListener();
         lexer.removeErrorListeners();
         lexer.addErrorListener(errorListener);
 
@@ -123,7 +128,7 @@ public class ParserTest {
 
         // Now do the parsing, and walk the parse tree with our listeners
         ParseTreeWalker walker = new ParseTreeWalker();
-        NDTPParserListener compiler = new NDTPParserListener(parser);
+        NDTPParserListener compiler = new NDTPParserListener(parser, context);
         walker.walk(compiler, tree);
 
         return compiler;
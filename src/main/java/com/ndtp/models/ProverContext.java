@@ -0,0 +1,189 @@
+package com.ndtp.models;
+
+import com.ndtp.input.NDTPErrorListener;
+import com.ndtp.models.treenode.*;
+import com.ndtp.tools.TreeWalker;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+
+/**
+ * Holds the mutable state of one prover session: the truth tree node identifiers, the
+ * operator notation that generated nodes should use, the parser's errors and warnings,
+ * and the interner (with its symbol table) that the session's formulas are shared through.
+ * <p>
+ * This state used to live in static fields, so two proofs could not run at the same time.
+ * A ProverContext is passed through parsing, truth tree generation, and natural deduction
+ * instead; proofs with different contexts are independent and may run on different threads,
+ * even on the same input wffs: the validators and generators intern their input into the
+ * context first, and interning only reads the wffs that it is given. A single context is not
+ * thread-safe, so it should only be used by one proof at a time.
+ * </p>
+ */
+public final class ProverContext {
+
+    /**
+     * Errors and warnings generated while parsing.
+     */
+    private final NDTPErrorListener errorListener;
+
+    /**
+     * Shares structurally identical formulas within this session.
+     */
+    private final WffTreeInterner interner;
+
+    /**
+     * Symbol most recently used by the input for each operator. Generated operator nodes use
+     * the same symbol so that the notation stays consistent, e.g., no "~ not A".
+     */
+    private final EnumMap<NodeType, String> operatorSymbols;
+
+    /**
+     * Dense ids of the atoms, predicates, and identities seen by the current truth tree, in the
+     * order they were first seen.
+     */
+    private final HashMap<AlphaKey, Integer> literalIds;
+
+    /**
+     * Identifier of the last truth tree node that was created.
+     */
+    private int identityCount;
+
+    public ProverContext(WffTreeInterner _interner) {
+        this.errorListener = new NDTPErrorListener();
+        this.interner = _interner;
+        this.operatorSymbols = new EnumMap<>(NodeType.class);
+        this.literalIds = new HashMap<>();
+        this.identityCount = 0;
+    }
+
+    public ProverContext() {
+        this(new WffTreeInterner());
+    }
+
+    /**
+     * @return identifier for a new truth tree node.
+     */
+    public int nextIdentifier() {
+        return ++this.identityCount;
+    }
+
+    /**
+     * Restarts the truth tree node identifiers. Called whenever a new truth tree is generated.
+     */
+    public void resetIdentifiers() {
+        this.identityCount = 0;
+    }
+
+    /**
+     * Forgets the literal ids, so that the next tree or search hands them out from 0 again and
+     * they stay dense enough for the bitmasks of BranchLiterals. Called whenever a new truth
+     * tree is generated or searched; ids must not be kept across that.
+     */
+    public void resetLiteralIds() {
+        this.literalIds.clear();
+    }
+
+    /**
+     * Returns the id of an atom, predicate, or identity. Literals that are stringEquals get the
+     * same id (an identity and its reversed form included), and ids are handed out from 0 up,
+     * so they can index a bitmask.
+     *
+     * @param _literal - atom, predicate, or identity.
+     * @return id of the literal in this context.
+     */
+    public int getLiteralId(WffTree _literal) {
+        if (!_literal.isAtom() && !_literal.isPredicate() && !_literal.isIdentity()) {
+            throw new IllegalArgumentException("Expected an atom, predicate, or identity but got " + _literal.getNodeType());
+        }
+
+        AlphaKey key = _literal.getAlphaKey();
+        Integer id = this.literalIds.get(key);
+        if (id == null) {
+            id = this.literalIds.size();
+            this.literalIds.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Records the operator symbols that a wff uses. The wff is walked in the order the parser
+     * creates its nodes, so the last symbol seen for each operator is the one that sticks.
+     *
+     * @param _tree - wff to read the notation from.
+     */
+    public void recordNotation(WffTree _tree) {
+        WffTree.getWalker().walk(_tree, new TreeWalker.Visitor<WffTree>() {
+            @Override
+            public boolean enter(WffTree _node, int _index, int _depth) {
+                switch (_node.getNodeType()) {
+                    case AND:
+                    case OR:
+                    case IMP:
+                    case BICOND:
+                    case XOR:
+                    case NEG:
+                        ProverContext.this.operatorSymbols.put(_node.getNodeType(), _node.getSymbol());
+                        break;
+                    default:
+                        break;
+                }
+                return true;
+            }
+
+            @Override
+            public void exit(WffTree _node, int _index, int _depth) {
+            }
+        });
+    }
+
+    /**
+     * @param _nodeType - type of operator.
+     * @return symbol that the input last used for the operator, or null if it was never used.
+     */
+    public String getOperatorSymbol(NodeType _nodeType) {
+        return this.operatorSymbols.get(_nodeType);
+    }
+
+    public NegNode createNegNode() {
+        String symbol = this.getOperatorSymbol(NodeType.NEG);
+        return symbol == null ? new NegNode() : new NegNode(symbol);
+    }
+
+    public AndNode createAndNode() {
+        String symbol = this.getOperatorSymbol(NodeType.AND);
+        return symbol == null ? new AndNode() : new AndNode(symbol);
+    }
+
+    public OrNode createOrNode() {
+        String symbol = this.getOperatorSymbol(NodeType.OR);
+        return symbol == null ? new OrNode() : new OrNode(symbol);
+    }
+
+    public ImpNode createImpNode() {
+        String symbol = this.getOperatorSymbol(NodeType.IMP);
+        return symbol == null ? new ImpNode() : new ImpNode(symbol);
+    }
+
+    public BicondNode createBicondNode() {
+        String symbol = this.getOperatorSymbol(NodeType.BICOND);
+        return symbol == null ? new BicondNode() : new BicondNode(symbol);
+    }
+
+    public ExclusiveOrNode createExclusiveOrNode() {
+        String symbol = this.getOperatorSymbol(NodeType.XOR);
+        return symbol == null ? new ExclusiveOrNode() : new ExclusiveOrNode(symbol);
+    }
+
+    public NDTPErrorListener getErrorListener() {
+        return this.errorListener;
+    }
+
+    public WffTreeInterner getInterner() {
+        return this.interner;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return this.interner.getSymbolTable();
+    }
+}
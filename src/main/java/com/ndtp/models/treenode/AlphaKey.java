@@ -0,0 +1,40 @@
+package com.ndtp.models.treenode;
+
+import java.util.Arrays;
+
+/**
+ * Hash key for a wff up to notation and the renaming of bound variables. Two keys are equal
+ * exactly when their wffs are alphaEquals, so maps keyed by AlphaKey treat (∀x)Px and (∀y)Py
+ * as the same entry.
+ */
+public final class AlphaKey {
+
+    /**
+     * Alpha encoding of the wff; shared with the WffTree it came from.
+     */
+    private final int[] encoding;
+
+    private final int hash;
+
+    AlphaKey(int[] _encoding) {
+        this.encoding = _encoding;
+        this.hash = Arrays.hashCode(_encoding);
+    }
+
+    @Override
+    public boolean equals(Object _obj) {
+        if (this == _obj) {
+            return true;
+        }
+        if (!(_obj instanceof AlphaKey)) {
+            return false;
+        }
+        AlphaKey o = (AlphaKey) _obj;
+        return this.hash == o.hash && Arrays.equals(this.encoding, o.encoding);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+}
@@ -18,7 +18,7 @@ public class AtomNode extends WffTree {
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         AtomNode atomNode = new AtomNode(this.ATOM_SYMBOL);
         atomNode.setFlags(this.getFlags());
         return atomNode;
@@ -29,7 +29,7 @@ public class AtomNode extends WffTree {
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         return this.getSymbol();
     }
 
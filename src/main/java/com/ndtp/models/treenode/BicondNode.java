@@ -18,35 +18,23 @@ public class BicondNode extends WffTree {
      */
     private static final String DEFAULT_TEX_SYMBOL = "\\varliff";
 
-    /**
-     * Keeps track of the symbol currently used. Whatever symbol is last used
-     * is stored in this variable. This makes sure that, if the notation from
-     * the user is consistent, there are no incidents like "~ not A" to represent
-     * a double-negated atom.
-     */
-    private static String currentlyUsedSymbol;
-
     public BicondNode(String _symbol) {
         super(_symbol, NodeType.BICOND);
-        currentlyUsedSymbol = _symbol;
     }
 
     public BicondNode() {
-        this(currentlyUsedSymbol == null ? DEFAULT_SYMBOL : currentlyUsedSymbol);
+        this(DEFAULT_SYMBOL);
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         BicondNode bicondNode = new BicondNode(this.getSymbol());
         bicondNode.setFlags(this.getFlags());
-        for (WffTree ch : this.getChildren()) {
-            bicondNode.addChild(ch.copy());
-        }
         return bicondNode;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         WffTree ch1 = this.getChild(0);
         WffTree ch2 = this.getChild(1);
 
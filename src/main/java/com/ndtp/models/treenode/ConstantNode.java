@@ -12,14 +12,14 @@ public class ConstantNode extends WffTree {
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         ConstantNode constantNode = new ConstantNode(this.getSymbol());
         constantNode.setFlags(this.getFlags());
         return constantNode;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         return this.getSymbol();
     }
 
@@ -3,9 +3,10 @@ package com.ndtp.models.treenode;
 public interface Copyable {
 
     /**
-     * Adds support for deep copying of a WffTree. Each node in the AST should override/implement this
-     * method. The idea is to create a copy of the data, then deep copy all of that node's children,
-     * where the base case is generally the atoms, constants, and predicates. The flags are also copied.
+     * Adds support for deep copying of a WffTree. Each node in the AST provides a shallowCopy of its own
+     * data, then WffTree deep copies all of that node's children, where the base case is generally the
+     * atoms, constants, and predicates. The flags are also copied. Interned nodes are immutable, so
+     * they are returned as-is.
      *
      * @return new copy of the WffTree.
      */
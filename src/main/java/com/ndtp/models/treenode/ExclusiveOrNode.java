@@ -16,35 +16,23 @@ public class ExclusiveOrNode extends WffTree {
      */
     private static final String DEFAULT_TEX_SYMBOL = "\\oplus";
 
-    /**
-     * Keeps track of the symbol currently used. Whatever symbol is last used
-     * is stored in this variable. This makes sure that, if the notation from
-     * the user is consistent, there are no incidents like "~ not A" to represent
-     * a double-negated atom.
-     */
-    private static String currentlyUsedSymbol;
-
     public ExclusiveOrNode(String _symbol) {
         super(_symbol, NodeType.XOR);
-        currentlyUsedSymbol = _symbol;
     }
 
     public ExclusiveOrNode() {
-        this(currentlyUsedSymbol == null ? DEFAULT_SYMBOL : currentlyUsedSymbol);
+        this(DEFAULT_SYMBOL);
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         ExclusiveOrNode xor = new ExclusiveOrNode(this.getSymbol());
         xor.setFlags(this.getFlags());
-        for (WffTree ch : this.getChildren()) {
-            xor.addChild(ch.copy());
-        }
         return xor;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         WffTree ch1 = this.getChild(0);
         WffTree ch2 = this.getChild(1);
 
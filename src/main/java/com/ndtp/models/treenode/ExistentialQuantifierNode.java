@@ -30,18 +30,14 @@ public class ExistentialQuantifierNode extends QuantifierNode {
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         ExistentialQuantifierNode existentialCopy = new ExistentialQuantifierNode(this.getSymbol(), this.getVariableSymbol());
         existentialCopy.setFlags(this.getFlags());
-        for (WffTree ch : this.getChildren()) {
-            existentialCopy.addChild(ch.copy());
-        }
-
         return existentialCopy;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         WffTree ch1 = this.getChild(0);
         return this.getSymbol() + ch1.getStringRep();
     }
@@ -22,14 +22,14 @@ public class FalseNode extends WffTree {
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         FalseNode falseNode = new FalseNode();
         falseNode.setFlags(this.getFlags());
         return falseNode;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         return this.getSymbol();
     }
 
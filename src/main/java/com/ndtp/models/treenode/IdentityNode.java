@@ -22,17 +22,14 @@ public class IdentityNode extends WffTree {
     }
 
     @Override
-    public IdentityNode copy() {
+    public IdentityNode shallowCopy() {
         IdentityNode identity = new IdentityNode();
         identity.setFlags(this.getFlags());
-        for (WffTree ch : this.getChildren()) {
-            identity.addChild(ch.copy());
-        }
         return identity;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         return this.getChild(0).getStringRep() + " " + this.getSymbol() + " " + this.getChild(1).getStringRep();
     }
 
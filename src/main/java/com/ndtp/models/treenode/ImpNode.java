@@ -16,35 +16,23 @@ public class ImpNode extends WffTree {
      */
     private static final String DEFAULT_TEX_SYMBOL = "\\to";
 
-    /**
-     * Keeps track of the symbol currently used. Whatever symbol is last used
-     * is stored in this variable. This makes sure that, if the notation from
-     * the user is consistent, there are no incidents like "~ not A" to represent
-     * a double-negated atom.
-     */
-    private static String currentlyUsedSymbol;
-
     public ImpNode(String _symbol) {
         super(_symbol, NodeType.IMP);
-        currentlyUsedSymbol = _symbol;
     }
 
     public ImpNode() {
-        this(currentlyUsedSymbol == null ? DEFAULT_SYMBOL : currentlyUsedSymbol);
+        this(DEFAULT_SYMBOL);
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         ImpNode impNode = new ImpNode(this.getSymbol());
         impNode.setFlags(this.getFlags());
-        for (WffTree ch : this.getChildren()) {
-            impNode.addChild(ch.copy());
-        }
         return impNode;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         WffTree ch1 = this.getChild(0);
         WffTree ch2 = this.getChild(1);
 
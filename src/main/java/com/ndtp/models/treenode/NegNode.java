@@ -9,7 +9,7 @@ public class NegNode extends WffTree {
      * Uses the tilde (~) as the default symbol if none is provided.
      * This should, ideally, only happen in internal algorithms.
      */
-    private static final String DEFAULT_SYMBOL = "~";
+    static final String DEFAULT_SYMBOL = "~";
 
     /**
      * The default TeX symbol is the tilde, but because it is difficult
@@ -17,35 +17,23 @@ public class NegNode extends WffTree {
      */
     private static final String DEFAULT_TEX_SYMBOL = "\\varlnot";
 
-    /**
-     * Keeps track of the symbol currently used. Whatever symbol is last used
-     * is stored in this variable. This makes sure that, if the notation from
-     * the user is consistent, there are no incidents like "~ not A" to represent
-     * a double-negated atom.
-     */
-    private static String currentlyUsedSymbol;
-
     public NegNode(String _symbol) {
         super(_symbol, NodeType.NEG);
-        currentlyUsedSymbol = _symbol;
     }
 
     public NegNode() {
-        this(currentlyUsedSymbol == null ? DEFAULT_SYMBOL : currentlyUsedSymbol);
+        this(DEFAULT_SYMBOL);
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         NegNode negNode = new NegNode(this.getSymbol());
         negNode.setFlags(this.getFlags());
-        for (WffTree ch : this.getChildren()) {
-            negNode.addChild(ch.copy());
-        }
         return negNode;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         WffTree ch1 = this.getChild(0);
         // If there's the literal word, then we want to return a space between.
         if (this.getSymbol().equalsIgnoreCase("not")) {
@@ -26,12 +26,7 @@ public class NodeFlag {
     public static final int CLOSED = 0x00010000;
 
     /**
-     *
-     */
-    public static final int STOP_CLOSE_CHECK = 0x00100000;
-
-    /**
-     *
+     * Set on a truth tree node once its wff has been developed.
      */
-    public static final int HIGHLIGHT = 0x01000000;
+    public static final int DEVELOPED = 0x00100000;
 }
@@ -16,46 +16,41 @@ public class OrNode extends WffTree {
      */
     private static final String DEFAULT_TEX_SYMBOL = "\\lor";
 
-    /**
-     * Keeps track of the symbol currently used. Whatever symbol is last used
-     * is stored in this variable. This makes sure that, if the notation from
-     * the user is consistent, there are no incidents like "~ not A" to represent
-     * a double-negated atom.
-     */
-    private static String currentlyUsedSymbol;
-
     public OrNode(String _symbol) {
         super(_symbol, NodeType.OR);
-        currentlyUsedSymbol = _symbol;
     }
 
     public OrNode() {
-        this(currentlyUsedSymbol == null ? DEFAULT_SYMBOL : currentlyUsedSymbol);
+        this(DEFAULT_SYMBOL);
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         OrNode or = new OrNode(this.getSymbol());
-        for (WffTree ch : this.getChildren()) {
-            or.addChild(ch.copy());
-        }
+        or.setFlags(this.getFlags());
         return or;
     }
 
+    /**
+     * Nodes from the negation normal form pass may have more than two operands; each
+     * operand after the first is preceded by the symbol.
+     */
     @Override
-    public String getStringRep() {
-        WffTree ch1 = this.getChild(0);
-        WffTree ch2 = this.getChild(1);
-
-        return "(" + ch1.getStringRep() + " " + this.getSymbol() + " " + ch2.getStringRep() + ")";
+    protected String buildStringRep() {
+        StringBuilder sb = new StringBuilder("(").append(this.getChild(0).getStringRep());
+        for (int i = 1; i < this.getChildrenSize(); i++) {
+            sb.append(" ").append(this.getSymbol()).append(" ").append(this.getChild(i).getStringRep());
+        }
+        return sb.append(")").toString();
     }
 
     @Override
     public String getTexCommand() {
-        WffTree ch1 = this.getChild(0);
-        WffTree ch2 = this.getChild(1);
-
-        return "(" + ch1.getTexCommand() + " " + DEFAULT_TEX_SYMBOL + " " + ch2.getTexCommand() + ")";
+        StringBuilder sb = new StringBuilder("(").append(this.getChild(0).getTexCommand());
+        for (int i = 1; i < this.getChildrenSize(); i++) {
+            sb.append(" ").append(DEFAULT_TEX_SYMBOL).append(" ").append(this.getChild(i).getTexCommand());
+        }
+        return sb.append(")").toString();
     }
 
     @Override
@@ -0,0 +1,360 @@
+package com.ndtp.models.treenode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Flat, immutable encoding of a WffTree. Nodes are stored in postfix order in a single int[],
+ * three ints per node:
+ * <p>
+ * [i * 3]     - opcode: the NodeType ordinal (bits 0-7) and the number of children (bits 8-31).
+ * [i * 3 + 1] - id of the node's symbol in the symbol pool, or -1 if it has none.
+ * [i * 3 + 2] - id of the quantified variable for quantifiers, and -1 for everything else.
+ * <p>
+ * Because the order is postfix, the root is the last node, and the children of node i are
+ * contiguous and directly precede it. The subtree offsets record the index of the first node
+ * in each node's subtree, so the last child of i is i - 1, the child before it ends at
+ * getSubtreeStart(i - 1) - 1, and so on. Walking a formula is then a scan over two int arrays
+ * instead of chasing child lists.
+ * <p>
+ * The conversion is lossless: symbols (including operator aliases), quantified variables, and
+ * flags are all kept, so unpacking yields a tree with the same string representation.
+ */
+public final class PackedWff {
+
+    /**
+     * Number of ints stored per node in the code array.
+     */
+    private static final int STRIDE = 3;
+
+    /**
+     * Cached copy of NodeType.values() since it allocates on each call.
+     */
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+
+    /**
+     * Opcodes and symbol ids in postfix order.
+     */
+    private final int[] code;
+
+    /**
+     * For each node, the index of the first node in its subtree.
+     */
+    private final int[] subtreeStart;
+
+    /**
+     * Flags of each node, or null if no node has any flags set.
+     */
+    private final int[] flags;
+
+    /**
+     * Distinct symbols referenced by the code array.
+     */
+    private final String[] symbols;
+
+    public PackedWff(WffTree _tree) {
+        if (_tree == null) {
+            throw new IllegalArgumentException("Cannot pack a null WffTree.");
+        }
+
+        int size = PackedWff.countNodes(_tree);
+        this.code = new int[size * STRIDE];
+        this.subtreeStart = new int[size];
+        int[] nodeFlags = new int[size];
+        boolean hasFlags = false;
+
+        HashMap<String, Integer> symbolIds = new HashMap<>();
+        ArrayList<String> symbolList = new ArrayList<>();
+
+        // Iterative postfix traversal: a node is emitted once all of its children have been.
+        // The stacks are parallel arrays, like in TreeWalker, so that no ints are boxed.
+        WffTree[] nodeStack = new WffTree[16];
+        int[] childStack = new int[16];
+        int[] startStack = new int[16];
+        int top = 0;
+        nodeStack[0] = _tree;
+        int pos = 0;
+
+        while (top >= 0) {
+            WffTree node = nodeStack[top];
+            int nextChild = childStack[top];
+            if (nextChild < node.getChildrenSize()) {
+                childStack[top] = nextChild + 1;
+                if (++top == nodeStack.length) {
+                    nodeStack = Arrays.copyOf(nodeStack, top * 2);
+                    childStack = Arrays.copyOf(childStack, top * 2);
+                    startStack = Arrays.copyOf(startStack, top * 2);
+                }
+                nodeStack[top] = node.getChild(nextChild);
+                childStack[top] = 0;
+                startStack[top] = pos;
+                continue;
+            }
+
+            int base = pos * STRIDE;
+            this.code[base] = node.getNodeType().ordinal() | (node.getChildrenSize() << 8);
+            this.code[base + 1] = PackedWff.getSymbolId(node.getSymbol(), symbolIds, symbolList);
+            this.code[base + 2] = node instanceof QuantifierNode
+                    ? PackedWff.getSymbolId(((QuantifierNode) node).getVariableSymbol(), symbolIds, symbolList)
+                    : -1;
+            this.subtreeStart[pos] = startStack[top];
+            nodeFlags[pos] = node.getFlags();
+            hasFlags |= nodeFlags[pos] != 0;
+            nodeStack[top--] = null;
+            pos++;
+        }
+
+        this.flags = hasFlags ? nodeFlags : null;
+        this.symbols = symbolList.toArray(new String[0]);
+    }
+
+    /**
+     * Rebuilds the WffTree that this PackedWff encodes. Since the nodes are in postfix order,
+     * this is a single pass with a stack of finished subtrees.
+     *
+     * @return new WffTree equivalent to the one that was packed.
+     */
+    public WffTree toWffTree() {
+        // The children of a node are the top childCount entries of the stack, in order.
+        WffTree[] stack = new WffTree[this.size()];
+        int top = 0;
+        for (int i = 0; i < this.size(); i++) {
+            int childCount = this.getChildCount(i);
+            top -= childCount;
+            WffTree node = this.createNode(i, stack, top, childCount);
+            if (this.flags != null && this.flags[i] != 0) {
+                node.setFlags(this.flags[i]);
+            }
+            Arrays.fill(stack, top, top + childCount, null);
+            stack[top++] = node;
+        }
+        return stack[0];
+    }
+
+    /**
+     * @return number of nodes in the packed formula.
+     */
+    public int size() {
+        return this.subtreeStart.length;
+    }
+
+    /**
+     * @return index of the root node, which is always the last node.
+     */
+    public int getRootIndex() {
+        return this.size() - 1;
+    }
+
+    public NodeType getNodeType(int _index) {
+        return NODE_TYPES[this.code[_index * STRIDE] & 0xFF];
+    }
+
+    public int getChildCount(int _index) {
+        return this.code[_index * STRIDE] >>> 8;
+    }
+
+    public String getSymbol(int _index) {
+        int id = this.code[_index * STRIDE + 1];
+        return id < 0 ? null : this.symbols[id];
+    }
+
+    /**
+     * Returns the symbol id of a node. Ids are only meaningful within this PackedWff, but
+     * comparing two of them is an int comparison.
+     *
+     * @param _index - index of node.
+     * @return symbol id of the node, or -1 if it has no symbol.
+     */
+    public int getSymbolId(int _index) {
+        return this.code[_index * STRIDE + 1];
+    }
+
+    /**
+     * @param _index - index of a quantifier node.
+     * @return variable bound by the quantifier, or null if the node is not a quantifier.
+     */
+    public String getVariableSymbol(int _index) {
+        int id = this.code[_index * STRIDE + 2];
+        return id < 0 ? null : this.symbols[id];
+    }
+
+    public int getFlags(int _index) {
+        return this.flags == null ? 0 : this.flags[_index];
+    }
+
+    /**
+     * @param _index - index of node.
+     * @return index of the first node in the subtree rooted at _index.
+     */
+    public int getSubtreeStart(int _index) {
+        return this.subtreeStart[_index];
+    }
+
+    /**
+     * @param _index - index of node.
+     * @return number of nodes in the subtree rooted at _index.
+     */
+    public int getSubtreeSize(int _index) {
+        return _index - this.subtreeStart[_index] + 1;
+    }
+
+    /**
+     * Returns the index of the i-th child of a node. Children are walked from the last one
+     * backwards, so this is O(number of children).
+     *
+     * @param _index - index of parent node.
+     * @param _child - which child to return, starting from 0.
+     * @return index of the child node.
+     * @throws IndexOutOfBoundsException if the node does not have that child.
+     */
+    public int getChildIndex(int _index, int _child) {
+        int childCount = this.getChildCount(_index);
+        if (_child < 0 || _child >= childCount) {
+            throw new IndexOutOfBoundsException("Child " + _child + " out of bounds for node with " + childCount + " children.");
+        }
+
+        int curr = _index - 1;
+        for (int c = childCount - 1; c > _child; c--) {
+            curr = this.subtreeStart[curr] - 1;
+        }
+        return curr;
+    }
+
+    @Override
+    public boolean equals(Object _obj) {
+        if (this == _obj) {
+            return true;
+        }
+        if (!(_obj instanceof PackedWff)) {
+            return false;
+        }
+
+        PackedWff o = (PackedWff) _obj;
+        if (!Arrays.equals(this.subtreeStart, o.subtreeStart) || !Arrays.equals(this.flags, o.flags)) {
+            return false;
+        }
+        // Symbol ids are local to each PackedWff, so compare the symbols they refer to.
+        for (int i = 0; i < this.code.length; i += STRIDE) {
+            if (this.code[i] != o.code[i]
+                    || !this.symbolEquals(this.code[i + 1], o, o.code[i + 1])
+                    || !this.symbolEquals(this.code[i + 2], o, o.code[i + 2])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = Arrays.hashCode(this.subtreeStart);
+        for (int i = 0; i < this.code.length; i += STRIDE) {
+            h = 31 * h + this.code[i];
+            h = 31 * h + (this.code[i + 1] < 0 ? 0 : this.symbols[this.code[i + 1]].hashCode());
+        }
+        return h;
+    }
+
+    private boolean symbolEquals(int _id, PackedWff _other, int _otherId) {
+        if (_id < 0 || _otherId < 0) {
+            return _id == _otherId;
+        }
+        return this.symbols[_id].equals(_other.symbols[_otherId]);
+    }
+
+    /**
+     * Creates the node at the given index with its (already rebuilt) children.
+     *
+     * @param _index      - index of node to create.
+     * @param _children   - array that holds the children of the node, in order.
+     * @param _first      - position of the first child in _children.
+     * @param _childCount - number of children.
+     * @return new WffTree node.
+     */
+    private WffTree createNode(int _index, WffTree[] _children, int _first, int _childCount) {
+        WffTree node = PackedWff.createNode(this.getNodeType(_index), this.getSymbol(_index), this.getVariableSymbol(_index));
+        for (int c = 0; c < _childCount; c++) {
+            node.addChild(_children[_first + c]);
+        }
+        return node;
+    }
+
+    /**
+     * Creates a node without children. Shared with WffCorpus, which stores formulas the same way.
+     *
+     * @param _nodeType       - type of node to create.
+     * @param _symbol         - symbol of the node.
+     * @param _variableSymbol - quantified variable, for quantifiers.
+     * @return new WffTree node.
+     */
+    static WffTree createNode(NodeType _nodeType, String _symbol, String _variableSymbol) {
+        switch (_nodeType) {
+            case AND:
+                return new AndNode(_symbol);
+            case OR:
+                return new OrNode(_symbol);
+            case IMP:
+                return new ImpNode(_symbol);
+            case BICOND:
+                return new BicondNode(_symbol);
+            case XOR:
+                return new ExclusiveOrNode(_symbol);
+            case NEG:
+                return new NegNode(_symbol);
+            case ATOM:
+                return new AtomNode(_symbol);
+            case CONSTANT:
+                return new ConstantNode(_symbol);
+            case VARIABLE:
+                return new VariableNode(_symbol);
+            case EXISTENTIAL:
+                return new ExistentialQuantifierNode(_symbol, _variableSymbol);
+            case UNIVERSAL:
+                return new UniversalQuantifierNode(_symbol, _variableSymbol);
+            case IDENTITY:
+                return new IdentityNode();
+            case TRUTH:
+                return new TruthNode();
+            case FALSE:
+                return new FalseNode();
+            case PREDICATE:
+                // The parameters of a predicate are its children, which the caller adds.
+                return new PredicateNode(_symbol);
+            default:
+                return new WffTree(_symbol, NodeType.ROOT);
+        }
+    }
+
+    private static int getSymbolId(String _symbol, HashMap<String, Integer> _symbolIds, ArrayList<String> _symbolList) {
+        if (_symbol == null) {
+            return -1;
+        }
+
+        Integer id = _symbolIds.get(_symbol);
+        if (id == null) {
+            id = _symbolList.size();
+            _symbolIds.put(_symbol, id);
+            _symbolList.add(_symbol);
+        }
+        return id;
+    }
+
+    private static int countNodes(WffTree _tree) {
+        int count = 0;
+        WffTree[] stack = new WffTree[16];
+        int top = 0;
+        stack[0] = _tree;
+        while (top >= 0) {
+            WffTree node = stack[top];
+            stack[top--] = null;
+            count++;
+            if (top + 1 + node.getChildrenSize() > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + 1 + node.getChildrenSize()));
+            }
+            for (int i = 0; i < node.getChildrenSize(); i++) {
+                stack[++top] = node.getChild(i);
+            }
+        }
+        return count;
+    }
+}
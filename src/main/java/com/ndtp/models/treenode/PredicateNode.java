@@ -15,16 +15,14 @@ public class PredicateNode extends WffTree {
     private final String PREDICATE_LETTER;
 
     /**
-     * WffTree children for this predicate node - each child should be a constant or variable node.
+     * The parameters are stored as the children of this node - each child should be a
+     * constant or variable node.
      */
-    private final ArrayList<WffTree> PARAMS;
-
     public PredicateNode(String _predicateLetter, ArrayList<WffTree> _params) {
         super(_predicateLetter, NodeType.PREDICATE);
         this.PREDICATE_LETTER = _predicateLetter;
-        this.PARAMS = _params;
 
-        for (WffTree tree : this.PARAMS) {
+        for (WffTree tree : _params) {
             if (tree != null) {
                 super.addChild(tree);
             }
@@ -34,25 +32,20 @@ public class PredicateNode extends WffTree {
     public PredicateNode(String _predicateLetter) {
         super(_predicateLetter, NodeType.PREDICATE);
         this.PREDICATE_LETTER = _predicateLetter;
-        this.PARAMS = new ArrayList<>();
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         PredicateNode predicateCopy = new PredicateNode(this.PREDICATE_LETTER);
         predicateCopy.setFlags(this.getFlags());
-        for (WffTree ch : this.getChildren()) {
-            predicateCopy.addChild(ch.copy());
-        }
-
         return predicateCopy;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         StringBuilder sb = new StringBuilder(this.PREDICATE_LETTER);
-        for (WffTree ch : this.getChildren()) {
-            sb.append(ch.getStringRep());
+        for (int i = 0; i < this.getChildrenSize(); i++) {
+            sb.append(this.getChild(i).getStringRep());
         }
         return sb.toString();
     }
@@ -60,8 +53,8 @@ public class PredicateNode extends WffTree {
     @Override
     public String getTexCommand() {
         StringBuilder sb = new StringBuilder(TexPrinter.removeMathMode(this.PREDICATE_LETTER));
-        for (WffTree ch : this.getChildren()) {
-            sb.append(ch.getTexCommand());
+        for (int i = 0; i < this.getChildrenSize(); i++) {
+            sb.append(this.getChild(i).getTexCommand());
         }
         return sb.toString();
     }
@@ -76,11 +69,11 @@ public class PredicateNode extends WffTree {
     }
 
     public ArrayList<WffTree> getParameters() {
-        return this.PARAMS;
+        return this.getChildren();
     }
 
     public int getArity() {
-        return this.PARAMS.size();
+        return this.getChildrenSize();
     }
 
     @Override
@@ -26,9 +26,19 @@ public abstract class QuantifierNode extends WffTree {
     }
 
     public void setVariableSymbol(String _s) {
+        this.checkMutable();
+        this.checkNotCachedInParent();
+        this.invalidateCaches();
         this.variableSymbol = _s;
     }
 
+    /**
+     * @return SymbolTable id of the quantified variable.
+     */
+    public int getVariableSymbolId() {
+        return SymbolTable.getCharacterId(this.variableSymbol);
+    }
+
     public char getVariableSymbolChar() {
         return this.variableSymbol.charAt(0);
     }
@@ -0,0 +1,220 @@
+package com.ndtp.models.treenode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Maps the symbols of atoms, constants, variables, and predicate letters to small int ids, and
+ * hands out shared leaf nodes for them.
+ * <p>
+ * The grammar only allows single-character symbols for terms, so the id of a one-character
+ * symbol is the character itself; no lookup is needed, and ids agree across tables. Any longer
+ * symbol (in practice an operator notation, which WffCorpus stores) is registered with the table
+ * and given an id from the Unicode private-use range, which never appears in the input. Either
+ * way, ids fit in 16 bits and comparing two symbols is an int comparison.
+ * </p>
+ * Each SymbolTable instance also caches one immutable ConstantNode, VariableNode, and AtomNode
+ * per id, so substitutions can reuse the same leaf instead of allocating a new one each time.
+ * The leaves belong to the WffTreeInterner that owns the table. Like the interner, an instance
+ * is meant for one session and is not thread-safe.
+ */
+public final class SymbolTable {
+
+    /**
+     * Id used for nodes that have no symbol.
+     */
+    public static final int NO_SYMBOL = -1;
+
+    /**
+     * First id handed out to symbols longer than one character.
+     */
+    private static final int FIRST_REGISTERED_ID = 0xE000;
+
+    /**
+     * Last id that can be handed out to symbols longer than one character.
+     */
+    private static final int LAST_REGISTERED_ID = 0xF8FF;
+
+    /**
+     * Number of ids that get array slots in the leaf caches; this covers all the letters.
+     */
+    private static final int CACHE_SIZE = 128;
+
+    private final WffTree[] constants;
+
+    private final WffTree[] variables;
+
+    private final WffTree[] atoms;
+
+    /**
+     * Leaves whose ids do not fit in the arrays above, keyed by node type and id.
+     */
+    private final HashMap<Long, WffTree> otherLeaves;
+
+    /**
+     * Ids of the multi-character symbols registered with this table.
+     */
+    private final HashMap<String, Integer> registeredIds;
+
+    /**
+     * Registered multi-character symbols, indexed by id - FIRST_REGISTERED_ID.
+     */
+    private final ArrayList<String> registeredSymbols;
+
+    /**
+     * Interner that the shared leaves belong to.
+     */
+    private final WffTreeInterner interner;
+
+    /**
+     * Creates the symbol table of an interner; see WffTreeInterner.getSymbolTable.
+     *
+     * @param _interner - interner that owns the shared leaves.
+     */
+    SymbolTable(WffTreeInterner _interner) {
+        this.interner = _interner;
+        this.registeredIds = new HashMap<>();
+        this.registeredSymbols = new ArrayList<>();
+        this.constants = new WffTree[CACHE_SIZE];
+        this.variables = new WffTree[CACHE_SIZE];
+        this.atoms = new WffTree[CACHE_SIZE];
+        this.otherLeaves = new HashMap<>();
+    }
+
+    /**
+     * Returns the id of a symbol in this table. Letters (and any other single character) get
+     * the same id in every table; longer symbols, e.g., the alternative operator notations,
+     * are registered the first time that they are seen.
+     *
+     * @param _symbol - symbol to look up.
+     * @return int id of the symbol, or NO_SYMBOL if it is null or empty.
+     * @throws IllegalStateException if the table has run out of ids for longer symbols.
+     */
+    public int getSymbolId(String _symbol) {
+        if (_symbol == null || _symbol.length() <= 1) {
+            return SymbolTable.getCharacterId(_symbol);
+        }
+
+        Integer id = this.registeredIds.get(_symbol);
+        if (id == null) {
+            id = FIRST_REGISTERED_ID + this.registeredSymbols.size();
+            if (id > LAST_REGISTERED_ID) {
+                throw new IllegalStateException("Too many distinct multi-character symbols.");
+            }
+            this.registeredIds.put(_symbol, id);
+            this.registeredSymbols.add(_symbol);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the symbol that an id of this table stands for.
+     *
+     * @param _id - id of symbol.
+     * @return symbol for the id, or null if it is NO_SYMBOL.
+     * @throws IllegalArgumentException if _id is in the registered range but was not handed out by this table.
+     */
+    public String getSymbol(int _id) {
+        if (_id == NO_SYMBOL) {
+            return null;
+        } else if (_id < FIRST_REGISTERED_ID || _id > LAST_REGISTERED_ID) {
+            return String.valueOf((char) _id);
+        } else if (_id - FIRST_REGISTERED_ID >= this.registeredSymbols.size()) {
+            throw new IllegalArgumentException("Symbol id " + _id + " was not handed out by this table.");
+        }
+        return this.registeredSymbols.get(_id - FIRST_REGISTERED_ID);
+    }
+
+    /**
+     * Returns the id of a symbol of at most one character. This is the id that every table
+     * gives the symbol, so it needs no table; it is what WffTree.getSymbolId uses.
+     *
+     * @param _symbol - symbol to look up.
+     * @return the character itself, or NO_SYMBOL if the symbol is null or empty.
+     * @throws IllegalArgumentException if the symbol is longer than one character.
+     */
+    public static int getCharacterId(String _symbol) {
+        if (_symbol == null || _symbol.isEmpty()) {
+            return NO_SYMBOL;
+        } else if (_symbol.length() > 1) {
+            throw new IllegalArgumentException("Only single-character symbols have a table-independent id, not " + _symbol + ".");
+        }
+        return _symbol.charAt(0);
+    }
+
+    /**
+     * @param _id - id of the constant's symbol (for a letter, the letter itself).
+     * @return shared, immutable ConstantNode for the id.
+     */
+    public WffTree getConstant(int _id) {
+        return this.getLeaf(this.constants, NodeType.CONSTANT, _id);
+    }
+
+    /**
+     * @param _id - id of the variable's symbol (for a letter, the letter itself).
+     * @return shared, immutable VariableNode for the id.
+     */
+    public WffTree getVariable(int _id) {
+        return this.getLeaf(this.variables, NodeType.VARIABLE, _id);
+    }
+
+    /**
+     * @param _id - id of the atom's symbol (for a letter, the letter itself).
+     * @return shared, immutable AtomNode for the id.
+     */
+    public WffTree getAtom(int _id) {
+        return this.getLeaf(this.atoms, NodeType.ATOM, _id);
+    }
+
+    /**
+     * Returns the shared instance of a constant, variable, or atom leaf.
+     *
+     * @param _leaf - leaf node to look up.
+     * @return shared instance with the same type and symbol, or null if _leaf is not a
+     * constant, variable, or atom with a one-character symbol and without children and flags.
+     */
+    public WffTree getSharedLeaf(WffTree _leaf) {
+        if (_leaf.getChildrenSize() != 0 || _leaf.getFlags() != 0
+                || _leaf.getSymbol() == null || _leaf.getSymbol().length() != 1) {
+            return null;
+        }
+
+        switch (_leaf.getNodeType()) {
+            case CONSTANT:
+                return this.getConstant(_leaf.getSymbolId());
+            case VARIABLE:
+                return this.getVariable(_leaf.getSymbolId());
+            case ATOM:
+                return this.getAtom(_leaf.getSymbolId());
+            default:
+                return null;
+        }
+    }
+
+    private WffTree getLeaf(WffTree[] _cache, NodeType _nodeType, int _id) {
+        WffTree leaf = _id >= 0 && _id < CACHE_SIZE
+                ? _cache[_id]
+                : this.otherLeaves.get(((long) _nodeType.ordinal() << 32) | _id);
+        if (leaf == null) {
+            leaf = SymbolTable.createLeaf(_nodeType, this.getSymbol(_id));
+            leaf.setInterner(this.interner);
+            if (_id >= 0 && _id < CACHE_SIZE) {
+                _cache[_id] = leaf;
+            } else {
+                this.otherLeaves.put(((long) _nodeType.ordinal() << 32) | _id, leaf);
+            }
+        }
+        return leaf;
+    }
+
+    private static WffTree createLeaf(NodeType _nodeType, String _symbol) {
+        switch (_nodeType) {
+            case CONSTANT:
+                return new ConstantNode(_symbol);
+            case VARIABLE:
+                return new VariableNode(_symbol);
+            default:
+                return new AtomNode(_symbol);
+        }
+    }
+}
@@ -22,14 +22,14 @@ public class TruthNode extends WffTree {
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         TruthNode truthNode = new TruthNode();
         truthNode.setFlags(this.getFlags());
         return truthNode;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         return this.getSymbol();
     }
 
@@ -20,18 +20,14 @@ public class UniversalQuantifierNode extends QuantifierNode {
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         UniversalQuantifierNode universalCopy = new UniversalQuantifierNode(this.getSymbol(), this.getVariableSymbol());
         universalCopy.setFlags(this.getFlags());
-        for (WffTree ch : this.getChildren()) {
-            universalCopy.addChild(ch.copy());
-        }
-
         return universalCopy;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         WffTree ch1 = this.getChild(0);
         return this.getSymbol() + ch1.getStringRep();
     }
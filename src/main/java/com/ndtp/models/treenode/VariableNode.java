@@ -12,14 +12,14 @@ public class VariableNode extends WffTree {
     }
 
     @Override
-    public WffTree copy() {
+    public WffTree shallowCopy() {
         VariableNode variableNode = new VariableNode(this.getSymbol());
         variableNode.setFlags(this.getFlags());
         return variableNode;
     }
 
     @Override
-    public String getStringRep() {
+    protected String buildStringRep() {
         return this.getSymbol();
     }
 
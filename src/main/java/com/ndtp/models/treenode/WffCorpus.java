@@ -0,0 +1,446 @@
+package com.ndtp.models.treenode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Append-only store for a large number of formulas, kept off the Java heap. Each formula is
+ * written once into a direct ByteBuffer in a compact prefix encoding, so a corpus of millions
+ * of formulas costs the garbage collector a few chunk objects and three primitive arrays
+ * instead of millions of WffTree nodes. Only the formulas that an engine actually needs are
+ * turned back into WffTrees, with get.
+ * <p>
+ * An entry is a header (node count and root flags) followed by two ints per node, in prefix order:
+ * <p>
+ * [0] - NodeType ordinal (bits 24-31), number of children (bits 16-23), and the SymbolTable id
+ * of the node's symbol (bits 0-15, 0xFFFF if it has none).
+ * [1] - SymbolTable id of the quantified variable for quantifiers (bits 0-15), 0xFFFF otherwise.
+ * <p>
+ * Symbol ids come from the corpus's SymbolTable, so operator aliases round-trip as well; ids of
+ * multi-character symbols only mean something to that table. Only the root's flags are kept,
+ * since that is the only node the parser flags.
+ * </p>
+ * Entries are numbered from 0 in the order they are added. Lookups by id and the per-node
+ * accessors read the off-heap data in place and do not allocate, so scanning the corpus is a
+ * loop from 0 to size() - 1. indexOf and addIfAbsent deduplicate through an int hash table.
+ * Like the other session objects, a corpus is not thread-safe.
+ */
+public final class WffCorpus {
+
+    /**
+     * Default size of each off-heap chunk in bytes.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 24;
+
+    private static final int HEADER_INTS = 2;
+
+    private static final int INTS_PER_NODE = 2;
+
+    private static final int NO_ID = 0xFFFF;
+
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+
+    /**
+     * Off-heap chunks that hold the entries. An entry never spans two chunks.
+     */
+    private final ArrayList<ByteBuffer> chunks;
+
+    private final int chunkSize;
+
+    /**
+     * Table that the symbol ids of the entries come from.
+     */
+    private final SymbolTable symbolTable;
+
+    /**
+     * Location of each entry: chunk index in the high 32 bits, byte offset in the low 32 bits.
+     */
+    private long[] locations;
+
+    /**
+     * Structural hash of each entry.
+     */
+    private int[] hashes;
+
+    /**
+     * Open-addressing hash table of entry ids (-1 is empty), used by indexOf.
+     */
+    private int[] table;
+
+    private int size;
+
+    /**
+     * Scratch encoding of the formula being added or looked up.
+     */
+    private int[] scratch;
+
+    public WffCorpus(int _chunkSize, SymbolTable _symbolTable) {
+        if (_chunkSize < 64) {
+            throw new IllegalArgumentException("Chunk size must be at least 64 bytes, got " + _chunkSize + ".");
+        } else if (_symbolTable == null) {
+            throw new IllegalArgumentException("A corpus needs a SymbolTable.");
+        }
+        this.chunks = new ArrayList<>();
+        this.chunkSize = _chunkSize;
+        this.symbolTable = _symbolTable;
+        this.locations = new long[16];
+        this.hashes = new int[16];
+        this.table = new int[32];
+        Arrays.fill(this.table, -1);
+        this.scratch = new int[64];
+    }
+
+    public WffCorpus(int _chunkSize) {
+        this(_chunkSize, new WffTreeInterner().getSymbolTable());
+    }
+
+    public WffCorpus() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Adds a formula to the corpus.
+     *
+     * @param _tree - formula to add.
+     * @return id of the new entry.
+     */
+    public int add(WffTree _tree) {
+        int length = this.encode(_tree);
+        return this.append(length, WffCorpus.hash(this.scratch, length));
+    }
+
+    /**
+     * Adds a formula unless the corpus already has one that is equal to it up to notation.
+     * Unlike WffTree.equals, the operands of an identity are compared in the order written.
+     *
+     * @param _tree - formula to add.
+     * @return id of the existing entry, or of the new entry.
+     */
+    public int addIfAbsent(WffTree _tree) {
+        int length = this.encode(_tree);
+        int hash = WffCorpus.hash(this.scratch, length);
+        int id = this.find(length, hash);
+        return id >= 0 ? id : this.append(length, hash);
+    }
+
+    /**
+     * @param _tree - formula to look up.
+     * @return id of an entry that is equal to _tree (up to notation), or -1 if there is none.
+     */
+    public int indexOf(WffTree _tree) {
+        int length = this.encode(_tree);
+        return this.find(length, WffCorpus.hash(this.scratch, length));
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Materializes an entry as a new (mutable) WffTree.
+     *
+     * @param _id - id of entry.
+     * @return WffTree that the entry encodes.
+     */
+    public WffTree get(int _id) {
+        ByteBuffer chunk = this.getChunk(_id);
+        int offset = this.getOffset(_id);
+        WffTree root = this.decode(chunk, offset + HEADER_INTS * Integer.BYTES, chunk.getInt(offset));
+        int flags = chunk.getInt(offset + Integer.BYTES);
+        if (flags != 0) {
+            root.setFlags(flags);
+        }
+        return root;
+    }
+
+    /**
+     * @param _id - id of entry.
+     * @return number of nodes in the entry.
+     */
+    public int getNodeCount(int _id) {
+        return this.getChunk(_id).getInt(this.getOffset(_id));
+    }
+
+    public int getRootFlags(int _id) {
+        return this.getChunk(_id).getInt(this.getOffset(_id) + Integer.BYTES);
+    }
+
+    /**
+     * @param _id   - id of entry.
+     * @param _node - index of node in prefix order, from 0 to getNodeCount(_id) - 1.
+     * @return type of the node.
+     */
+    public NodeType getNodeType(int _id, int _node) {
+        return NODE_TYPES[this.getNodeWord(_id, _node, 0) >>> 24];
+    }
+
+    public int getChildCount(int _id, int _node) {
+        return (this.getNodeWord(_id, _node, 0) >>> 16) & 0xFF;
+    }
+
+    /**
+     * @return id of the node's symbol in getSymbolTable(), or SymbolTable.NO_SYMBOL if it has none.
+     */
+    public int getSymbolId(int _id, int _node) {
+        return WffCorpus.toSymbolId(this.getNodeWord(_id, _node, 0) & 0xFFFF);
+    }
+
+    /**
+     * @return id of the quantified variable in getSymbolTable(), or SymbolTable.NO_SYMBOL if the
+     * node is not a quantifier.
+     */
+    public int getVariableSymbolId(int _id, int _node) {
+        return WffCorpus.toSymbolId(this.getNodeWord(_id, _node, 1) & 0xFFFF);
+    }
+
+    /**
+     * @return table that resolves the symbol ids of the entries.
+     */
+    public SymbolTable getSymbolTable() {
+        return this.symbolTable;
+    }
+
+    /**
+     * @return total number of off-heap bytes reserved by the corpus.
+     */
+    public long getReservedBytes() {
+        long bytes = 0;
+        for (ByteBuffer chunk : this.chunks) {
+            bytes += chunk.capacity();
+        }
+        return bytes;
+    }
+
+    private int getNodeWord(int _id, int _node, int _word) {
+        if (_node < 0 || _node >= this.getNodeCount(_id)) {
+            throw new IndexOutOfBoundsException("Node " + _node + " out of bounds for entry " + _id + ".");
+        }
+        int index = HEADER_INTS + _node * INTS_PER_NODE + _word;
+        return this.getChunk(_id).getInt(this.getOffset(_id) + index * Integer.BYTES);
+    }
+
+    private ByteBuffer getChunk(int _id) {
+        if (_id < 0 || _id >= this.size) {
+            throw new IndexOutOfBoundsException("Entry " + _id + " out of bounds for corpus of size " + this.size + ".");
+        }
+        return this.chunks.get((int) (this.locations[_id] >>> 32));
+    }
+
+    private int getOffset(int _id) {
+        return (int) this.locations[_id];
+    }
+
+    /**
+     * Writes the encoding of _tree (header included) into the scratch buffer.
+     *
+     * @return number of ints written.
+     */
+    private int encode(WffTree _tree) {
+        if (_tree == null) {
+            throw new IllegalArgumentException("Cannot store a null WffTree.");
+        }
+
+        int length = this.encodeHelper(_tree, HEADER_INTS);
+        this.scratch[0] = (length - HEADER_INTS) / INTS_PER_NODE;
+        this.scratch[1] = _tree.getFlags();
+        return length;
+    }
+
+    /**
+     * Writes the nodes of _tree into the scratch buffer in prefix order, starting at _pos, and
+     * grows the buffer as it goes. The nodes are counted by the walk itself rather than read
+     * from the cached analytics, which would cache them on the caller's wff. The walk uses an
+     * explicit stack, like PackedWff, so deep formulas do not overflow the thread's stack.
+     *
+     * @return position after the last node written.
+     */
+    private int encodeHelper(WffTree _tree, int _pos) {
+        WffTree[] stack = new WffTree[16];
+        int top = 0;
+        stack[0] = _tree;
+        int pos = _pos;
+
+        while (top >= 0) {
+            WffTree node = stack[top];
+            stack[top--] = null;
+            if (node.getChildrenSize() > 0xFF) {
+                throw new IllegalArgumentException("Cannot store a node with more than 255 children.");
+            }
+
+            if (pos + INTS_PER_NODE > this.scratch.length) {
+                this.scratch = Arrays.copyOf(this.scratch, this.scratch.length * 2);
+            }
+            int variableId = node instanceof QuantifierNode
+                    ? this.symbolTable.getSymbolId(((QuantifierNode) node).getVariableSymbol())
+                    : SymbolTable.NO_SYMBOL;
+            this.scratch[pos] = (node.getNodeType().ordinal() << 24)
+                    | (node.getChildrenSize() << 16)
+                    | (this.symbolTable.getSymbolId(node.getSymbol()) & 0xFFFF);
+            this.scratch[pos + 1] = variableId & 0xFFFF;
+            pos += INTS_PER_NODE;
+
+            // Push the children last to first, so the first child is written next.
+            if (top + node.getChildrenSize() >= stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + node.getChildrenSize() + 1));
+            }
+            for (int i = node.getChildrenSize() - 1; i >= 0; i--) {
+                stack[++top] = node.getChild(i);
+            }
+        }
+        return pos;
+    }
+
+    /**
+     * Copies the scratch encoding into the corpus.
+     */
+    private int append(int _length, int _hash) {
+        int bytes = _length * Integer.BYTES;
+        ByteBuffer chunk = this.chunks.isEmpty() ? null : this.chunks.get(this.chunks.size() - 1);
+        if (chunk == null || chunk.remaining() < bytes) {
+            chunk = ByteBuffer.allocateDirect(Math.max(this.chunkSize, bytes)).order(ByteOrder.nativeOrder());
+            this.chunks.add(chunk);
+        }
+
+        int offset = chunk.position();
+        for (int i = 0; i < _length; i++) {
+            chunk.putInt(this.scratch[i]);
+        }
+
+        if (this.size == this.locations.length) {
+            this.locations = Arrays.copyOf(this.locations, this.size * 2);
+            this.hashes = Arrays.copyOf(this.hashes, this.size * 2);
+        }
+        int id = this.size++;
+        this.locations[id] = ((long) (this.chunks.size() - 1) << 32) | offset;
+        this.hashes[id] = _hash;
+
+        if (this.size * 2 > this.table.length) {
+            this.rehash();
+        } else {
+            this.insert(id);
+        }
+        return id;
+    }
+
+    /**
+     * @return id of an entry whose encoding equals the scratch encoding, or -1.
+     */
+    private int find(int _length, int _hash) {
+        int mask = this.table.length - 1;
+        for (int slot = _hash & mask; this.table[slot] >= 0; slot = (slot + 1) & mask) {
+            int id = this.table[slot];
+            if (this.hashes[id] == _hash && this.matchesScratch(id, _length)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares an entry with the scratch encoding, ignoring operator symbols and flags.
+     */
+    private boolean matchesScratch(int _id, int _length) {
+        ByteBuffer chunk = this.getChunk(_id);
+        int offset = this.getOffset(_id);
+        if (chunk.getInt(offset) != this.scratch[0]) {
+            return false;
+        }
+        for (int i = HEADER_INTS; i < _length; i++) {
+            int word = chunk.getInt(offset + i * Integer.BYTES);
+            if (WffCorpus.structuralWord(word, i) != WffCorpus.structuralWord(this.scratch[i], i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(int _id) {
+        int mask = this.table.length - 1;
+        int slot = this.hashes[_id] & mask;
+        while (this.table[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.table[slot] = _id;
+    }
+
+    private void rehash() {
+        this.table = new int[this.table.length * 2];
+        Arrays.fill(this.table, -1);
+        for (int id = 0; id < this.size; id++) {
+            this.insert(id);
+        }
+    }
+
+    private static int hash(int[] _encoding, int _length) {
+        int h = _encoding[0];
+        for (int i = HEADER_INTS; i < _length; i++) {
+            h = 31 * h + WffCorpus.structuralWord(_encoding[i], i);
+        }
+        // Spread the bits since the table index is taken from the low bits.
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the part of an encoded word that structural equality compares: everything but
+     * the symbol of a connective, which is only notation.
+     */
+    private static int structuralWord(int _word, int _index) {
+        if ((_index - HEADER_INTS) % INTS_PER_NODE != 0) {
+            return _word;
+        }
+        switch (NODE_TYPES[_word >>> 24]) {
+            case AND:
+            case OR:
+            case IMP:
+            case BICOND:
+            case XOR:
+            case NEG:
+            case EXISTENTIAL:
+            case UNIVERSAL:
+                return _word | 0xFFFF;
+            default:
+                return _word;
+        }
+    }
+
+    /**
+     * Rebuilds the _nodeCount nodes that start at byte _offset. Since the nodes are in prefix
+     * order, this is a single pass with a stack of the nodes that still miss children.
+     */
+    private WffTree decode(ByteBuffer _chunk, int _offset, int _nodeCount) {
+        WffTree[] parents = new WffTree[_nodeCount];
+        int[] missing = new int[_nodeCount];
+        int top = -1;
+        WffTree root = null;
+
+        for (int i = 0; i < _nodeCount; i++) {
+            int word = _chunk.getInt(_offset + i * INTS_PER_NODE * Integer.BYTES);
+            int variableId = _chunk.getInt(_offset + (i * INTS_PER_NODE + 1) * Integer.BYTES) & 0xFFFF;
+            WffTree node = PackedWff.createNode(NODE_TYPES[word >>> 24],
+                    this.symbolTable.getSymbol(WffCorpus.toSymbolId(word & 0xFFFF)),
+                    this.symbolTable.getSymbol(WffCorpus.toSymbolId(variableId)));
+
+            if (top < 0) {
+                root = node;
+            } else {
+                parents[top].addChild(node);
+                missing[top]--;
+            }
+            int childCount = (word >>> 16) & 0xFF;
+            if (childCount > 0) {
+                parents[++top] = node;
+                missing[top] = childCount;
+            }
+            while (top >= 0 && missing[top] == 0) {
+                parents[top--] = null;
+            }
+        }
+        return root;
+    }
+
+    private static int toSymbolId(int _id) {
+        return _id == NO_ID ? SymbolTable.NO_SYMBOL : _id;
+    }
+}
@@ -1,14 +1,107 @@
 package com.ndtp.models.treenode;
 
 import com.ndtp.tools.NDTPUtils;
+import com.ndtp.tools.TreeWalker;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  *
  */
 public class WffTree implements Copyable {
 
+    /**
+     * Marks a symbol id that has not been looked up yet.
+     */
+    private static final int UNKNOWN_SYMBOL_ID = Integer.MIN_VALUE;
+
+    /**
+     * Type byte of a bound variable token in the alpha encoding. Node type bytes are the
+     * NodeType ordinal + 1, so this never collides with them.
+     */
+    private static final int BOUND_VARIABLE_TOKEN = 0xFF << 24;
+
+    /**
+     * Lets a TreeWalker walk the children of a WffTree.
+     */
+    public static final TreeWalker.ChildAccessor<WffTree> CHILD_ACCESSOR = new TreeWalker.ChildAccessor<WffTree>() {
+        @Override
+        public int getChildCount(WffTree _node) {
+            return _node.childCount;
+        }
+
+        @Override
+        public WffTree getChild(WffTree _node, int _index) {
+            return _node.getChild(_index);
+        }
+    };
+
+    /**
+     * Walker for the traversals below; one per thread, so its stack is reused between calls.
+     */
+    private static final ThreadLocal<TreeWalker<WffTree>> WALKER = new ThreadLocal<TreeWalker<WffTree>>() {
+        @Override
+        protected TreeWalker<WffTree> initialValue() {
+            return new TreeWalker<>(CHILD_ACCESSOR);
+        }
+    };
+
+    /**
+     * Fills in the cached string representations from the bottom up, skipping cached subtrees.
+     */
+    private static final TreeWalker.Visitor<WffTree> STRING_REP_VISITOR = new TreeWalker.Visitor<WffTree>() {
+        @Override
+        public boolean enter(WffTree _node, int _index, int _depth) {
+            return _node.stringRep == null;
+        }
+
+        @Override
+        public void exit(WffTree _node, int _index, int _depth) {
+            if (_node.stringRep == null) {
+                _node.stringRep = _node.buildStringRep();
+                WffTree.markChildrenCachedInParent(_node);
+            }
+        }
+    };
+
+    /**
+     * Fills in the cached analytics from the bottom up, skipping cached subtrees.
+     */
+    private static final TreeWalker.Visitor<WffTree> ANALYTICS_VISITOR = new TreeWalker.Visitor<WffTree>() {
+        @Override
+        public boolean enter(WffTree _node, int _index, int _depth) {
+            return _node.analytics == null;
+        }
+
+        @Override
+        public void exit(WffTree _node, int _index, int _depth) {
+            if (_node.analytics == null) {
+                _node.analytics = WffTreeAnalytics.of(_node);
+                WffTree.markChildrenCachedInParent(_node);
+            }
+        }
+    };
+
+    /**
+     * Fills in the cached hash codes from the bottom up, skipping cached subtrees.
+     */
+    private static final TreeWalker.Visitor<WffTree> HASH_VISITOR = new TreeWalker.Visitor<WffTree>() {
+        @Override
+        public boolean enter(WffTree _node, int _index, int _depth) {
+            return _node.hash == 0;
+        }
+
+        @Override
+        public void exit(WffTree _node, int _index, int _depth) {
+            if (_node.hash == 0) {
+                _node.hash = _node.buildHash();
+                WffTree.markChildrenCachedInParent(_node);
+            }
+        }
+    };
+
     /**
      * Defines the type of node that we're using. There should be only one
      * ROOT node in the tree.
@@ -16,14 +109,21 @@ public class WffTree implements Copyable {
     private final NodeType nodeType;
 
     /**
-     *
+     * Children are stored in fixed fields since almost every node has at most two of them.
+     * Predicates with more than two parameters, and the n-ary conjunctions and disjunctions
+     * made by the negation normal form pass, keep the rest in a compact array. This saves an
+     * ArrayList (and its backing array) per node.
      */
-    private final ArrayList<WffTree> children;
+    private WffTree firstChild;
+
+    private WffTree secondChild;
 
     /**
-     *
+     * Children from index 2 on, sized exactly; null unless the node has more than two children.
      */
-    private final ArrayList<Boolean> truthValues;
+    private WffTree[] extraChildren;
+
+    private int childCount;
 
     /**
      *
@@ -35,11 +135,49 @@ public class WffTree implements Copyable {
      */
     private int flags;
 
+    /**
+     * Interner that owns this node, i.e., that created it as the canonical instance of its
+     * structure; null if the node is not interned. Interned nodes are shared between formulas,
+     * so they can never be mutated.
+     */
+    private WffTreeInterner interner;
+
+    /**
+     * Whether a parent (or the encoding of an ancestor) has cached a value that was built from
+     * this node. Mutating the node would leave that value stale, so it is then refused.
+     */
+    private boolean cachedInParent;
+
+    /**
+     * Cached structural hash code; zero means that it has not been computed yet.
+     */
+    private int hash;
+
+    /**
+     * Cached string representation; null means that it has not been built yet.
+     */
+    private String stringRep;
+
+    /**
+     * Cached analytics; null means that they have not been computed yet.
+     */
+    private WffTreeAnalytics analytics;
+
+    /**
+     * Cached SymbolTable id of the symbol; UNKNOWN_SYMBOL_ID means that it has not been looked up yet.
+     */
+    private int symbolId;
+
+    /**
+     * Caches that most nodes never fill, e.g., the encodings and the links of interned nodes;
+     * null until one of them is first built.
+     */
+    private SideCaches sideCaches;
+
     public WffTree(String _symbol, NodeType _nodeType) {
         this.symbol = _symbol;
         this.nodeType = _nodeType;
-        this.children = new ArrayList<>();
-        this.truthValues = new ArrayList<>();
+        this.symbolId = UNKNOWN_SYMBOL_ID;
     }
 
     public WffTree(NodeType _nodeType) {
@@ -51,65 +189,62 @@ public class WffTree implements Copyable {
     }
 
     /**
-     * Replaces all instances of the customized symbols to a standard
-     * notation so the equivalence checker has some uniformity.
-     * <p>
-     * We should probably replace these as static regex compilers...
+     * Deep copies this WffTree. Interned nodes are immutable, so they (and any interned
+     * subtrees of a mutable node) are shared rather than copied.
      *
-     * @param _strRep
-     * @return
+     * @return new copy of the WffTree, or this node if it is interned.
      */
-    private static String getStandardizedEquiv(String _strRep) {
-        String s = _strRep.replaceAll(" ", "");
-        s = s.replaceAll("[~¬!]|(not|NOT)", "~"); // NEG
-        s = s.replaceAll("[∧^⋅]|(and|AND)", "&"); // AND
-        s = s.replaceAll("[\\|+\\|\\|]|(or|OR)", "∨"); // OR
-        s = s.replaceAll("[→⇒⊃>]|(implies|IMPLIES)", "→"); // IMP
-        s = s.replaceAll("[⇔≡↔]|(<>|iff|IFF)", "↔"); // BICOND
-        s = s.replaceAll("[⊻≢⩒↮]|(xor|XOR)", "⊕"); // XOR
-        s = s.replaceAll("[(]", "#");
-        s = s.replaceAll("[)]", "#"); // We need to standardize these as well!
-        return s;
-    }
-
     @Override
     public WffTree copy() {
+        if (this.interner != null) {
+            return this;
+        }
+        return this.copyHelper();
+    }
+
+    /**
+     * Copies this node ONLY, meaning that the children are not copied over. The symbol and
+     * flags are preserved. Each node in the AST should override this method to return an
+     * instance of its own type.
+     *
+     * @return new childless copy of this node.
+     */
+    public WffTree shallowCopy() {
         WffTree t = new WffTree(this.symbol, this.nodeType);
         t.setFlags(this.getFlags());
-        this.copyHelper(this, t);
         return t;
     }
 
     /**
-     * Turns off highlighting for all nodes in the AST. This just iterates through the tree and
-     * calls setHighlighted(false) on all nodes and their children. Each time an algorithm is called,
-     * just call this before running it.
+     * Prints the syntax tree, indenting each node by two spaces per level.
      */
-    public void clearHighlighting() {
-        this.setHighlighted(false);
-        for (WffTree t : this.children) {
-            this.clearHighlightingHelper(t);
-        }
+    public void printSyntaxTree() {
+        System.out.println(this.printSyntaxTreeHelper());
     }
 
     /**
-     * Recursively prints the syntax tree.
+     * Returns the walker that WffTree uses for its own traversals. It belongs to the calling
+     * thread, and walks may be nested, so it can be used freely from that thread.
+     *
+     * @return TreeWalker over WffTree nodes.
      */
-    public void printSyntaxTree() {
-        System.out.println(this.printSyntaxTreeHelper(0));
+    public static TreeWalker<WffTree> getWalker() {
+        return WALKER.get();
     }
 
     /**
-     * Returns whether or not the string representations of two Wffs are equivalent. The important
-     * distinction is that this method does NOT compare object references - the equals method
-     * does this. This ONLY compares the strings that make up this Wff.
+     * Returns whether or not two Wffs are written the same, up to notation. The important
+     * distinction is that this method does NOT compare object references. Two wffs are written
+     * the same when their canonical encodings match, so operator aliases (e.g., "&", "∧", and
+     * "and") and spacing do not matter. The nodes are compared pair by pair, which stops at the
+     * first difference and does not build either encoding. An identity (or negated identity)
+     * also matches its reversed form.
      * <p>
-     * //     * Also, note that this DOES ***NOT*** try to flip the operands if and ONLY if they are a symmetric
-     * //     * operator e.g., AND, OR, and BICOND. All others are non-symmetric. Identity is a
-     * //     * separate check.
+     * Also, note that this DOES ***NOT*** try to flip the operands of the symmetric operators
+     * e.g., AND, OR, and BICOND. Identity is a separate check. Use acEquals for that.
      *
      * @param _obj - WffTree object to compare against.
-     * @return true if the string representations match, false otherwise.
+     * @return true if the canonical encodings match, false otherwise.
      */
     public boolean stringEquals(Object _obj) {
         if (!(_obj instanceof WffTree)) {
@@ -117,62 +252,229 @@ public class WffTree implements Copyable {
         }
 
         WffTree o = (WffTree) _obj;
-        String wff1Equiv = WffTree.getStandardizedEquiv(this.getStringRep());
-        String wff2Equiv = WffTree.getStandardizedEquiv(o.getStringRep());
-
-        if (wff1Equiv.equals(wff2Equiv)) {
+        WffTree lhs = this.skipRoots();
+        WffTree rhs = o.skipRoots();
+        if (WffTree.isWrittenTheSame(lhs, rhs)) {
             return true;
         }
 
-        StringBuilder w1 = new StringBuilder(wff1Equiv);
-        StringBuilder w2 = new StringBuilder(wff2Equiv);
-
         // Check to see if both are identity operators and if so, reverse them.
-        if ((this.isIdentity() && o.isIdentity())
-                && (NDTPUtils.sbCompareTo(w1, w2.reverse()) == 0
-                || NDTPUtils.sbCompareTo(w1.reverse(), w2.reverse()) == 0
-                || NDTPUtils.sbCompareTo(w1.reverse(), w2) == 0)) {
-            return true;
-        } else {
-            // This is a bit ugly but hopefully it works...
-            // Check to see if either one has a negation.
-            // If the identity is of the form ~x=y, reverse it as ~y=x
-            if (this.isNegation() && this.getChild(0).isIdentity()) {
-                StringBuilder i1r = new StringBuilder(w1.substring(1)).reverse();
-                i1r.insert(0, "~");
-                return NDTPUtils.sbCompareTo(i1r, w2) == 0;
-            } else if (o.isNegation() && o.getChild(0).isIdentity()) {
-                StringBuilder i2r = new StringBuilder(w2.substring(1)).reverse();
-                i2r.insert(0, "~");
-                return NDTPUtils.sbCompareTo(i2r, w1) == 0;
-            }
+        // If the identity is of the form ~x=y, reverse it as ~y=x.
+        if (this.isIdentity() && o.isIdentity()) {
+            return WffTree.isReversedIdentity(lhs, rhs);
+        } else if (this.isNegIdentity() || o.isNegIdentity()) {
+            return lhs.isNegIdentity() && rhs.isNegIdentity()
+                    && lhs.getCanonicalToken() == rhs.getCanonicalToken()
+                    && WffTree.isReversedIdentity(lhs.getChild(0), rhs.getChild(0));
         }
 
         return false;
     }
 
+    /**
+     * Determines if two wffs have the same canonical encoding by walking both at once. ROOT
+     * nodes are transparent in the encoding, so if either wff has one below its top, the
+     * encodings themselves are compared instead.
+     *
+     * @param _lhs - first wff, without a ROOT on top.
+     * @param _rhs - second wff, without a ROOT on top.
+     * @return true if the canonical encodings match, false otherwise.
+     */
+    private static boolean isWrittenTheSame(WffTree _lhs, WffTree _rhs) {
+        // Pairs of nodes that still have to be compared, kept on two parallel stacks.
+        WffTree[] lhs = new WffTree[16];
+        WffTree[] rhs = new WffTree[16];
+        lhs[0] = _lhs;
+        rhs[0] = _rhs;
+        int top = 0;
+        while (top >= 0) {
+            WffTree a = lhs[top];
+            WffTree b = rhs[top--];
+            if (a == b) {
+                continue;
+            } else if (a.isRoot() || b.isRoot()) {
+                return Arrays.equals(_lhs.getCanonicalEncoding(), _rhs.getCanonicalEncoding());
+            } else if (a.getCanonicalToken() != b.getCanonicalToken() || a.childCount != b.childCount) {
+                return false;
+            }
+
+            if (top + a.childCount >= lhs.length) {
+                int capacity = Math.max(lhs.length * 2, top + a.childCount + 1);
+                lhs = Arrays.copyOf(lhs, capacity);
+                rhs = Arrays.copyOf(rhs, capacity);
+            }
+            for (int i = a.childCount - 1; i >= 0; i--) {
+                lhs[++top] = a.getChild(i);
+                rhs[top] = b.getChild(i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the first node below the ROOT nodes that wrap this wff, or this node if it is not a ROOT.
+     */
+    private WffTree skipRoots() {
+        WffTree node = this;
+        while (node.isRoot() && node.childCount == 1) {
+            node = node.getChild(0);
+        }
+        return node;
+    }
+
+    /**
+     * Returns whether or not two wffs are the same up to notation and the renaming of bound
+     * variables, e.g., (∀x)Px and (∀y)Py. Both wffs are compared by their alpha keys, so the
+     * cached hashes of the encodings reject most mismatches. Like stringEquals, an identity matches its reversed form, and this also holds for
+     * identities nested inside the wff.
+     *
+     * @param _tree - WffTree to compare against.
+     * @return true if the alpha encodings match, false otherwise.
+     */
+    public boolean alphaEquals(WffTree _tree) {
+        return this == _tree || this.getAlphaKey().equals(_tree.getAlphaKey());
+    }
+
+    /**
+     * Returns a key that is equal for, and only for, alpha-equivalent wffs. It is built once
+     * and cached next to the alpha encoding.
+     *
+     * @return alpha key of this WffTree.
+     */
+    public AlphaKey getAlphaKey() {
+        SideCaches caches = this.getSideCaches();
+        if (caches.alphaKey == null) {
+            caches.alphaKey = new AlphaKey(this.getAlphaEncoding());
+        }
+        return caches.alphaKey;
+    }
+
+    /**
+     * Returns whether or not two wffs are the same up to notation, the renaming of bound
+     * variables, and the associativity and commutativity of AND, OR, BICOND, XOR, and identity,
+     * e.g., (A & B) and (B & A), or ((A | B) | C) and (C | (B | A)). Both wffs are compared by
+     * their AC encodings.
+     * <p>
+     * The wffs are logically equivalent, but not the same line of a proof, so natural deduction
+     * must not use this to match a premise or the conclusion.
+     *
+     * @param _tree - WffTree to compare against.
+     * @return true if the AC encodings match, false otherwise.
+     */
+    public boolean acEquals(WffTree _tree) {
+        return this == _tree || Arrays.equals(this.getACEncoding(), _tree.getACEncoding());
+    }
+
+    /**
+     * Structural equality. Two wffs are equal if they have the same shape, the same atoms,
+     * predicate letters, constants, and variables, and the same quantified variables. Operator
+     * symbols are NOT compared since they are only notation (e.g., "&" and "and" are the same
+     * conjunction), and the operands of an identity may appear in either order.
+     *
+     * @param _obj - object to compare against.
+     * @return true if both are structurally equal wffs, false otherwise.
+     */
     @Override
     public boolean equals(Object _obj) {
-        return super.equals(_obj);
+        if (this == _obj) {
+            return true;
+        }
+        if (!(_obj instanceof WffTree)) {
+            return false;
+        }
+
+        // Pairs of nodes that still have to be compared, kept on two parallel stacks.
+        WffTree[] lhs = new WffTree[16];
+        WffTree[] rhs = new WffTree[16];
+        lhs[0] = this;
+        rhs[0] = (WffTree) _obj;
+        int top = 0;
+        while (top >= 0) {
+            WffTree a = lhs[top];
+            WffTree b = rhs[top--];
+            if (a == b) {
+                continue;
+            } else if (a == null || b == null
+                    || a.nodeType != b.nodeType
+                    || a.childCount != b.childCount
+                    || a.hashCode() != b.hashCode()
+                    || a.getStructuralSymbolId() != b.getStructuralSymbolId()) {
+                return false;
+            }
+
+            // Identity is symmetric, so a = b and b = a are the same wff. Its operands are
+            // terms, so comparing them directly does not recurse any deeper.
+            if (a.isIdentity() && a.childCount == 2) {
+                if ((a.getChild(0).equals(b.getChild(0)) && a.getChild(1).equals(b.getChild(1)))
+                        || (a.getChild(0).equals(b.getChild(1)) && a.getChild(1).equals(b.getChild(0)))) {
+                    continue;
+                }
+                return false;
+            }
+
+            if (top + a.childCount >= lhs.length) {
+                int capacity = Math.max(lhs.length * 2, top + a.childCount + 1);
+                lhs = Arrays.copyOf(lhs, capacity);
+                rhs = Arrays.copyOf(rhs, capacity);
+            }
+            for (int i = 0; i < a.childCount; i++) {
+                lhs[++top] = a.getChild(i);
+                rhs[top] = b.getChild(i);
+            }
+        }
+        return true;
     }
 
+    /**
+     * Returns a hash code that agrees with the structural equals method. It is computed once
+     * per node and cached; mutating the node drops the cached value.
+     *
+     * @return structural hash code of this wff.
+     */
     @Override
     public int hashCode() {
-        return this.getStringRep().hashCode() ^ (int) System.currentTimeMillis();
+        if (this.hash == 0) {
+            WffTree.getWalker().walk(this, HASH_VISITOR);
+        }
+        return this.hash;
+    }
+
+    /**
+     * Computes the hash code of this node from the cached hash codes of its children.
+     *
+     * @return non-zero structural hash code.
+     */
+    private int buildHash() {
+        int h = 31 * this.nodeType.ordinal() + this.getStructuralSymbolId();
+        if (this.isIdentity()) {
+            // Order-independent so that both orientations hash the same.
+            int sum = 0;
+            for (int i = 0; i < this.childCount; i++) {
+                sum += this.getChild(i).hash;
+            }
+            h = 31 * h + sum;
+        } else {
+            for (int i = 0; i < this.childCount; i++) {
+                h = 31 * h + this.getChild(i).hash;
+            }
+        }
+        return (h == 0) ? 1 : h;
     }
 
     /**
      * Returns the i-th child in the list of children.
      *
      * @param i - index of child to return.
-     * @return WffTree child that is desired.
-     * @throws IndexOutOfBoundsException if i is out of bounds of the list.
+     * @return WffTree child that is desired, or null if i is out of bounds.
      */
     public WffTree getChild(int i) {
-        try {
-            return this.children.get(i);
-        } catch (IndexOutOfBoundsException ex) {
-            return null;
+        switch (i) {
+            case 0:
+                return this.firstChild;
+            case 1:
+                return this.secondChild;
+            default:
+                return i > 1 && i < this.childCount ? this.extraChildren[i - 2] : null;
         }
     }
 
@@ -204,20 +506,125 @@ public class WffTree implements Copyable {
         }
     }
 
+    /**
+     * @return number of nodes in this wff below the level of its direct children.
+     */
     public int allChildSizeCount() {
-        return allChildSizeCountHelper(this);
+        return this.getAnalytics().getSize() - 1 - this.childCount;
+    }
+
+    /**
+     * Returns the size, depth, atoms, constants, free variables, and node type counts of this
+     * wff. They are computed once per node from the children's analytics and cached, so each
+     * call after the first is O(1).
+     *
+     * @return analytics of this WffTree.
+     */
+    public WffTreeAnalytics getAnalytics() {
+        if (this.analytics == null) {
+            WffTree.getWalker().walk(this, ANALYTICS_VISITOR);
+        }
+        return this.analytics;
     }
 
     public int getChildrenSize() {
-        return this.children.size();
+        return this.childCount;
     }
 
     public void addChild(WffTree _node) {
-        this.children.add(_node);
+        this.checkMutable();
+        this.checkNotCachedInParent();
+        this.invalidateCaches();
+        if (this.childCount >= 2) {
+            this.extraChildren = this.extraChildren == null
+                    ? new WffTree[1]
+                    : Arrays.copyOf(this.extraChildren, this.extraChildren.length + 1);
+        }
+        this.childCount++;
+        this.storeChild(this.childCount - 1, _node);
     }
 
+    /**
+     * Replaces an existing child of this node.
+     *
+     * @param _index - index of child to replace.
+     * @param _node  - new child.
+     * @throws IndexOutOfBoundsException if _index is not the index of an existing child.
+     */
     public void setChild(int _index, WffTree _node) {
-        this.children.set(_index, _node);
+        if (_index < 0 || _index >= this.childCount) {
+            throw new IndexOutOfBoundsException("Child " + _index + " out of bounds for node with " + this.childCount + " children.");
+        }
+        this.checkMutable();
+        this.checkNotCachedInParent();
+        this.invalidateCaches();
+        this.storeChild(_index, _node);
+    }
+
+    private void storeChild(int _index, WffTree _node) {
+        switch (_index) {
+            case 0:
+                this.firstChild = _node;
+                break;
+            case 1:
+                this.secondChild = _node;
+                break;
+            default:
+                this.extraChildren[_index - 2] = _node;
+                break;
+        }
+    }
+
+    /**
+     * Persistent substitution: returns this wff with every occurrence of a variable replaced
+     * by _replacement. A constant is also replaced when it is the operand of a node whose first
+     * operand is a constant, which is how identity decomposition swaps one constant for another.
+     * <p>
+     * This wff is never modified. Only the nodes on the paths from this node to the replaced
+     * occurrences are rebuilt; every other subtree (and this node itself, if nothing is
+     * replaced) is shared with the result, so the cost is proportional to the size of that
+     * spine rather than of the whole wff. Since subtrees are shared, this wff should be
+     * immutable, e.g., interned.
+     *
+     * @param _symbolId    - SymbolTable id of the variable (or constant) to replace.
+     * @param _replacement - node to put in place of each occurrence.
+     * @return wff with the replacements applied, or this node if there were none.
+     */
+    public WffTree replaceSymbol(final int _symbolId, final WffTree _replacement) {
+        // Post-order: each node is rebuilt from the results of its children, which are on top of the list.
+        final ArrayList<WffTree> results = new ArrayList<>();
+        WffTree.getWalker().walk(this, new TreeWalker.Visitor<WffTree>() {
+            @Override
+            public boolean enter(WffTree _node, int _index, int _depth) {
+                return true;
+            }
+
+            @Override
+            public void exit(WffTree _node, int _index, int _depth) {
+                int first = results.size() - _node.childCount;
+                WffTree newRoot = null;
+                for (int i = 0; i < _node.childCount; i++) {
+                    WffTree ch = _node.getChild(i);
+                    WffTree newCh = results.get(first + i);
+                    if ((ch.isVariable() || _node.firstChild.isConstant()) && ch.getSymbolId() == _symbolId) {
+                        newCh = _replacement;
+                    }
+
+                    if (newCh != ch && newRoot == null) {
+                        newRoot = _node.shallowCopy();
+                        for (int j = 0; j < i; j++) {
+                            newRoot.addChild(_node.getChild(j));
+                        }
+                    }
+                    if (newRoot != null) {
+                        newRoot.addChild(newCh);
+                    }
+                }
+                results.subList(first, results.size()).clear();
+                results.add(newRoot != null ? newRoot : _node);
+            }
+        });
+        return results.get(0);
     }
 
     public boolean isRoot() {
@@ -319,6 +726,14 @@ public class WffTree implements Copyable {
         return this.nodeType == NodeType.VARIABLE;
     }
 
+    public boolean isTruth() {
+        return this.nodeType == NodeType.TRUTH;
+    }
+
+    public boolean isFalse() {
+        return this.nodeType == NodeType.FALSE;
+    }
+
     public NodeType getNodeType() {
         return this.nodeType;
     }
@@ -331,27 +746,48 @@ public class WffTree implements Copyable {
         return (this.flags & NodeFlag.PREDICATE) != 0;
     }
 
+    /**
+     * Returns the children of this node as a new list. Changes to the list do not affect the
+     * node; use addChild or setChild for that. Prefer getChild and getChildrenSize when just
+     * walking the tree, since they do not allocate.
+     *
+     * @return ArrayList copy of this node's children.
+     */
     public ArrayList<WffTree> getChildren() {
-        return this.children;
-    }
-
-    public ArrayList<Boolean> getTruthValues() {
-        return this.truthValues;
-    }
-
-    public void setTruthValue(boolean _b, int i) {
-        if (i >= this.truthValues.size()) {
-            this.truthValues.add(i, _b);
-        } else {
-            this.truthValues.set(i, _b);
+        ArrayList<WffTree> list = new ArrayList<>(this.childCount);
+        for (int i = 0; i < this.childCount; i++) {
+            list.add(this.getChild(i));
         }
+        return list;
     }
 
     public String getSymbol() {
         return this.symbol;
     }
 
+    /**
+     * Returns the id of this node's symbol, which is the same in every SymbolTable. Comparing
+     * the ids of two nodes is the same as comparing their symbols.
+     *
+     * @return id of the symbol, or SymbolTable.NO_SYMBOL if the node has none.
+     * @throws IllegalStateException if the symbol is longer than one character; only a
+     *                               SymbolTable can give such a symbol an id.
+     */
+    public int getSymbolId() {
+        if (this.symbolId == UNKNOWN_SYMBOL_ID) {
+            String s = this.getSymbol();
+            if (s != null && s.length() > 1) {
+                throw new IllegalStateException("The symbol " + s + " only has an id in a SymbolTable.");
+            }
+            this.symbolId = SymbolTable.getCharacterId(s);
+        }
+        return this.symbolId;
+    }
+
     public void setSymbol(String _s) {
+        this.checkMutable();
+        this.checkNotCachedInParent();
+        this.invalidateCaches();
         this.symbol = _s;
     }
 
@@ -360,18 +796,109 @@ public class WffTree implements Copyable {
     }
 
     public void setFlags(int _flag) {
+        this.checkMutable();
         this.flags |= _flag;
     }
 
-    public boolean isHighlighted() {
-        return (this.flags & NodeFlag.HIGHLIGHT) != 0;
+    public boolean isInterned() {
+        return this.interner != null;
     }
 
-    public void setHighlighted(boolean _highlighted) {
-        if (_highlighted) {
-            this.flags |= NodeFlag.HIGHLIGHT;
-        } else {
-            this.flags &= ~NodeFlag.HIGHLIGHT;
+    /**
+     * @return interner that owns this node, or null if it is not interned.
+     */
+    WffTreeInterner getInterner() {
+        return this.interner;
+    }
+
+    /**
+     * Marks this node as the canonical, immutable instance of its structure in _interner. Only
+     * the WffTreeInterner (and its SymbolTable) should call this, and only on a node that it
+     * has just created from canonical children.
+     */
+    void setInterner(WffTreeInterner _interner) {
+        this.interner = _interner;
+    }
+
+    WffTree getNegationLink() {
+        return this.sideCaches == null ? null : this.sideCaches.negationLink;
+    }
+
+    void setNegationLink(WffTree _negation) {
+        this.getSideCaches().negationLink = _negation;
+    }
+
+    WffTree getComplementLink() {
+        return this.sideCaches == null ? null : this.sideCaches.complementLink;
+    }
+
+    void setComplementLink(WffTree _complement) {
+        this.getSideCaches().complementLink = _complement;
+    }
+
+    /**
+     * @return side caches of this node, allocated on first use.
+     */
+    private SideCaches getSideCaches() {
+        if (this.sideCaches == null) {
+            this.sideCaches = new SideCaches();
+        }
+        return this.sideCaches;
+    }
+
+    /**
+     * Guards the structural mutators against modifying a node that is shared by the interner.
+     *
+     * @throws IllegalStateException if this node is interned.
+     */
+    protected void checkMutable() {
+        if (this.interner != null) {
+            throw new IllegalStateException("Cannot modify an interned WffTree.");
+        }
+    }
+
+    /**
+     * Guards the structural mutators against changing a node that a parent has already built
+     * a cached value from, e.g., its hash code or string representation. That value cannot be
+     * dropped from here since nodes are shared, so wffs must be built from the leaves up before
+     * they are hashed, compared, or printed. The node's own caches are simply dropped.
+     *
+     * @throws IllegalStateException if a parent has cached a value built from this node.
+     */
+    protected void checkNotCachedInParent() {
+        if (this.cachedInParent) {
+            throw new IllegalStateException("Cannot modify a WffTree after a parent has cached values built from it.");
+        }
+    }
+
+    /**
+     * Drops any values cached on this node. Called by the structural mutators.
+     */
+    protected void invalidateCaches() {
+        this.hash = 0;
+        this.stringRep = null;
+        this.sideCaches = null;
+        this.analytics = null;
+        this.symbolId = UNKNOWN_SYMBOL_ID;
+    }
+
+    /**
+     * Marks the children of a node whose cached value was just built from theirs.
+     */
+    private static void markChildrenCachedInParent(WffTree _node) {
+        for (int i = 0; i < _node.childCount; i++) {
+            if (_node.getChild(i) != null) {
+                _node.getChild(i).markCachedInParent();
+            }
+        }
+    }
+
+    /**
+     * Interned nodes cannot be mutated anyway, so they are left alone rather than written to.
+     */
+    private void markCachedInParent() {
+        if (this.interner == null && !this.cachedInParent) {
+            this.cachedInParent = true;
         }
     }
 
@@ -387,16 +914,356 @@ public class WffTree implements Copyable {
     }
 
     /**
-     * @return
+     * Returns the string representation of this wff. It is built once per node and cached,
+     * since the children's representations are cached too, so repeated calls are O(1).
+     *
+     * @return String representation of this WffTree.
      */
     public String getStringRep() {
+        if (this.stringRep == null) {
+            WffTree.getWalker().walk(this, STRING_REP_VISITOR);
+        }
+        return this.stringRep;
+    }
+
+    /**
+     * Builds the string representation of this node from its symbol and the (cached) string
+     * representations of its children. Each node in the AST should override this method.
+     *
+     * @return String representation of this WffTree.
+     */
+    protected String buildStringRep() {
         StringBuilder str = new StringBuilder();
-        for (WffTree ch : this.getChildren()) {
-            str.append(ch.getStringRep());
+        for (int i = 0; i < this.childCount; i++) {
+            str.append(this.getChild(i).getStringRep());
         }
         return str.toString();
     }
 
+    /**
+     * Returns the canonical encoding of this wff: one int token per node in prefix order, where
+     * ROOT nodes are transparent. Each token packs the node type (bits 24-31), the number of
+     * children (bits 16-23), and the symbol id of the atom, constant, variable, predicate letter,
+     * or quantified variable (bits 0-15). Operators carry no symbol, so every alias that the lexer accepts for
+     * an operator encodes identically. It is built in one pass and cached on this node only, so the
+     * encodings of the subtrees are not kept alongside it.
+     * <p>
+     * The returned array is shared and must not be modified.
+     *
+     * @return canonical token sequence of this WffTree.
+     */
+    public int[] getCanonicalEncoding() {
+        SideCaches caches = this.getSideCaches();
+        if (caches.canonicalEncoding == null) {
+            final int[] encoding = new int[this.getAnalytics().getSize() - this.getAnalytics().getNodeTypeCount(NodeType.ROOT)];
+            WffTree.getWalker().walk(this, new TreeWalker.Visitor<WffTree>() {
+                /**
+                 * Position of the next token.
+                 */
+                private int pos;
+
+                @Override
+                public boolean enter(WffTree _node, int _index, int _depth) {
+                    if (_depth > 0) {
+                        _node.markCachedInParent();
+                    }
+                    if (!_node.isRoot()) {
+                        encoding[this.pos++] = _node.getCanonicalToken();
+                    }
+                    return true;
+                }
+
+                @Override
+                public void exit(WffTree _node, int _index, int _depth) {
+                }
+            });
+            caches.canonicalEncoding = encoding;
+        }
+        return caches.canonicalEncoding;
+    }
+
+    /**
+     * Returns the token of a variable in the alpha and AC encodings. A bound variable is the
+     * number of quantifiers between it and its binder; a free one keeps its canonical token.
+     *
+     * @param _variable    - variable node.
+     * @param _binders     - symbol ids of the enclosing quantified variables, innermost last.
+     * @param _binderCount - number of enclosing quantifiers.
+     * @return token of the variable.
+     */
+    private static int getVariableToken(WffTree _variable, int[] _binders, int _binderCount) {
+        int id = _variable.getSymbolId();
+        for (int i = _binderCount - 1; i >= 0; i--) {
+            if (_binders[i] == id) {
+                return BOUND_VARIABLE_TOKEN | (_binderCount - 1 - i);
+            }
+        }
+        return _variable.getCanonicalToken();
+    }
+
+    /**
+     * @return token of this node in the canonical encoding.
+     */
+    private int getCanonicalToken() {
+        return ((this.nodeType.ordinal() + 1) << 24)
+                | (Math.min(this.childCount, 0xFF) << 16)
+                | (this.getStructuralSymbolId() & 0xFFFF);
+    }
+
+    /**
+     * Returns the alpha encoding of this wff. It is the canonical encoding with the bound
+     * variables written as de Bruijn indices: a quantifier token carries no variable, and each
+     * variable that it binds is encoded as the number of quantifiers between the variable and
+     * its binder. Renaming bound variables therefore does not change the encoding, whereas free
+     * variables keep their symbol ids. The two operands of each identity are put in a fixed
+     * order, since x = y and y = x are the same wff. It is built once per node and cached.
+     * <p>
+     * The returned array is shared and must not be modified.
+     *
+     * @return alpha-equivalence token sequence of this WffTree.
+     */
+    public int[] getAlphaEncoding() {
+        SideCaches caches = this.getSideCaches();
+        if (caches.alphaEncoding == null) {
+            final int[] encoding = new int[this.getAnalytics().getSize() - this.getAnalytics().getNodeTypeCount(NodeType.ROOT)];
+            WffTree.getWalker().walk(this, new TreeWalker.Visitor<WffTree>() {
+                /**
+                 * Position of the next token.
+                 */
+                private int pos;
+
+                /**
+                 * Position of the first token of each node on the path, by depth.
+                 */
+                private int[] starts = new int[16];
+
+                /**
+                 * Symbol ids of the enclosing quantified variables, innermost last.
+                 */
+                private int[] binders = new int[8];
+
+                private int binderCount;
+
+                @Override
+                public boolean enter(WffTree _node, int _index, int _depth) {
+                    if (_depth > 0) {
+                        _node.markCachedInParent();
+                    }
+                    if (_depth == this.starts.length) {
+                        this.starts = Arrays.copyOf(this.starts, _depth * 2);
+                    }
+                    this.starts[_depth] = this.pos;
+                    if (_node.isVariable()) {
+                        encoding[this.pos++] = WffTree.getVariableToken(_node, this.binders, this.binderCount);
+                    } else if (_node.isExistential() || _node.isUniversal()) {
+                        encoding[this.pos++] = _node.getCanonicalToken() | 0xFFFF;
+                        if (this.binderCount == this.binders.length) {
+                            this.binders = Arrays.copyOf(this.binders, this.binderCount * 2);
+                        }
+                        this.binders[this.binderCount++] = ((QuantifierNode) _node).getVariableSymbolId();
+                    } else if (!_node.isRoot()) {
+                        encoding[this.pos++] = _node.getCanonicalToken();
+                    }
+                    return true;
+                }
+
+                @Override
+                public void exit(WffTree _node, int _index, int _depth) {
+                    int start = this.starts[_depth];
+                    if (_node.isExistential() || _node.isUniversal()) {
+                        this.binderCount--;
+                    } else if (_node.isIdentity() && this.pos - start == 3 && encoding[start + 1] > encoding[start + 2]) {
+                        // Both operands of an identity are single terms, so ordering them is one swap.
+                        int tmp = encoding[start + 1];
+                        encoding[start + 1] = encoding[start + 2];
+                        encoding[start + 2] = tmp;
+                    }
+                }
+            });
+            caches.alphaEncoding = encoding;
+        }
+        return caches.alphaEncoding;
+    }
+
+    /**
+     * Returns the AC encoding of this wff. It is the alpha encoding, except that each maximal
+     * chain of the same associative and commutative operator (AND, OR, BICOND, or XOR) is
+     * flattened into one token followed by its operands, and the operands are sorted. The
+     * operand count is kept in bits 16-23 (saturating at 255), like the canonical encoding.
+     * It is built once per node and cached.
+     * <p>
+     * The returned array is shared and must not be modified.
+     *
+     * @return associativity- and commutativity-normalized token sequence of this WffTree.
+     */
+    public int[] getACEncoding() {
+        SideCaches caches = this.getSideCaches();
+        if (caches.acEncoding == null) {
+            // The tokens are written in prefix order into one buffer. A node that continues the
+            // chain of its parent's AC operator writes no token, so its operands are written
+            // as operands of the head of the chain. When a chain head or identity is done, the
+            // ranges of its operands are sorted in place.
+            final int[] encoding = new int[this.getAnalytics().getSize() - this.getAnalytics().getNodeTypeCount(NodeType.ROOT)];
+            final int[] length = new int[1];
+            WffTree.getWalker().walk(this, new TreeWalker.Visitor<WffTree>() {
+                /**
+                 * Position of the next token.
+                 */
+                private int pos;
+
+                /**
+                 * Nodes on the path, by depth.
+                 */
+                private WffTree[] path = new WffTree[16];
+
+                /**
+                 * Position of the first token of each node on the path, by depth.
+                 */
+                private int[] starts = new int[16];
+
+                /**
+                 * Index in operands of the first operand of each node on the path, by depth.
+                 */
+                private int[] firstOperands = new int[16];
+
+                /**
+                 * Start and end positions of the operands of the unfinished chain heads and identities.
+                 */
+                private int[] operands = new int[16];
+
+                private int operandCount;
+
+                /**
+                 * Symbol ids of the enclosing quantified variables, innermost last.
+                 */
+                private int[] binders = new int[8];
+
+                private int binderCount;
+
+                @Override
+                public boolean enter(WffTree _node, int _index, int _depth) {
+                    if (_depth == this.path.length) {
+                        this.path = Arrays.copyOf(this.path, _depth * 2);
+                        this.starts = Arrays.copyOf(this.starts, _depth * 2);
+                        this.firstOperands = Arrays.copyOf(this.firstOperands, _depth * 2);
+                    }
+                    if (_depth > 0) {
+                        _node.markCachedInParent();
+                    }
+                    this.path[_depth] = _node;
+                    this.starts[_depth] = this.pos;
+                    this.firstOperands[_depth] = this.operandCount;
+                    if (_node.isVariable()) {
+                        encoding[this.pos++] = WffTree.getVariableToken(_node, this.binders, this.binderCount);
+                    } else if (_node.isExistential() || _node.isUniversal()) {
+                        encoding[this.pos++] = _node.getCanonicalToken() | 0xFFFF;
+                        if (this.binderCount == this.binders.length) {
+                            this.binders = Arrays.copyOf(this.binders, this.binderCount * 2);
+                        }
+                        this.binders[this.binderCount++] = ((QuantifierNode) _node).getVariableSymbolId();
+                    } else if (_node.isAssociativeCommutative()) {
+                        if (!this.isChained(_depth)) {
+                            // The operand count is filled in on exit.
+                            encoding[this.pos++] = ((_node.nodeType.ordinal() + 1) << 24) | 0xFFFF;
+                        }
+                    } else if (!_node.isRoot()) {
+                        encoding[this.pos++] = _node.getCanonicalToken();
+                    }
+                    return true;
+                }
+
+                @Override
+                public void exit(WffTree _node, int _index, int _depth) {
+                    if (_node.isExistential() || _node.isUniversal()) {
+                        this.binderCount--;
+                    }
+                    boolean chained = this.isChained(_depth);
+                    if (!chained && (_node.isAssociativeCommutative() || _node.isIdentity())) {
+                        int first = this.firstOperands[_depth];
+                        int count = (this.operandCount - first) / 2;
+                        this.sortOperands(first, count);
+                        this.operandCount = first;
+                        if (_node.isAssociativeCommutative()) {
+                            encoding[this.starts[_depth]] |= Math.min(count, 0xFF) << 16;
+                        }
+                    }
+
+                    // Record this node as an operand of its parent's chain or identity.
+                    if (!chained && _depth > 0
+                            && (this.path[_depth - 1].isAssociativeCommutative() || this.path[_depth - 1].isIdentity())) {
+                        if (this.operandCount + 2 > this.operands.length) {
+                            this.operands = Arrays.copyOf(this.operands, this.operands.length * 2);
+                        }
+                        this.operands[this.operandCount++] = this.starts[_depth];
+                        this.operands[this.operandCount++] = this.pos;
+                    }
+                    length[0] = this.pos;
+                }
+
+                /**
+                 * @return true if the node at the given depth continues the AC chain of its parent.
+                 */
+                private boolean isChained(int _depth) {
+                    return _depth > 0 && this.path[_depth].isAssociativeCommutative()
+                            && this.path[_depth - 1].nodeType == this.path[_depth].nodeType;
+                }
+
+                /**
+                 * Sorts the given operand ranges, which are adjacent in the buffer, unless they
+                 * already are in order.
+                 */
+                private void sortOperands(int _first, int _count) {
+                    boolean sorted = true;
+                    for (int i = 1; i < _count && sorted; i++) {
+                        sorted = this.compareOperands(_first + 2 * (i - 1), _first + 2 * i) <= 0;
+                    }
+                    if (sorted) {
+                        return;
+                    }
+
+                    Integer[] order = new Integer[_count];
+                    for (int i = 0; i < _count; i++) {
+                        order[i] = _first + 2 * i;
+                    }
+                    Arrays.sort(order, new Comparator<Integer>() {
+                        @Override
+                        public int compare(Integer _a, Integer _b) {
+                            return compareOperands(_a, _b);
+                        }
+                    });
+                    int from = this.operands[_first];
+                    int[] sortedTokens = new int[this.operands[_first + 2 * _count - 1] - from];
+                    int pos = 0;
+                    for (int op : order) {
+                        int opLength = this.operands[op + 1] - this.operands[op];
+                        System.arraycopy(encoding, this.operands[op], sortedTokens, pos, opLength);
+                        pos += opLength;
+                    }
+                    System.arraycopy(sortedTokens, 0, encoding, from, sortedTokens.length);
+                }
+
+                private int compareOperands(int _a, int _b) {
+                    return Arrays.compare(encoding, this.operands[_a], this.operands[_a + 1],
+                            encoding, this.operands[_b], this.operands[_b + 1]);
+                }
+            });
+            caches.acEncoding = length[0] == encoding.length ? encoding : Arrays.copyOf(encoding, length[0]);
+        }
+        return caches.acEncoding;
+    }
+
+    private boolean isAssociativeCommutative() {
+        switch (this.nodeType) {
+            case AND:
+            case OR:
+            case BICOND:
+            case XOR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     /**
      * Recursively returns the tex command for this WffTree.
      *
@@ -404,8 +1271,8 @@ public class WffTree implements Copyable {
      */
     public String getTexCommand() {
         StringBuilder str = new StringBuilder();
-        for (WffTree ch : this.getChildren()) {
-            str.append(ch.getTexCommand());
+        for (int i = 0; i < this.childCount; i++) {
+            str.append(this.getChild(i).getTexCommand());
         }
         return str.toString();
     }
@@ -426,69 +1293,137 @@ public class WffTree implements Copyable {
         return this.nodeType.toString();
     }
 
-    private int allChildSizeCountHelper(WffTree _tree) {
-        int size = 0;
-        for (int i = 0; i < _tree.children.size(); i++) {
-            size += _tree.getChild(i).getChildrenSize() + this.allChildSizeCountHelper(_tree.getChild(i));
-        }
-
-        return size;
+    /**
+     * Determines if two identities are each other's reversal, i.e., x = y and y = x. Only
+     * identities of two single terms are matched, like in their canonical encodings.
+     *
+     * @param _id1 - first identity.
+     * @param _id2 - second identity.
+     * @return true if the identities are reversals of each other, false otherwise.
+     */
+    private static boolean isReversedIdentity(WffTree _id1, WffTree _id2) {
+        return _id1.childCount == 2 && _id2.childCount == 2
+                && _id1.getCanonicalToken() == _id2.getCanonicalToken()
+                && _id1.getChild(0).childCount == 0 && _id1.getChild(1).childCount == 0
+                && _id2.getChild(0).childCount == 0 && _id2.getChild(1).childCount == 0
+                && _id1.getChild(0).getCanonicalToken() == _id2.getChild(1).getCanonicalToken()
+                && _id1.getChild(1).getCanonicalToken() == _id2.getChild(0).getCanonicalToken();
     }
 
     /**
-     * Performs a recursive copy of all children in this truth tree.
-     * Applies to the second parameter.
+     * Returns the id of the part of this node that structural equality compares besides its
+     * type and children. Operator symbols are notation only, so they are not included.
      *
-     * @param _root    - root of tree to copy.
-     * @param _newTree - tree to copy into.
+     * @return id of the atom, constant, variable, or predicate letter, the id of the quantified
+     * variable of a quantifier, and SymbolTable.NO_SYMBOL for everything else.
      */
-    private void copyHelper(WffTree _root, WffTree _newTree) {
-        for (WffTree ch : _root.children) {
-            _newTree.addChild(ch.copy());
+    private int getStructuralSymbolId() {
+        switch (this.nodeType) {
+            case ATOM:
+            case CONSTANT:
+            case VARIABLE:
+            case PREDICATE:
+                return this.getSymbolId();
+            case EXISTENTIAL:
+            case UNIVERSAL:
+                return ((QuantifierNode) this).getVariableSymbolId();
+            default:
+                return SymbolTable.NO_SYMBOL;
         }
     }
 
     /**
-     * Recursive clear highlighting method. This removes all highlighting
-     * performed by the front-end or anything that suggests that *this* node
-     * is the result of some algorithm.
+     * Copies this wff without recursion. Interned subtrees are shared instead of copied, just
+     * like copy() does for them.
      *
-     * @param _root - root of WffTree.
+     * @return new copy of this WffTree.
      */
-    private void clearHighlightingHelper(WffTree _root) {
-        for (WffTree ch : _root.children) {
-            ch.setHighlighted(false);
-            this.clearHighlightingHelper(ch);
-        }
+    private WffTree copyHelper() {
+        // Post-order: each copy is built from the copies of its children, which are on top of the list.
+        final ArrayList<WffTree> copies = new ArrayList<>();
+        WffTree.getWalker().walk(this, new TreeWalker.Visitor<WffTree>() {
+            @Override
+            public boolean enter(WffTree _node, int _index, int _depth) {
+                return _node.interner == null;
+            }
+
+            @Override
+            public void exit(WffTree _node, int _index, int _depth) {
+                if (_node.interner != null) {
+                    copies.add(_node);
+                    return;
+                }
+
+                WffTree t = _node.shallowCopy();
+                int first = copies.size() - _node.childCount;
+                for (int i = first; i < copies.size(); i++) {
+                    t.addChild(copies.get(i));
+                }
+                copies.subList(first, copies.size()).clear();
+                copies.add(t);
+            }
+        });
+        return copies.get(0);
     }
 
     /**
-     * Recursive function to print a syntax tree. The current depth is passed
-     * as the "indent" parameter so that the output looks properly nested.
-     * Each recursive call for a child is indented by two additional spaces.
+     * Builds the printout of the syntax tree. Each node is indented by two spaces per level,
+     * and the children of a node are listed in parentheses, separated by commas.
      *
-     * @param indent current indentation level
      * @return a string representation of this syntax tree node (and its descendants)
      * @author Steve Tate
      */
-    private StringBuilder printSyntaxTreeHelper(int indent) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(NDTPUtils.repeatString(Math.max(0, indent), " "));
-        sb.append(this.toString());
-
-        if (!this.children.isEmpty()) {
-            sb.append(" (\n");
-            boolean isFirstChild = true;
-            for (WffTree child : this.children) {
-                if (!isFirstChild) {
+    private StringBuilder printSyntaxTreeHelper() {
+        final StringBuilder sb = new StringBuilder();
+        WffTree.getWalker().walk(this, new TreeWalker.Visitor<WffTree>() {
+            @Override
+            public boolean enter(WffTree _node, int _index, int _depth) {
+                if (_index != 0) {
                     sb.append(",\n");
                 }
-                isFirstChild = false;
-                sb.append(child.printSyntaxTreeHelper(indent + 2));
+                sb.append(NDTPUtils.repeatString(2 * _depth, " "));
+                sb.append(_node.toString());
+                if (_node.childCount != 0) {
+                    sb.append(" (\n");
+                }
+                return true;
             }
-            sb.append(")");
-        }
 
+            @Override
+            public void exit(WffTree _node, int _index, int _depth) {
+                if (_node.childCount != 0) {
+                    sb.append(")");
+                }
+            }
+        });
         return sb;
     }
+
+    /**
+     * Values that are cached on only a few nodes, kept out of WffTree so that the other nodes
+     * do not pay a field for each of them. Each is null until it is first built.
+     */
+    private static final class SideCaches {
+
+        private int[] canonicalEncoding;
+
+        private int[] alphaEncoding;
+
+        /**
+         * Key over the alpha encoding, so that its hash is computed only once.
+         */
+        private AlphaKey alphaKey;
+
+        private int[] acEncoding;
+
+        /**
+         * Interned negation (~node) of an interned node.
+         */
+        private WffTree negationLink;
+
+        /**
+         * Interned complement of an interned node (see WffTreeInterner.getComplement).
+         */
+        private WffTree complementLink;
+    }
 }
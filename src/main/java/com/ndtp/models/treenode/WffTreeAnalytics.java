@@ -0,0 +1,270 @@
+package com.ndtp.models.treenode;
+
+import java.util.Arrays;
+
+/**
+ * Facts about a wff that the algorithms keep asking for: its size, depth, which atoms and
+ * constants it uses, its free variables, and how many of each kind of node it has. Each
+ * WffTree builds these once, from the analytics of its children, and caches them, so reading
+ * any of them is O(1) instead of a traversal or a scan of the string representation.
+ * <p>
+ * Constants and free variables are kept as sorted arrays of SymbolTable ids. Instances are
+ * immutable, and a node with one child reuses the child's arrays whenever they do not change.
+ * The node type histogram leaves out the nodes of one type, which are counted separately, so
+ * leaves and chains of one unary operator (e.g., ~~~A) share a histogram instead of each
+ * allocating their own.
+ * </p>
+ */
+public final class WffTreeAnalytics {
+
+    /**
+     * Bit of the atom mask that is set for atoms whose symbol is not a letter from A to Z.
+     */
+    public static final long OTHER_ATOM_BIT = 1L << 63;
+
+    private static final int[] NO_IDS = new int[0];
+
+    private static final int NODE_TYPE_COUNT = NodeType.values().length;
+
+    /**
+     * Histogram of a wff without any nodes besides the separately counted ones.
+     */
+    private static final int[] NO_COUNTS = new int[NODE_TYPE_COUNT];
+
+    /**
+     * Number of nodes in the wff, including ROOT nodes.
+     */
+    private final int size;
+
+    /**
+     * Number of nodes on the longest path from the top of the wff to a leaf.
+     */
+    private final int depth;
+
+    /**
+     * Bit (letter - 'A') is set for each atom letter that occurs in the wff.
+     */
+    private final long atomMask;
+
+    /**
+     * Sorted, distinct symbol ids of the constants that occur in the wff.
+     */
+    private final int[] constantIds;
+
+    /**
+     * Sorted, distinct symbol ids of the variables that occur free in the wff.
+     */
+    private final int[] freeVariableIds;
+
+    /**
+     * Number of nodes of each NodeType, indexed by ordinal, except for the extraCount nodes of
+     * type extraType. Shared with other instances and never modified.
+     */
+    private final int[] nodeTypeCounts;
+
+    /**
+     * Ordinal of the NodeType whose extraCount nodes are not in nodeTypeCounts.
+     */
+    private final int extraType;
+
+    private final int extraCount;
+
+    private WffTreeAnalytics(int _size, int _depth, long _atomMask, int[] _constantIds,
+                             int[] _freeVariableIds, int[] _nodeTypeCounts, int _extraType, int _extraCount) {
+        this.size = _size;
+        this.depth = _depth;
+        this.atomMask = _atomMask;
+        this.constantIds = _constantIds;
+        this.freeVariableIds = _freeVariableIds;
+        this.nodeTypeCounts = _nodeTypeCounts;
+        this.extraType = _extraType;
+        this.extraCount = _extraCount;
+    }
+
+    /**
+     * Computes the analytics of a node from the (cached) analytics of its children.
+     *
+     * @param _node - node to analyze.
+     * @return analytics of the wff rooted at _node.
+     */
+    static WffTreeAnalytics of(WffTree _node) {
+        int size = 1;
+        int depth = 0;
+        long atomMask = 0;
+        int[] constantIds = NO_IDS;
+        int[] freeVariableIds = NO_IDS;
+        int type = _node.getNodeType().ordinal();
+
+        // This node is the extra node of its type, so a leaf needs no histogram of its own, and
+        // neither does a unary node whose child leaves out the same type.
+        int[] nodeTypeCounts = NO_COUNTS;
+        int extraCount = 1;
+        int childCount = _node.getChildrenSize();
+        if (childCount == 1 && _node.getChild(0).getAnalytics().extraType == type) {
+            nodeTypeCounts = _node.getChild(0).getAnalytics().nodeTypeCounts;
+            extraCount += _node.getChild(0).getAnalytics().extraCount;
+        } else if (childCount > 0) {
+            nodeTypeCounts = new int[NODE_TYPE_COUNT];
+        }
+
+        for (int i = 0; i < childCount; i++) {
+            WffTreeAnalytics ch = _node.getChild(i).getAnalytics();
+            size += ch.size;
+            depth = Math.max(depth, ch.depth);
+            atomMask |= ch.atomMask;
+            constantIds = WffTreeAnalytics.union(constantIds, ch.constantIds);
+            freeVariableIds = WffTreeAnalytics.union(freeVariableIds, ch.freeVariableIds);
+            if (nodeTypeCounts != ch.nodeTypeCounts) {
+                for (int t = 0; t < NODE_TYPE_COUNT; t++) {
+                    nodeTypeCounts[t] += ch.nodeTypeCounts[t];
+                }
+                nodeTypeCounts[ch.extraType] += ch.extraCount;
+            }
+        }
+
+        // Only terms have symbol ids; operator symbols are notation.
+        switch (_node.getNodeType()) {
+            case ATOM:
+                String atom = _node.getSymbol();
+                char letter = atom.length() == 1 ? atom.charAt(0) : 0;
+                atomMask |= (letter >= 'A' && letter <= 'Z') ? 1L << (letter - 'A') : OTHER_ATOM_BIT;
+                break;
+            case CONSTANT:
+                constantIds = WffTreeAnalytics.union(constantIds, new int[]{_node.getSymbolId()});
+                break;
+            case VARIABLE:
+                freeVariableIds = WffTreeAnalytics.union(freeVariableIds, new int[]{_node.getSymbolId()});
+                break;
+            case EXISTENTIAL:
+            case UNIVERSAL:
+                freeVariableIds = WffTreeAnalytics.remove(freeVariableIds, ((QuantifierNode) _node).getVariableSymbolId());
+                break;
+            default:
+                break;
+        }
+
+        return new WffTreeAnalytics(size, depth + 1, atomMask, constantIds, freeVariableIds, nodeTypeCounts, type, extraCount);
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return bitmask with bit (letter - 'A') set for each atom letter in the wff, and
+     * OTHER_ATOM_BIT set if there are atoms with any other symbol.
+     */
+    public long getAtomMask() {
+        return this.atomMask;
+    }
+
+    /**
+     * The returned array is shared and must not be modified.
+     *
+     * @return sorted symbol ids of the constants in the wff.
+     */
+    public int[] getConstantIds() {
+        return this.constantIds;
+    }
+
+    /**
+     * @param _symbolId - SymbolTable id of a constant.
+     * @return true if the constant occurs in the wff, false otherwise.
+     */
+    public boolean containsConstant(int _symbolId) {
+        return Arrays.binarySearch(this.constantIds, _symbolId) >= 0;
+    }
+
+    /**
+     * The returned array is shared and must not be modified.
+     *
+     * @return sorted symbol ids of the variables that occur free in the wff.
+     */
+    public int[] getFreeVariableIds() {
+        return this.freeVariableIds;
+    }
+
+    /**
+     * @param _symbolId - SymbolTable id of a variable.
+     * @return true if the variable occurs free in the wff, false otherwise.
+     */
+    public boolean containsFreeVariable(int _symbolId) {
+        return Arrays.binarySearch(this.freeVariableIds, _symbolId) >= 0;
+    }
+
+    public boolean hasFreeVariables() {
+        return this.freeVariableIds.length != 0;
+    }
+
+    /**
+     * @param _nodeType - type of node to count, e.g., an operator.
+     * @return number of nodes of that type in the wff.
+     */
+    public int getNodeTypeCount(NodeType _nodeType) {
+        int type = _nodeType.ordinal();
+        return this.nodeTypeCounts[type] + (type == this.extraType ? this.extraCount : 0);
+    }
+
+    /**
+     * @return total number of logical operators (connectives, negations, and quantifiers) in the wff.
+     */
+    public int getOperatorCount() {
+        return this.getNodeTypeCount(NodeType.AND) + this.getNodeTypeCount(NodeType.OR)
+                + this.getNodeTypeCount(NodeType.IMP) + this.getNodeTypeCount(NodeType.BICOND)
+                + this.getNodeTypeCount(NodeType.XOR) + this.getNodeTypeCount(NodeType.NEG)
+                + this.getNodeTypeCount(NodeType.EXISTENTIAL) + this.getNodeTypeCount(NodeType.UNIVERSAL);
+    }
+
+    /**
+     * Merges two sorted, distinct id arrays. Returns one of the inputs when the other adds nothing.
+     */
+    private static int[] union(int[] _a, int[] _b) {
+        if (_b.length == 0 || _a == _b) {
+            return _a;
+        } else if (_a.length == 0) {
+            return _b;
+        }
+
+        int[] out = new int[_a.length + _b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < _a.length && j < _b.length) {
+            if (_a[i] < _b[j]) {
+                out[n++] = _a[i++];
+            } else if (_a[i] > _b[j]) {
+                out[n++] = _b[j++];
+            } else {
+                out[n++] = _a[i++];
+                j++;
+            }
+        }
+        while (i < _a.length) {
+            out[n++] = _a[i++];
+        }
+        while (j < _b.length) {
+            out[n++] = _b[j++];
+        }
+
+        if (n == _a.length) {
+            return _a;
+        } else if (n == _b.length) {
+            return _b;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int[] remove(int[] _ids, int _id) {
+        int pos = Arrays.binarySearch(_ids, _id);
+        if (pos < 0) {
+            return _ids;
+        }
+
+        int[] out = new int[_ids.length - 1];
+        System.arraycopy(_ids, 0, out, 0, pos);
+        System.arraycopy(_ids, pos + 1, out, pos, _ids.length - pos - 1);
+        return out;
+    }
+}
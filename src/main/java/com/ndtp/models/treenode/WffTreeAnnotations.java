@@ -0,0 +1,152 @@
+package com.ndtp.models.treenode;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+
+/**
+ * Side table for the presentation and evaluation state of WffTree nodes: whether a node is
+ * highlighted, and the truth value it takes under each evaluation (e.g., each row of a truth
+ * table). None of the algorithms need this state, so it is kept out of the nodes themselves;
+ * that way the nodes can stay immutable and be shared between threads and cached results.
+ * <p>
+ * Each node that gets annotated is given a small id, and the state is stored in BitSets
+ * indexed by that id. Nodes are identified by reference, so an interned subtree that appears
+ * more than once in a formula has one set of annotations. Like ProverContext, an instance is
+ * not thread-safe and is meant for a single view or evaluation.
+ * </p>
+ */
+public final class WffTreeAnnotations {
+
+    /**
+     * Id of each node that has been annotated.
+     */
+    private final IdentityHashMap<WffTree, Integer> nodeIds;
+
+    /**
+     * Bit i is set if the node with id i is highlighted.
+     */
+    private final BitSet highlighted;
+
+    /**
+     * For each evaluation, bit i is the truth value of the node with id i.
+     */
+    private final ArrayList<BitSet> truthValues;
+
+    /**
+     * For each evaluation, bit i is set if the node with id i has been given a truth value.
+     */
+    private final ArrayList<BitSet> assigned;
+
+    public WffTreeAnnotations() {
+        this.nodeIds = new IdentityHashMap<>();
+        this.highlighted = new BitSet();
+        this.truthValues = new ArrayList<>();
+        this.assigned = new ArrayList<>();
+    }
+
+    public boolean isHighlighted(WffTree _node) {
+        Integer id = this.nodeIds.get(_node);
+        return id != null && this.highlighted.get(id);
+    }
+
+    public void setHighlighted(WffTree _node, boolean _highlighted) {
+        this.highlighted.set(this.getNodeId(_node), _highlighted);
+    }
+
+    /**
+     * Turns off highlighting for all nodes. Unlike walking the AST, this does not touch the nodes,
+     * so it is cheap to call before each algorithm runs.
+     */
+    public void clearHighlighting() {
+        this.highlighted.clear();
+    }
+
+    /**
+     * Sets the truth value of a node under one evaluation.
+     *
+     * @param _node       - node to annotate.
+     * @param _evaluation - index of the evaluation, starting from 0.
+     * @param _value      - truth value of the node under that evaluation.
+     */
+    public void setTruthValue(WffTree _node, int _evaluation, boolean _value) {
+        if (_evaluation < 0) {
+            throw new IllegalArgumentException("Evaluation index cannot be negative: " + _evaluation);
+        }
+
+        while (this.truthValues.size() <= _evaluation) {
+            this.truthValues.add(new BitSet());
+            this.assigned.add(new BitSet());
+        }
+        int id = this.getNodeId(_node);
+        this.truthValues.get(_evaluation).set(id, _value);
+        this.assigned.get(_evaluation).set(id);
+    }
+
+    /**
+     * @param _node       - node to look up.
+     * @param _evaluation - index of the evaluation.
+     * @return true if the node was given a truth value under the evaluation, false otherwise.
+     */
+    public boolean hasTruthValue(WffTree _node, int _evaluation) {
+        Integer id = this.nodeIds.get(_node);
+        return id != null && _evaluation >= 0 && _evaluation < this.assigned.size()
+                && this.assigned.get(_evaluation).get(id);
+    }
+
+    /**
+     * @param _node       - node to look up.
+     * @param _evaluation - index of the evaluation.
+     * @return truth value of the node under the evaluation.
+     * @throws IllegalStateException if the node was not given a truth value under the evaluation.
+     */
+    public boolean getTruthValue(WffTree _node, int _evaluation) {
+        if (!this.hasTruthValue(_node, _evaluation)) {
+            throw new IllegalStateException("No truth value for " + _node.getStringRep() + " in evaluation " + _evaluation + ".");
+        }
+        return this.truthValues.get(_evaluation).get(this.nodeIds.get(_node));
+    }
+
+    /**
+     * Returns the truth values of a node under evaluations 0, 1, ... up to the first evaluation
+     * that does not give it a value.
+     *
+     * @param _node - node to look up.
+     * @return ArrayList of the node's truth values, in evaluation order.
+     */
+    public ArrayList<Boolean> getTruthValues(WffTree _node) {
+        ArrayList<Boolean> values = new ArrayList<>();
+        for (int i = 0; this.hasTruthValue(_node, i); i++) {
+            values.add(this.getTruthValue(_node, i));
+        }
+        return values;
+    }
+
+    /**
+     * @return number of evaluations that have at least been started.
+     */
+    public int getEvaluationCount() {
+        return this.truthValues.size();
+    }
+
+    /**
+     * Drops all truth values, keeping the highlighting.
+     */
+    public void clearTruthValues() {
+        this.truthValues.clear();
+        this.assigned.clear();
+    }
+
+    private int getNodeId(WffTree _node) {
+        if (_node == null) {
+            throw new IllegalArgumentException("Cannot annotate a null WffTree.");
+        }
+
+        Integer id = this.nodeIds.get(_node);
+        if (id == null) {
+            id = this.nodeIds.size();
+            this.nodeIds.put(_node, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,400 @@
+package com.ndtp.models.treenode;
+
+import com.ndtp.tools.TreeWalker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Versioned binary format for a list of wffs, e.g., the list that the parser returns for an
+ * input. Decoding a list is much cheaper than parsing its text again, so parsed corpora can
+ * be cached on disk or sent to another process as is.
+ * <p>
+ * The format starts with a fixed header: the magic bytes "NDTW", a version byte, and the
+ * length of the rest in bytes (4 bytes, big-endian). The rest is written with unsigned
+ * variable-length ints (7 bits per byte, low bits first):
+ * <p>
+ * - the number of distinct symbols, then each symbol as its UTF-8 length and bytes.
+ * - the number of wffs, then for each wff its number of nodes and the nodes in postfix
+ * order. A node starts with a tag byte: the NodeType ordinal (bits 0-4), the number of
+ * children (bits 5-6; 3 means that the number follows as an int), and whether flags follow
+ * (bit 7). Then come its symbol (index into the symbols plus one, 0 for none), the quantified
+ * variable for quantifiers (same as the symbol), and its flags if it has any. Most nodes take
+ * two bytes.
+ * <p>
+ * Every symbol, operator alias, quantified variable, and flag is kept, so a decoded wff has
+ * the same string representation as the original. Because the nodes are in postfix order,
+ * decoding is one linear pass with a stack of finished subtrees, like PackedWff.toWffTree.
+ * Symbols are written as strings rather than SymbolTable ids, since those ids differ between
+ * processes. The NodeType ordinals are part of the format, so VERSION must change whenever
+ * NodeType does.
+ * </p>
+ */
+public final class WffTreeCodec {
+
+    /**
+     * Version of the format that this class writes; it only reads the same version.
+     */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'N', 'D', 'T', 'W'};
+
+    /**
+     * Magic bytes, version byte, and payload length.
+     */
+    private static final int HEADER_BYTES = MAGIC.length + 1 + Integer.BYTES;
+
+    /**
+     * Number of payload bytes read from a stream at a time.
+     */
+    private static final int READ_CHUNK_BYTES = 8192;
+
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+
+    private static final int TAG_TYPE_MASK = 0x1F;
+
+    private static final int TAG_CHILDREN_SHIFT = 5;
+
+    /**
+     * Value of the child count bits that means the count is written separately.
+     */
+    private static final int TAG_MANY_CHILDREN = 3;
+
+    private static final int TAG_HAS_FLAGS = 0x80;
+
+    private WffTreeCodec() {
+    }
+
+    /**
+     * Encodes a list of wffs.
+     *
+     * @param _wffTreeList - wffs to encode, e.g., from NDTPParserAdapter.getAbstractSyntaxTree.
+     * @return heap ByteBuffer, ready to be read, that holds the encoding.
+     */
+    public static ByteBuffer encode(ArrayList<WffTree> _wffTreeList) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WffTreeCodec.encodeTo(_wffTreeList, out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    /**
+     * Encodes a list of wffs into a ByteBuffer at its position, and advances the position.
+     *
+     * @param _wffTreeList - wffs to encode.
+     * @param _buffer      - buffer to write to.
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough room.
+     */
+    public static void encode(ArrayList<WffTree> _wffTreeList, ByteBuffer _buffer) {
+        _buffer.put(WffTreeCodec.encode(_wffTreeList));
+    }
+
+    /**
+     * Encodes a list of wffs into a stream. The stream is not closed.
+     *
+     * @param _wffTreeList - wffs to encode.
+     * @param _out         - stream to write to.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public static void encode(ArrayList<WffTree> _wffTreeList, OutputStream _out) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WffTreeCodec.encodeTo(_wffTreeList, out);
+        out.writeTo(_out);
+    }
+
+    /**
+     * Decodes a list of wffs from a ByteBuffer at its position, and advances the position past it.
+     *
+     * @param _buffer - buffer to read from.
+     * @return ArrayList of new (mutable) WffTrees, in the order they were encoded.
+     * @throws IllegalArgumentException if the buffer does not hold an encoding of this version.
+     */
+    public static ArrayList<WffTree> decode(ByteBuffer _buffer) {
+        try {
+            byte[] header = new byte[HEADER_BYTES];
+            _buffer.get(header);
+            int length = WffTreeCodec.readHeader(header);
+            if (_buffer.remaining() < length) {
+                throw new IllegalArgumentException("Encoded wff list is truncated.");
+            }
+            ByteBuffer payload = _buffer.slice();
+            payload.limit(length);
+            ArrayList<WffTree> wffTreeList = WffTreeCodec.decodePayload(payload);
+            _buffer.position(_buffer.position() + length);
+            return wffTreeList;
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Encoded wff list is truncated.");
+        }
+    }
+
+    /**
+     * Decodes a list of wffs from a stream, reading exactly the bytes of one encoding.
+     * The stream is not closed.
+     *
+     * @param _in - stream to read from.
+     * @return ArrayList of new (mutable) WffTrees, in the order they were encoded.
+     * @throws IOException              if the stream cannot be read or ends too early.
+     * @throws IllegalArgumentException if the stream does not hold an encoding of this version.
+     */
+    public static ArrayList<WffTree> decode(InputStream _in) throws IOException {
+        DataInputStream in = new DataInputStream(_in);
+        byte[] header = new byte[HEADER_BYTES];
+        in.readFully(header);
+        int length = WffTreeCodec.readHeader(header);
+
+        // The length is not trusted, so the payload is read in chunks and only grows as far as
+        // the stream actually goes.
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(Math.min(length, READ_CHUNK_BYTES));
+        byte[] chunk = new byte[Math.min(length, READ_CHUNK_BYTES)];
+        for (int remaining = length; remaining > 0; remaining -= chunk.length) {
+            if (remaining < chunk.length) {
+                chunk = new byte[remaining];
+            }
+            in.readFully(chunk);
+            payload.write(chunk, 0, chunk.length);
+        }
+        try {
+            return WffTreeCodec.decodePayload(ByteBuffer.wrap(payload.toByteArray()));
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Encoded wff list is truncated.");
+        }
+    }
+
+    private static void encodeTo(ArrayList<WffTree> _wffTreeList, ByteArrayOutputStream _out) {
+        if (_wffTreeList == null) {
+            throw new IllegalArgumentException("Cannot encode a null wff list.");
+        }
+
+        final HashMap<String, Integer> symbolIds = new HashMap<>();
+        final ArrayList<String> symbols = new ArrayList<>();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        WffTreeCodec.writeInt(body, _wffTreeList.size());
+        for (WffTree wff : _wffTreeList) {
+            if (wff == null) {
+                throw new IllegalArgumentException("Cannot encode a null WffTree.");
+            }
+            WffTreeCodec.writeInt(body, wff.getAnalytics().getSize());
+            WffTree.getWalker().walk(wff, new TreeWalker.Visitor<WffTree>() {
+                @Override
+                public boolean enter(WffTree _node, int _index, int _depth) {
+                    return true;
+                }
+
+                @Override
+                public void exit(WffTree _node, int _index, int _depth) {
+                    int childCount = _node.getChildrenSize();
+                    int tag = _node.getNodeType().ordinal()
+                            | (Math.min(childCount, TAG_MANY_CHILDREN) << TAG_CHILDREN_SHIFT)
+                            | (_node.getFlags() != 0 ? TAG_HAS_FLAGS : 0);
+                    body.write(tag);
+                    if (childCount >= TAG_MANY_CHILDREN) {
+                        WffTreeCodec.writeInt(body, childCount);
+                    }
+                    WffTreeCodec.writeInt(body, WffTreeCodec.getSymbolIndex(_node.getSymbol(), symbolIds, symbols));
+                    if (_node instanceof QuantifierNode) {
+                        String variable = ((QuantifierNode) _node).getVariableSymbol();
+                        WffTreeCodec.writeInt(body, WffTreeCodec.getSymbolIndex(variable, symbolIds, symbols));
+                    }
+                    if (_node.getFlags() != 0) {
+                        WffTreeCodec.writeInt(body, _node.getFlags());
+                    }
+                }
+            });
+        }
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(body.size() + 16 * symbols.size() + 8);
+        WffTreeCodec.writeInt(payload, symbols.size());
+        for (String symbol : symbols) {
+            byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+            WffTreeCodec.writeInt(payload, bytes.length);
+            payload.write(bytes, 0, bytes.length);
+        }
+        payload.write(body.toByteArray(), 0, body.size());
+
+        int length = payload.size();
+        _out.write(MAGIC, 0, MAGIC.length);
+        _out.write(VERSION);
+        _out.write(length >>> 24);
+        _out.write(length >>> 16);
+        _out.write(length >>> 8);
+        _out.write(length);
+        _out.write(payload.toByteArray(), 0, length);
+    }
+
+    /**
+     * Checks the magic bytes and version.
+     *
+     * @return length of the payload that follows the header.
+     */
+    private static int readHeader(byte[] _header) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (_header[i] != MAGIC[i]) {
+                throw new IllegalArgumentException("Not an encoded wff list.");
+            }
+        }
+        int version = _header[MAGIC.length] & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Cannot decode version " + version + " of the wff list format, only version " + VERSION + ".");
+        }
+
+        int p = MAGIC.length + 1;
+        int length = ((_header[p] & 0xFF) << 24) | ((_header[p + 1] & 0xFF) << 16)
+                | ((_header[p + 2] & 0xFF) << 8) | (_header[p + 3] & 0xFF);
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid length for encoded wff list: " + length + ".");
+        }
+        return length;
+    }
+
+    /**
+     * Decodes the symbols and wffs, which must fill the buffer exactly.
+     */
+    private static ArrayList<WffTree> decodePayload(ByteBuffer _in) {
+        // Every symbol and wff takes at least one byte, so no count can exceed the bytes left.
+        String[] symbols = new String[WffTreeCodec.readBoundedCount(_in)];
+        for (int i = 0; i < symbols.length; i++) {
+            byte[] bytes = new byte[WffTreeCodec.readBoundedCount(_in)];
+            _in.get(bytes);
+            symbols[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int wffCount = WffTreeCodec.readBoundedCount(_in);
+        ArrayList<WffTree> wffTreeList = new ArrayList<>();
+        WffTree[] stack = new WffTree[16];
+        for (int w = 0; w < wffCount; w++) {
+            int nodeCount = WffTreeCodec.readBoundedCount(_in);
+            if (nodeCount == 0) {
+                throw new IllegalArgumentException("Encoded wff " + w + " has no nodes.");
+            }
+
+            // Postfix: the children of each node are the last finished subtrees on the stack.
+            int top = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                int tag = _in.get() & 0xFF;
+                int ordinal = tag & TAG_TYPE_MASK;
+                if (ordinal >= NODE_TYPES.length) {
+                    throw new IllegalArgumentException("Invalid node type " + ordinal + " in encoded wff " + w + ".");
+                }
+                NodeType nodeType = NODE_TYPES[ordinal];
+                int childCount = (tag >>> TAG_CHILDREN_SHIFT) & TAG_MANY_CHILDREN;
+                if (childCount == TAG_MANY_CHILDREN) {
+                    childCount = WffTreeCodec.readCount(_in);
+                }
+                if (childCount > top) {
+                    throw new IllegalArgumentException("Node " + i + " of encoded wff " + w + " has missing children.");
+                }
+                String symbol = WffTreeCodec.getSymbol(symbols, WffTreeCodec.readCount(_in));
+                String variable = nodeType == NodeType.EXISTENTIAL || nodeType == NodeType.UNIVERSAL
+                        ? WffTreeCodec.getSymbol(symbols, WffTreeCodec.readCount(_in))
+                        : null;
+                int flags = (tag & TAG_HAS_FLAGS) != 0 ? WffTreeCodec.readInt(_in) : 0;
+
+                WffTree node = PackedWff.createNode(nodeType, symbol, variable);
+                for (int c = top - childCount; c < top; c++) {
+                    node.addChild(stack[c]);
+                    stack[c] = null;
+                }
+                top -= childCount;
+                if (flags != 0) {
+                    node.setFlags(flags);
+                }
+
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = node;
+            }
+
+            if (top != 1) {
+                throw new IllegalArgumentException("Encoded wff " + w + " does not have a single root.");
+            }
+            wffTreeList.add(stack[0]);
+            stack[0] = null;
+        }
+
+        if (_in.hasRemaining()) {
+            throw new IllegalArgumentException("Encoded wff list has " + _in.remaining() + " unexpected trailing bytes.");
+        }
+        return wffTreeList;
+    }
+
+    /**
+     * @return index of the symbol plus one, or 0 if it is null.
+     */
+    private static int getSymbolIndex(String _symbol, HashMap<String, Integer> _symbolIds, ArrayList<String> _symbols) {
+        if (_symbol == null) {
+            return 0;
+        }
+
+        Integer id = _symbolIds.get(_symbol);
+        if (id == null) {
+            _symbols.add(_symbol);
+            id = _symbols.size();
+            _symbolIds.put(_symbol, id);
+        }
+        return id;
+    }
+
+    private static String getSymbol(String[] _symbols, int _index) {
+        if (_index > _symbols.length) {
+            throw new IllegalArgumentException("Invalid symbol index " + _index + " in encoded wff list.");
+        }
+        return _index == 0 ? null : _symbols[_index - 1];
+    }
+
+    /**
+     * Writes an int as an unsigned variable-length int.
+     */
+    private static void writeInt(ByteArrayOutputStream _out, int _value) {
+        int value = _value;
+        while ((value & ~0x7F) != 0) {
+            _out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        _out.write(value);
+    }
+
+    private static int readInt(ByteBuffer _in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = _in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid variable-length int in encoded wff list.");
+    }
+
+    /**
+     * Reads a count or length, which cannot be negative.
+     */
+    private static int readCount(ByteBuffer _in) {
+        int count = WffTreeCodec.readInt(_in);
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid count in encoded wff list: " + count + ".");
+        }
+        return count;
+    }
+
+    /**
+     * Reads a count or length of items that each take at least one of the remaining bytes, so
+     * that nothing is allocated for a count that the input cannot hold.
+     */
+    private static int readBoundedCount(ByteBuffer _in) {
+        int count = WffTreeCodec.readCount(_in);
+        if (count > _in.remaining()) {
+            throw new IllegalArgumentException("Invalid count in encoded wff list: " + count
+                    + " is more than the " + _in.remaining() + " bytes left.");
+        }
+        return count;
+    }
+}
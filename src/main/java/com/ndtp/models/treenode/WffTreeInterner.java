@@ -0,0 +1,259 @@
+package com.ndtp.models.treenode;
+
+import com.ndtp.tools.TreeWalker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Hash-conses WffTree nodes so that structurally identical formulas share one immutable
+ * instance. Interning works bottom-up: the children of a node are interned first, so two
+ * nodes are structurally identical exactly when their type, symbol, flags, and (already
+ * canonical) children references match. That makes the lookup O(1) per node.
+ * <p>
+ * The interner never modifies the wffs that it is given. The canonical instance of a
+ * structure is a new node that the interner creates the first time it sees the structure,
+ * and the interner records itself as the node's owner. Interned nodes reject addChild,
+ * setChild, setSymbol, and setFlags, and copy() on them simply returns the node. This lets
+ * the algorithms share premises and instantiated quantifier bodies across branches instead
+ * of deep copying them. A node owned by another interner is treated like any other input,
+ * so interners (and the sessions that they belong to) never share nodes, or write to each
+ * other's.
+ * </p>
+ * The interner is not thread-safe; use one per validator/generator or batch.
+ */
+public final class WffTreeInterner {
+
+    /**
+     * Maps a node's structure to its canonical instance.
+     */
+    private final HashMap<InternKey, WffTree> table;
+
+    /**
+     * Supplies the shared constant, variable, and atom leaves.
+     */
+    private final SymbolTable symbolTable;
+
+    public WffTreeInterner() {
+        this.table = new HashMap<>();
+        this.symbolTable = new SymbolTable(this);
+    }
+
+    /**
+     * Returns the canonical instance of a WffTree. _tree itself is not modified: the first
+     * time a structure is seen, a canonical copy of the node is created from the canonical
+     * instances of its children. Constants, variables, and atoms are swapped for the shared
+     * leaves of the symbol table. The tree is walked without recursion, so its depth is not
+     * bounded by the thread's stack.
+     *
+     * @param _tree - WffTree to intern.
+     * @return interned WffTree that is structurally identical to _tree.
+     */
+    public WffTree intern(WffTree _tree) {
+        if (_tree == null || this.owns(_tree)) {
+            return _tree;
+        }
+
+        // Post-order: each node is interned from the canonical children on top of the list.
+        final ArrayList<WffTree> canonical = new ArrayList<>();
+        WffTree.getWalker().walk(_tree, new TreeWalker.Visitor<WffTree>() {
+            @Override
+            public boolean enter(WffTree _node, int _index, int _depth) {
+                return !WffTreeInterner.this.owns(_node);
+            }
+
+            @Override
+            public void exit(WffTree _node, int _index, int _depth) {
+                if (WffTreeInterner.this.owns(_node)) {
+                    canonical.add(_node);
+                    return;
+                }
+
+                int first = canonical.size() - _node.getChildrenSize();
+                WffTree[] children = new WffTree[_node.getChildrenSize()];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = canonical.get(first + i);
+                }
+                canonical.subList(first, canonical.size()).clear();
+                canonical.add(WffTreeInterner.this.internNode(_node, children));
+            }
+        });
+        return canonical.get(0);
+    }
+
+    /**
+     * @param _tree - WffTree to check.
+     * @return true if _tree is the canonical instance of its structure in this interner.
+     */
+    public boolean owns(WffTree _tree) {
+        return _tree != null && _tree.getInterner() == this;
+    }
+
+    /**
+     * Returns the interned negation ~_tree. The result is cached on _tree, so asking for the
+     * negation of the same node again does not allocate.
+     *
+     * @param _tree      - interned WffTree to negate.
+     * @param _negSymbol - symbol of the negation, or null for the default.
+     * @return interned NegNode whose child is _tree.
+     * @throws IllegalArgumentException if _tree is not interned by this interner.
+     */
+    public WffTree getNegation(WffTree _tree, String _negSymbol) {
+        this.checkOwned(_tree);
+        String symbol = _negSymbol == null ? NegNode.DEFAULT_SYMBOL : _negSymbol;
+        WffTree negation = _tree.getNegationLink();
+        if (negation == null || !negation.getSymbol().equals(symbol)) {
+            NegNode neg = new NegNode(symbol);
+            neg.addChild(_tree);
+            negation = this.intern(neg);
+            _tree.setNegationLink(negation);
+            if (negation.getComplementLink() == null) {
+                negation.setComplementLink(_tree);
+            }
+        }
+        return negation;
+    }
+
+    /**
+     * Returns the interned complement of a wff, i.e., the wff that closes a branch against it:
+     * ~P for P, P for ~P, (∀x)~P for (∃x)P, and (∃x)~P for (∀x)P. The result is cached on _tree,
+     * and two complements are equal exactly when they are the same reference.
+     *
+     * @param _tree      - interned WffTree to complement.
+     * @param _negSymbol - symbol of any negation that has to be created, or null for the default.
+     * @return interned complement of _tree.
+     * @throws IllegalArgumentException if _tree is not interned by this interner.
+     */
+    public WffTree getComplement(WffTree _tree, String _negSymbol) {
+        this.checkOwned(_tree);
+        if (_tree.isNegation()) {
+            return _tree.getChild(0);
+        }
+
+        String symbol = _negSymbol == null ? NegNode.DEFAULT_SYMBOL : _negSymbol;
+        WffTree complement = _tree.getComplementLink();
+        if (complement != null) {
+            WffTree neg = _tree.isExistential() || _tree.isUniversal() ? complement.getChild(0) : complement;
+            if (neg.getSymbol().equals(symbol)) {
+                return complement;
+            }
+        }
+
+        if (_tree.isExistential() || _tree.isUniversal()) {
+            // Quantifier duality: push the negation through the quantifier.
+            String variable = ((QuantifierNode) _tree).getVariableSymbol();
+            WffTree dual = _tree.isExistential() ? new UniversalQuantifierNode(variable) : new ExistentialQuantifierNode(variable);
+            dual.addChild(this.getNegation(_tree.getChild(0), symbol));
+            complement = this.intern(dual);
+        } else {
+            complement = this.getNegation(_tree, symbol);
+        }
+        _tree.setComplementLink(complement);
+        return complement;
+    }
+
+    /**
+     * Returns the canonical instance of a node whose children have been interned.
+     *
+     * @param _node     - node to intern; it is not modified.
+     * @param _children - canonical instances of the children of _node.
+     * @return canonical instance of _node.
+     */
+    private WffTree internNode(WffTree _node, WffTree[] _children) {
+        // Constants, variables, and atoms all come from the symbol table.
+        WffTree leaf = this.symbolTable.getSharedLeaf(_node);
+        if (leaf != null) {
+            return leaf;
+        }
+
+        InternKey key = new InternKey(_node, _children);
+        WffTree canonical = this.table.get(key);
+        if (canonical == null) {
+            canonical = _node.shallowCopy();
+            for (WffTree ch : _children) {
+                canonical.addChild(ch);
+            }
+            canonical.setInterner(this);
+            this.table.put(key, canonical);
+        }
+        return canonical;
+    }
+
+    public SymbolTable getSymbolTable() {
+        return this.symbolTable;
+    }
+
+    /**
+     * @return number of distinct nodes held by this interner, not counting shared leaves.
+     */
+    public int size() {
+        return this.table.size();
+    }
+
+    /**
+     * Negation links are written to the node, so they are only kept for this interner's own nodes.
+     */
+    private void checkOwned(WffTree _tree) {
+        if (!this.owns(_tree)) {
+            throw new IllegalArgumentException("Negation links are only kept for WffTrees interned by this interner.");
+        }
+    }
+
+    /**
+     * Identifies a node by its own data plus the identities of its interned children.
+     */
+    private static final class InternKey {
+
+        private final NodeType nodeType;
+
+        private final String symbol;
+
+        private final String variableSymbol;
+
+        private final int flags;
+
+        private final WffTree[] children;
+
+        private final int hash;
+
+        private InternKey(WffTree _tree, WffTree[] _children) {
+            this.nodeType = _tree.getNodeType();
+            this.symbol = _tree.getSymbol();
+            this.variableSymbol = _tree instanceof QuantifierNode ? ((QuantifierNode) _tree).getVariableSymbol() : null;
+            this.flags = _tree.getFlags();
+            this.children = _children;
+
+            int h = Objects.hash(this.nodeType, this.symbol, this.variableSymbol, this.flags);
+            for (WffTree ch : _children) {
+                h = 31 * h + System.identityHashCode(ch);
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object _obj) {
+            if (!(_obj instanceof InternKey)) {
+                return false;
+            }
+            InternKey o = (InternKey) _obj;
+            if (this.hash != o.hash || this.nodeType != o.nodeType || this.flags != o.flags
+                    || this.children.length != o.children.length
+                    || !Objects.equals(this.symbol, o.symbol)
+                    || !Objects.equals(this.variableSymbol, o.variableSymbol)) {
+                return false;
+            }
+            for (int i = 0; i < this.children.length; i++) {
+                if (this.children[i] != o.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
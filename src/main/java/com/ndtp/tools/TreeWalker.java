@@ -0,0 +1,220 @@
+package com.ndtp.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Walks a tree (or a DAG) with an explicit stack instead of recursion, so the depth of the
+ * tree is bounded by the heap rather than by the thread's stack. The same walker is used for
+ * WffTree, TruthTree, and NDWffTree; a ChildAccessor tells it how to get the children of a node.
+ * <p>
+ * The stack arrays are kept between walks and only grow, so a walker that is reused does not
+ * allocate once it has seen its deepest tree. A walk may start another walk on the same walker
+ * (e.g., from a Visitor); the inner walk simply runs on top of the outer one's stack. A walker
+ * is not thread-safe, so shared walkers should be kept per thread.
+ * </p>
+ *
+ * @param <T> type of the nodes.
+ */
+public final class TreeWalker<T> {
+
+    /**
+     * Returns the children of a node. A null child is skipped, so e.g. a missing left or right
+     * branch does not need special handling.
+     */
+    public interface ChildAccessor<T> {
+
+        int getChildCount(T _node);
+
+        T getChild(T _node, int _index);
+    }
+
+    /**
+     * Callbacks for a depth-first walk. Every node that is entered is also exited, after all
+     * of its children (if any were walked) have been exited.
+     */
+    public interface Visitor<T> {
+
+        /**
+         * @param _node  - node being entered.
+         * @param _index - position of the node among its parent's children; 0 for the root.
+         * @param _depth - number of ancestors of the node in this walk.
+         * @return true to walk the children of _node, false to skip them.
+         */
+        boolean enter(T _node, int _index, int _depth);
+
+        /**
+         * @param _node  - node being exited.
+         * @param _index - position of the node among its parent's children; 0 for the root.
+         * @param _depth - number of ancestors of the node in this walk.
+         */
+        void exit(T _node, int _index, int _depth);
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ChildAccessor<T> accessor;
+
+    /**
+     * Nodes on the path from the root of the walk to the current node.
+     */
+    private Object[] nodes;
+
+    /**
+     * Index of the next child to visit for each node on the stack.
+     */
+    private int[] nextChild;
+
+    /**
+     * Index of each node on the stack among its parent's children.
+     */
+    private int[] childIndex;
+
+    private int size;
+
+    public TreeWalker(ChildAccessor<T> _accessor) {
+        if (_accessor == null) {
+            throw new IllegalArgumentException("TreeWalker needs a ChildAccessor.");
+        }
+        this.accessor = _accessor;
+        this.nodes = new Object[INITIAL_CAPACITY];
+        this.nextChild = new int[INITIAL_CAPACITY];
+        this.childIndex = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Walks the tree rooted at _root depth-first, calling _visitor when each node is entered and
+     * exited. Children are visited in index order.
+     *
+     * @param _root    - node to start from. Nothing is visited if it is null.
+     * @param _visitor - callbacks to run.
+     */
+    @SuppressWarnings("unchecked")
+    public void walk(T _root, Visitor<T> _visitor) {
+        if (_root == null) {
+            return;
+        }
+
+        int base = this.size;
+        this.push(_root, 0);
+        try {
+            if (!_visitor.enter(_root, 0, 0)) {
+                this.nextChild[base] = Integer.MAX_VALUE;
+            }
+
+            while (this.size > base) {
+                int top = this.size - 1;
+                T node = (T) this.nodes[top];
+                if (this.nextChild[top] < this.accessor.getChildCount(node)) {
+                    int i = this.nextChild[top]++;
+                    T child = this.accessor.getChild(node, i);
+                    if (child != null) {
+                        this.push(child, i);
+                        if (!_visitor.enter(child, i, top + 1 - base)) {
+                            this.nextChild[top + 1] = Integer.MAX_VALUE;
+                        }
+                    }
+                } else {
+                    _visitor.exit(node, this.childIndex[top], top - base);
+                    this.nodes[top] = null;
+                    this.size--;
+                }
+            }
+        } finally {
+            // Unwind whatever a throwing visitor left behind, so the walker stays usable.
+            while (this.size > base) {
+                this.nodes[--this.size] = null;
+            }
+        }
+    }
+
+    /**
+     * Appends the nodes of a tree to _out in pre-order, i.e., each node before its children.
+     *
+     * @param _root - node to start from.
+     * @param _out  - list to append to.
+     */
+    public void preOrder(T _root, final ArrayList<T> _out) {
+        this.walk(_root, new Visitor<T>() {
+            @Override
+            public boolean enter(T _node, int _index, int _depth) {
+                _out.add(_node);
+                return true;
+            }
+
+            @Override
+            public void exit(T _node, int _index, int _depth) {
+            }
+        });
+    }
+
+    /**
+     * Appends the nodes of a tree to _out in post-order, i.e., each node after its children.
+     *
+     * @param _root - node to start from.
+     * @param _out  - list to append to.
+     */
+    public void postOrder(T _root, final ArrayList<T> _out) {
+        this.walk(_root, new Visitor<T>() {
+            @Override
+            public boolean enter(T _node, int _index, int _depth) {
+                return true;
+            }
+
+            @Override
+            public void exit(T _node, int _index, int _depth) {
+                _out.add(_node);
+            }
+        });
+    }
+
+    /**
+     * Appends the leaves of a tree, i.e., the nodes without any non-null children, to _out
+     * from left to right.
+     *
+     * @param _root - node to start from.
+     * @param _out  - list to append to.
+     */
+    public void leaves(T _root, final ArrayList<T> _out) {
+        this.walk(_root, new Visitor<T>() {
+            @Override
+            public boolean enter(T _node, int _index, int _depth) {
+                if (TreeWalker.this.isLeaf(_node)) {
+                    _out.add(_node);
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void exit(T _node, int _index, int _depth) {
+            }
+        });
+    }
+
+    /**
+     * @param _node - node to check.
+     * @return true if _node has no non-null children, false otherwise.
+     */
+    public boolean isLeaf(T _node) {
+        for (int i = 0; i < this.accessor.getChildCount(_node); i++) {
+            if (this.accessor.getChild(_node, i) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void push(T _node, int _index) {
+        if (this.size == this.nodes.length) {
+            int capacity = this.size * 2;
+            this.nodes = Arrays.copyOf(this.nodes, capacity);
+            this.nextChild = Arrays.copyOf(this.nextChild, capacity);
+            this.childIndex = Arrays.copyOf(this.childIndex, capacity);
+        }
+        this.nodes[this.size] = _node;
+        this.nextChild[this.size] = 0;
+        this.childIndex[this.size] = _index;
+        this.size++;
+    }
+}
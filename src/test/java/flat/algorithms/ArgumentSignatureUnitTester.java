@@ -0,0 +1,86 @@
+package flat.algorithms;
+
+import com.ndtp.algorithms.models.ArgumentSignature;
+import com.ndtp.input.NDTPParserAdapter;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ArgumentSignatureUnitTester {
+
+    private static ArgumentSignature signature(String argument) {
+        return new ArgumentSignature(NDTPParserAdapter.getAbstractSyntaxTree(argument), new ProverContext().getSymbolTable());
+    }
+
+    @Test
+    public void testRenamedAtoms() {
+        ArgumentSignature first = signature("(P → Q), P ∴ Q");
+        ArgumentSignature second = signature("(A → B), A ∴ B");
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        HashMap<String, String> renaming = first.getRenaming(second);
+        HashMap<String, String> expected = new HashMap<>();
+        expected.put("P", "A");
+        expected.put("Q", "B");
+        assertEquals(expected, renaming);
+        assertEquals(new ArrayList<>(Arrays.asList("P", "Q")), first.getSymbols(NodeType.ATOM));
+        assertEquals(new ArrayList<>(Arrays.asList("A", "B")), second.getSymbols(NodeType.ATOM));
+    }
+
+    @Test
+    public void testNotation() {
+        assertEquals(signature("(P → Q), P ∴ Q"), signature("(A->B), A ⊢ B"));
+        assertEquals(signature("(P & Q) ∴ P"), signature("(R ∧ S) => R"));
+    }
+
+    @Test
+    public void testDifferentShapes() {
+        // The premises are the same, but the conclusion is the other atom.
+        assertNotEquals(signature("(P → Q), P ∴ Q"), signature("(P → Q), P ∴ P"));
+        // Two atoms cannot be renamed into one.
+        assertNotEquals(signature("(P → Q), P ∴ Q"), signature("(P → P), P ∴ P"));
+        assertThrows(IllegalArgumentException.class,
+                () -> signature("(P → Q), P ∴ Q").getRenaming(signature("(P → Q), P ∴ P")));
+    }
+
+    @Test
+    public void testBoundVariables() {
+        ArgumentSignature first = signature("(∀x)(∃y)Rxy ∴ (∃y)Rby");
+        ArgumentSignature second = signature("(∀z)(∃w)Szw ∴ (∃v)Scv");
+        assertEquals(first, second);
+
+        // Bound variables are not labeled, so only the predicate letter and constant are renamed.
+        HashMap<String, String> expected = new HashMap<>();
+        expected.put("R", "S");
+        expected.put("b", "c");
+        assertEquals(expected, first.getRenaming(second));
+        assertEquals(new ArrayList<String>(), first.getSymbols(NodeType.VARIABLE));
+
+        // Swapping the bound variables in the predicate changes which quantifier binds each argument.
+        assertNotEquals(signature("(∀x)(∃y)Rxy ∴ (∃y)Rby"), signature("(∀x)(∃y)Ryx ∴ (∃y)Rby"));
+    }
+
+    @Test
+    public void testFreeVariableIsNotConstant() {
+        ArgumentSignature constant = signature("(∀x)Fx ∴ Fa");
+        ArgumentSignature variable = signature("(∀x)Fx ∴ Fx");
+        assertNotEquals(constant, variable);
+        assertEquals(new ArrayList<>(Arrays.asList("a")), constant.getSymbols(NodeType.CONSTANT));
+        assertEquals(new ArrayList<>(Arrays.asList("x")), variable.getSymbols(NodeType.VARIABLE));
+    }
+
+    @Test
+    public void testEmptyArgument() {
+        assertThrows(IllegalArgumentException.class, () -> new ArgumentSignature(new ArrayList<>()));
+        assertThrows(IllegalArgumentException.class, () -> signature("(P → Q), P ∴ Q").getSymbols(NodeType.AND));
+    }
+}
@@ -3,6 +3,8 @@ package flat.algorithms;
 import com.ndtp.algorithms.ArgumentTruthTreeValidator;
 import com.ndtp.input.NDTPParserListener;
 import com.ndtp.input.tests.ParserTest;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.WffTree;
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
 
@@ -12,9 +14,15 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class ArgumentTruthTreeValidatorUnitTester {
@@ -131,6 +139,39 @@ public class ArgumentTruthTreeValidatorUnitTester {
         compare(actual, expected);
     }
 
+    /**
+     * Runs every input through a validator that is configured with depth-first mode on, and
+     * checks that isValid gives the expected verdict.
+     *
+     * @param negationNormalForm whether to convert to negation normal form first.
+     * @param simplification     whether to simplify first.
+     * @param pool               pool to split the search over, or null to run it serially.
+     */
+    private static void depthFirstVerdictTest(boolean negationNormalForm, boolean simplification, ForkJoinPool pool) {
+        for (int i = 1; i <= 20; i++) {
+            String testName = String.format("test%03d", i);
+            String inName = "src/main/resources/testdata/argumenttruthtreevalidator/" + testName + ".in";
+            String expName = "src/main/resources/testdata/argumenttruthtreevalidator/" + testName + ".out";
+            NDTPParserListener parser = ParserTest.parseFromFile(inName);
+            if (parser == null)
+                throw new AssertionFailedError("Failed reading test input file " + inName);
+
+            boolean expected;
+            try {
+                expected = Boolean.parseBoolean(new String(Files.readAllBytes(Paths.get(expName))).trim());
+            } catch (IOException e) {
+                throw new AssertionFailedError("Missing expected output file " + expName);
+            }
+
+            argumentTruthTreeValidator = new ArgumentTruthTreeValidator(parser.getSyntaxTrees());
+            argumentTruthTreeValidator.setDepthFirst(true);
+            argumentTruthTreeValidator.setNegationNormalForm(negationNormalForm);
+            argumentTruthTreeValidator.setSimplification(simplification);
+            argumentTruthTreeValidator.setParallel(pool);
+            assertEquals(expected, argumentTruthTreeValidator.isValid(), testName);
+        }
+    }
+
     @Test
     public void test001() {
         goodFileTest("test001");
@@ -230,4 +271,75 @@ public class ArgumentTruthTreeValidatorUnitTester {
     public void test020() {
         goodFileTest("test020");
     }
+
+    @Test
+    public void testDepthFirst() {
+        depthFirstVerdictTest(false, false, null);
+    }
+
+    @Test
+    public void testDepthFirstNegationNormalForm() {
+        depthFirstVerdictTest(true, false, null);
+    }
+
+    @Test
+    public void testDepthFirstSimplification() {
+        depthFirstVerdictTest(false, true, null);
+    }
+
+    @Test
+    public void testDepthFirstParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            depthFirstVerdictTest(false, false, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedInputAcrossThreads() throws Exception {
+        // Validators with their own contexts only read the wffs that they are given.
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 1; i <= 20; i++) {
+                String testName = String.format("test%03d", i);
+                NDTPParserListener parser = ParserTest.parseFromFile("src/main/resources/testdata/argumenttruthtreevalidator/" + testName + ".in");
+                if (parser == null)
+                    throw new AssertionFailedError("Failed reading test input file " + testName);
+
+                ArrayList<WffTree> wffs = parser.getSyntaxTrees();
+                boolean expected = new ArgumentTruthTreeValidator(wffs).isValid();
+                ArrayList<Future<Boolean>> verdicts = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    verdicts.add(executor.submit(() -> new ArgumentTruthTreeValidator(wffs, new ProverContext()).isValid()));
+                }
+                for (Future<Boolean> verdict : verdicts) {
+                    assertEquals(expected, verdict.get(), testName);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDepthFirstDoesNotInternTree() {
+        for (int i = 1; i <= 20; i++) {
+            String testName = String.format("test%03d", i);
+            NDTPParserListener parser = ParserTest.parseFromFile("src/main/resources/testdata/argumenttruthtreevalidator/" + testName + ".in");
+            if (parser == null)
+                throw new AssertionFailedError("Failed reading test input file " + testName);
+
+            // Only the premises and conclusion are interned; the search builds no generator.
+            ProverContext context = new ProverContext();
+            ArgumentTruthTreeValidator validator = new ArgumentTruthTreeValidator(parser.getSyntaxTrees(), context);
+            if (validator.getCombinedTree().isPropositionalWff()) {
+                int size = context.getInterner().size();
+                validator.setDepthFirst(true);
+                validator.isValid();
+                assertEquals(size, context.getInterner().size(), testName);
+            }
+        }
+    }
 }
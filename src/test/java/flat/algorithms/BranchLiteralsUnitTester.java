@@ -0,0 +1,73 @@
+package flat.algorithms;
+
+import com.ndtp.algorithms.models.BranchLiterals;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BranchLiteralsUnitTester {
+
+    /**
+     * Number of literal ids to insert; ids from 64 on go through the overflow list.
+     */
+    private static final int LITERALS = 200;
+
+    @Test
+    public void testEveryDepthPastMask() {
+        BranchLiterals literals = BranchLiterals.EMPTY;
+        for (int depth = 0; depth <= BranchLiterals.MAX_DEPTH; depth++) {
+            for (int id = 0; id < LITERALS; id++) {
+                literals = literals.with(id, depth);
+            }
+        }
+
+        for (int depth = 0; depth <= BranchLiterals.MAX_DEPTH; depth++) {
+            for (int id = 0; id < LITERALS; id++) {
+                assertTrue(literals.contains(id, depth), "id " + id + " at depth " + depth);
+            }
+            assertFalse(literals.contains(LITERALS, depth));
+            assertFalse(literals.contains(LITERALS + 64, depth));
+        }
+    }
+
+    @Test
+    public void testDepthsAreSeparate() {
+        BranchLiterals literals = BranchLiterals.EMPTY;
+        for (int id = 0; id < LITERALS; id++) {
+            literals = literals.with(id, id % (BranchLiterals.MAX_DEPTH + 1));
+        }
+
+        for (int id = 0; id < LITERALS; id++) {
+            for (int depth = 0; depth <= BranchLiterals.MAX_DEPTH; depth++) {
+                assertTrue(literals.contains(id, depth) == (depth == id % (BranchLiterals.MAX_DEPTH + 1)),
+                        "id " + id + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    public void testPersistence() {
+        BranchLiterals parent = BranchLiterals.EMPTY.with(3, 0).with(100, 1);
+        BranchLiterals left = parent.with(5, 0).with(130, 2);
+        BranchLiterals right = parent.with(7, 1).with(131, 2);
+
+        assertTrue(left.contains(3, 0) && left.contains(100, 1) && left.contains(130, 2));
+        assertFalse(left.contains(7, 1) || left.contains(131, 2));
+        assertTrue(right.contains(3, 0) && right.contains(100, 1) && right.contains(131, 2));
+        assertFalse(right.contains(5, 0) || right.contains(130, 2));
+        assertFalse(parent.contains(5, 0) || parent.contains(130, 2) || parent.contains(131, 2));
+        assertFalse(BranchLiterals.EMPTY.contains(3, 0) || BranchLiterals.EMPTY.contains(100, 1));
+
+        assertSame(left, left.with(130, 2));
+        assertSame(left, left.with(5, 0));
+    }
+
+    @Test
+    public void testBadDepth() {
+        assertThrows(IllegalArgumentException.class, () -> BranchLiterals.EMPTY.with(1, BranchLiterals.MAX_DEPTH + 1));
+        assertThrows(IllegalArgumentException.class, () -> BranchLiterals.EMPTY.contains(70, -1));
+    }
+}
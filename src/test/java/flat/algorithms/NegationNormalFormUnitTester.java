@@ -0,0 +1,215 @@
+package flat.algorithms;
+
+import com.ndtp.algorithms.ArgumentTruthTreeValidator;
+import com.ndtp.algorithms.NegationNormalForm;
+import com.ndtp.input.NDTPParserAdapter;
+import com.ndtp.input.NDTPParserListener;
+import com.ndtp.input.tests.ParserTest;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.NodeType;
+import com.ndtp.models.treenode.QuantifierNode;
+import com.ndtp.models.treenode.WffTree;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NegationNormalFormUnitTester {
+
+    private static final ProverContext context = new ProverContext();
+
+    /**
+     * @return the wff (with its root) of a one-wff input.
+     */
+    private static WffTree parse(String wff) {
+        return NDTPParserAdapter.getAbstractSyntaxTree(wff).get(0);
+    }
+
+    /**
+     * Converts a wff to negation normal form, checks the shape of the result, and returns it
+     * without its root.
+     */
+    private static WffTree convert(String wff) {
+        WffTree input = parse(wff);
+        String before = input.getStringRep();
+        WffTree root = NegationNormalForm.convert(input, context);
+        assertEquals(before, input.getStringRep(), "the input must not change");
+        assertTrue(root.isRoot());
+        assertNegationNormalForm(root.getChild(0));
+        return root.getChild(0);
+    }
+
+    /**
+     * Checks that negations only sit on literals, that there are no implications, and that no
+     * conjunction (or disjunction) has an operand of the same operator.
+     */
+    private static void assertNegationNormalForm(WffTree wff) {
+        if (wff.isNegation()) {
+            WffTree ch = wff.getChild(0);
+            assertTrue(ch.isAtom() || ch.isPredicate() || ch.isIdentity() || ch.isTruth() || ch.isFalse(),
+                    "negation of " + ch.getNodeType());
+        }
+        assertFalse(wff.isImp(), "implication in negation normal form");
+        for (int i = 0; i < wff.getChildrenSize(); i++) {
+            WffTree ch = wff.getChild(i);
+            if (wff.isAnd() || wff.isOr()) {
+                assertFalse(ch.getNodeType() == wff.getNodeType(), "nested " + wff.getNodeType());
+            }
+            assertNegationNormalForm(ch);
+        }
+    }
+
+    /**
+     * Checks that a node has the given type and operands, written as wffs.
+     */
+    private static void assertNode(WffTree wff, NodeType type, String... operands) {
+        assertEquals(type, wff.getNodeType());
+        assertEquals(operands.length, wff.getChildrenSize());
+        for (int i = 0; i < operands.length; i++) {
+            assertTrue(wff.getChild(i).stringEquals(parse(operands[i]).getChild(0)),
+                    "operand " + i + " is " + wff.getChild(i).getStringRep() + ", expected " + operands[i]);
+        }
+    }
+
+    private static boolean evaluate(WffTree wff, HashMap<String, Boolean> assignment) {
+        switch (wff.getNodeType()) {
+            case ROOT:
+                return evaluate(wff.getChild(0), assignment);
+            case ATOM:
+                return assignment.get(wff.getSymbol());
+            case NEG:
+                return !evaluate(wff.getChild(0), assignment);
+            case AND:
+            case OR: {
+                boolean isAnd = wff.isAnd();
+                for (int i = 0; i < wff.getChildrenSize(); i++) {
+                    if (evaluate(wff.getChild(i), assignment) != isAnd) {
+                        return !isAnd;
+                    }
+                }
+                return isAnd;
+            }
+            case IMP:
+                return !evaluate(wff.getChild(0), assignment) || evaluate(wff.getChild(1), assignment);
+            case BICOND:
+                return evaluate(wff.getChild(0), assignment) == evaluate(wff.getChild(1), assignment);
+            case XOR:
+                return evaluate(wff.getChild(0), assignment) != evaluate(wff.getChild(1), assignment);
+            default:
+                throw new AssertionFailedError("Cannot evaluate " + wff.getNodeType());
+        }
+    }
+
+    private static void collectAtoms(WffTree wff, TreeSet<String> atoms) {
+        if (wff.isAtom()) {
+            atoms.add(wff.getSymbol());
+        }
+        for (int i = 0; i < wff.getChildrenSize(); i++) {
+            collectAtoms(wff.getChild(i), atoms);
+        }
+    }
+
+    @Test
+    public void testFlattening() {
+        WffTree and = convert("((A & B) & (C & (D & E)))");
+        assertNode(and, NodeType.AND, "A", "B", "C", "D", "E");
+
+        WffTree or = convert("((A | B) | (C -> D))");
+        assertNode(or, NodeType.OR, "A", "B", "~C", "D");
+
+        // De Morgan turns the negated disjunctions into one conjunction.
+        WffTree negOr = convert("~((A | B) | ~(C & D))");
+        assertNode(negOr, NodeType.AND, "~A", "~B", "C", "D");
+
+        WffTree mixed = convert("((A & B) | (C & D))");
+        assertNode(mixed, NodeType.OR, "(A & B)", "(C & D)");
+    }
+
+    @Test
+    public void testNegatedImplication() {
+        assertNode(convert("~(A -> B)"), NodeType.AND, "A", "~B");
+        assertNode(convert("~~(A -> B)"), NodeType.OR, "~A", "B");
+    }
+
+    @Test
+    public void testBiconditionalAndExclusiveOr() {
+        assertNode(convert("(A <-> B)"), NodeType.BICOND, "A", "B");
+        assertNode(convert("~(A <-> B)"), NodeType.BICOND, "A", "~B");
+        assertNode(convert("(A ⊕ B)"), NodeType.XOR, "A", "B");
+        assertNode(convert("~(A ⊕ B)"), NodeType.BICOND, "A", "B");
+        assertNode(convert("~(~A <-> (B -> C))"), NodeType.BICOND, "~A", "(B & ~C)");
+    }
+
+    @Test
+    public void testQuantifiers() {
+        WffTree exists = convert("~(∀x)Fx");
+        assertEquals(NodeType.EXISTENTIAL, exists.getNodeType());
+        assertEquals("x", ((QuantifierNode) exists).getVariableSymbol());
+        assertTrue(exists.getChild(0).stringEquals(parse("~Fx").getChild(0)));
+
+        WffTree forall = convert("~(∃x)(Fx & Gx)");
+        assertEquals(NodeType.UNIVERSAL, forall.getNodeType());
+        assertEquals("x", ((QuantifierNode) forall).getVariableSymbol());
+        assertNode(forall.getChild(0), NodeType.OR, "~Fx", "~Gx");
+
+        WffTree kept = convert("(∀x)~~Fx");
+        assertEquals(NodeType.UNIVERSAL, kept.getNodeType());
+        assertTrue(kept.getChild(0).stringEquals(parse("Fx").getChild(0)));
+    }
+
+    @Test
+    public void testEquivalence() {
+        String[] wffs = {
+                "~((A -> B) & ~(C | ~D))",
+                "~(A <-> (B ⊕ ~C))",
+                "((A -> (B -> C)) -> ((A -> B) -> (A -> C)))",
+                "~(~(A & B) | (C ⊕ (D <-> A)))",
+        };
+        for (String wff : wffs) {
+            WffTree input = parse(wff);
+            WffTree nnf = convert(wff);
+            TreeSet<String> atoms = new TreeSet<>();
+            collectAtoms(input, atoms);
+            ArrayList<String> atomList = new ArrayList<>(atoms);
+            for (int row = 0; row < (1 << atomList.size()); row++) {
+                HashMap<String, Boolean> assignment = new HashMap<>();
+                for (int i = 0; i < atomList.size(); i++) {
+                    assignment.put(atomList.get(i), (row & (1 << i)) != 0);
+                }
+                assertEquals(evaluate(input, assignment), evaluate(nnf, assignment), wff + " under " + assignment);
+            }
+        }
+    }
+
+    @Test
+    public void testValidatorVerdicts() {
+        for (int i = 1; i <= 20; i++) {
+            String testName = String.format("test%03d", i);
+            String inName = "src/main/resources/testdata/argumenttruthtreevalidator/" + testName + ".in";
+            String expName = "src/main/resources/testdata/argumenttruthtreevalidator/" + testName + ".out";
+            NDTPParserListener parser = ParserTest.parseFromFile(inName);
+            if (parser == null)
+                throw new AssertionFailedError("Failed reading test input file " + inName);
+
+            boolean expected;
+            try {
+                expected = Boolean.parseBoolean(new String(Files.readAllBytes(Paths.get(expName))).trim());
+            } catch (IOException e) {
+                throw new AssertionFailedError("Missing expected output file " + expName);
+            }
+
+            ArgumentTruthTreeValidator validator = new ArgumentTruthTreeValidator(parser.getSyntaxTrees());
+            validator.setNegationNormalForm(true);
+            assertEquals(expected, validator.isValid(), testName);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package flat.algorithms;
 
+import com.ndtp.algorithms.BaseTruthTreeGenerator;
 import com.ndtp.algorithms.models.TruthTree;
 import com.ndtp.algorithms.predicate.PredicateTruthTreeGenerator;
+import com.ndtp.input.NDTPParserAdapter;
 import com.ndtp.input.NDTPParserListener;
 import com.ndtp.input.tests.ParserTest;
+import com.ndtp.models.ProverContext;
 import com.ndtp.models.treenode.WffTree;
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
@@ -18,6 +21,8 @@ import java.util.Scanner;
 import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PredicateTruthTreeGeneratorUnitTester {
 
@@ -269,4 +274,20 @@ public class PredicateTruthTreeGeneratorUnitTester {
     public void test027() {
         goodFileTest("test027");
     }
+
+    @Test
+    public void testFlippedQuantifier() {
+        ProverContext context = new ProverContext();
+        WffTree univ = NDTPParserAdapter.getAbstractSyntaxTree("(∀x)(Fx -> Gx)").get(0).getChild(0);
+
+        // The flipped node shares the body instead of copying it.
+        WffTree flipped = BaseTruthTreeGenerator.getFlippedNode(univ, context);
+        assertTrue(flipped.isExistential());
+        assertSame(univ.getChild(0), flipped.getChild(0).getChild(0));
+
+        WffTree interned = context.getInterner().intern(univ);
+        assertSame(BaseTruthTreeGenerator.getFlippedNode(interned, context),
+                BaseTruthTreeGenerator.getFlippedNode(interned, context));
+        assertTrue(BaseTruthTreeGenerator.getFlippedNode(interned, context).stringEquals(flipped));
+    }
 }
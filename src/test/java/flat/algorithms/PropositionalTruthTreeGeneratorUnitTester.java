@@ -1,9 +1,14 @@
 package flat.algorithms;
 
+import com.ndtp.algorithms.BaseTruthTreeGenerator;
 import com.ndtp.algorithms.models.TruthTree;
+import com.ndtp.algorithms.propositional.PropositionalBranchSearch;
 import com.ndtp.algorithms.propositional.PropositionalTruthTreeGenerator;
+import com.ndtp.input.NDTPParserAdapter;
 import com.ndtp.input.NDTPParserListener;
 import com.ndtp.input.tests.ParserTest;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.AtomNode;
 import com.ndtp.models.treenode.WffTree;
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
@@ -14,10 +19,14 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PropositionalTruthTreeGeneratorUnitTester {
 
@@ -184,4 +193,62 @@ public class PropositionalTruthTreeGeneratorUnitTester {
     public void test010() {
         goodFileTest("test010");
     }
+
+    @Test
+    public void testBranchListenerStopsAtFirstOpenBranch() {
+        // The A branch is open and developed as soon as the disjunction branches; the other
+        // branch still has (B & C) to stack.
+        WffTree wff = NDTPParserAdapter.getAbstractSyntaxTree("(A | (B & C))").get(0);
+        truthTreeGenerator = new PropositionalTruthTreeGenerator(wff);
+        final ArrayList<TruthTree> reported = new ArrayList<>();
+        final ArrayList<Boolean> closed = new ArrayList<>();
+        truthTreeGenerator.setBranchListener(new BaseTruthTreeGenerator.BranchListener() {
+            @Override
+            public boolean branchCompleted(TruthTree _leaf, boolean _closed) {
+                reported.add(_leaf);
+                closed.add(_closed);
+                return _closed;
+            }
+        });
+        TruthTree partial = truthTreeGenerator.getTruthTree();
+
+        assertEquals(1, reported.size());
+        assertFalse(closed.get(0));
+        assertEquals("A", reported.get(0).getWff().getStringRep());
+        assertTrue(reported.get(0).isBranchDeveloped());
+        assertTrue(reported.get(0).isLeafNode());
+
+        truthTreeGenerator.setBranchListener(null);
+        TruthTree full = truthTreeGenerator.getTruthTree();
+        ArrayList<TruthTree> partialNodes = new ArrayList<>();
+        ArrayList<TruthTree> fullNodes = new ArrayList<>();
+        TruthTree.getWalker().preOrder(partial, partialNodes);
+        TruthTree.getWalker().preOrder(full, fullNodes);
+        // Root, A, (B & C), B, and C.
+        assertEquals(5, fullNodes.size());
+        assertTrue(partialNodes.size() < fullNodes.size());
+
+        ArrayList<TruthTree> leaves = BaseTruthTreeGenerator.getLeaves(full);
+        assertEquals(2, leaves.size());
+        for (TruthTree leaf : leaves) {
+            assertFalse(leaf.isClosed());
+            assertTrue(leaf.isBranchDeveloped());
+        }
+    }
+
+    @Test
+    public void testLiteralIdsRestartPerTree() {
+        ProverContext context = new ProverContext();
+        WffTree wff = NDTPParserAdapter.getAbstractSyntaxTree("((A -> B) & (C | ~A))").get(0);
+        new PropositionalTruthTreeGenerator(wff, context).getTruthTree();
+        assertTrue(context.getLiteralId(new AtomNode("Z")) >= 3);
+
+        // A new tree, or a search, in the same context hands out the ids from 0 again.
+        new PropositionalTruthTreeGenerator(wff, context);
+        assertEquals(0, context.getLiteralId(new AtomNode("Z")));
+        // The search stops at the first open branch, so it may not see every atom, but Z is new to it.
+        new PropositionalBranchSearch(context).hasOpenBranch(wff.getChild(0));
+        int id = context.getLiteralId(new AtomNode("Z"));
+        assertTrue(id > 0 && id <= 3);
+    }
 }
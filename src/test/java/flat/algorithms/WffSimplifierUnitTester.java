@@ -0,0 +1,241 @@
+package flat.algorithms;
+
+import com.ndtp.algorithms.ArgumentTruthTreeValidator;
+import com.ndtp.algorithms.WffSimplifier;
+import com.ndtp.input.NDTPParserAdapter;
+import com.ndtp.input.NDTPParserListener;
+import com.ndtp.input.tests.ParserTest;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.AndNode;
+import com.ndtp.models.treenode.BicondNode;
+import com.ndtp.models.treenode.ExclusiveOrNode;
+import com.ndtp.models.treenode.FalseNode;
+import com.ndtp.models.treenode.ImpNode;
+import com.ndtp.models.treenode.NegNode;
+import com.ndtp.models.treenode.OrNode;
+import com.ndtp.models.treenode.TruthNode;
+import com.ndtp.models.treenode.WffTree;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WffSimplifierUnitTester {
+
+    private static final ProverContext context = new ProverContext();
+
+    /**
+     * @return the wff (without its root) of a one-wff input.
+     */
+    private static WffTree parse(String wff) {
+        return NDTPParserAdapter.getAbstractSyntaxTree(wff).get(0).getChild(0);
+    }
+
+    private static WffTree binary(WffTree node, WffTree lhs, WffTree rhs) {
+        node.addChild(lhs);
+        node.addChild(rhs);
+        return node;
+    }
+
+    private static WffTree neg(WffTree wff) {
+        NegNode neg = new NegNode();
+        neg.addChild(wff);
+        return neg;
+    }
+
+    /**
+     * Evaluates a propositional wff (with the truth constants) under an assignment of its atoms.
+     */
+    private static boolean evaluate(WffTree wff, HashMap<String, Boolean> assignment) {
+        switch (wff.getNodeType()) {
+            case ATOM:
+                return assignment.get(wff.getSymbol());
+            case TRUTH:
+                return true;
+            case FALSE:
+                return false;
+            case NEG:
+                return !evaluate(wff.getChild(0), assignment);
+            case AND:
+            case OR: {
+                boolean isAnd = wff.isAnd();
+                for (int i = 0; i < wff.getChildrenSize(); i++) {
+                    if (evaluate(wff.getChild(i), assignment) != isAnd) {
+                        return !isAnd;
+                    }
+                }
+                return isAnd;
+            }
+            case IMP:
+                return !evaluate(wff.getChild(0), assignment) || evaluate(wff.getChild(1), assignment);
+            case BICOND:
+                return evaluate(wff.getChild(0), assignment) == evaluate(wff.getChild(1), assignment);
+            case XOR:
+                return evaluate(wff.getChild(0), assignment) != evaluate(wff.getChild(1), assignment);
+            default:
+                throw new AssertionFailedError("Cannot evaluate " + wff.getNodeType());
+        }
+    }
+
+    private static void collectAtoms(WffTree wff, TreeSet<String> atoms) {
+        if (wff.isAtom()) {
+            atoms.add(wff.getSymbol());
+        }
+        for (int i = 0; i < wff.getChildrenSize(); i++) {
+            collectAtoms(wff.getChild(i), atoms);
+        }
+    }
+
+    /**
+     * Simplifies a propositional wff, checks that the result has the same truth table, and
+     * returns it.
+     */
+    private static WffTree simplifySoundly(WffTree wff) {
+        WffTree simplified = WffSimplifier.simplify(wff, context);
+        TreeSet<String> atoms = new TreeSet<>();
+        collectAtoms(wff, atoms);
+        ArrayList<String> atomList = new ArrayList<>(atoms);
+        for (int row = 0; row < (1 << atomList.size()); row++) {
+            HashMap<String, Boolean> assignment = new HashMap<>();
+            for (int i = 0; i < atomList.size(); i++) {
+                assignment.put(atomList.get(i), (row & (1 << i)) != 0);
+            }
+            assertEquals(evaluate(wff, assignment), evaluate(simplified, assignment),
+                    wff.getStringRep() + " simplified to " + simplified.getStringRep() + " under " + assignment);
+        }
+        return simplified;
+    }
+
+    private static void assertSimplifiesTo(String expected, WffTree wff) {
+        WffTree simplified = simplifySoundly(wff);
+        assertTrue(simplified.stringEquals(parse(expected)),
+                wff.getStringRep() + " simplified to " + simplified.getStringRep() + ", expected " + expected);
+    }
+
+    private static void assertSimplifiesToTruth(WffTree wff) {
+        assertTrue(simplifySoundly(wff).isTruth(), wff.getStringRep());
+    }
+
+    private static void assertSimplifiesToFalse(WffTree wff) {
+        assertTrue(simplifySoundly(wff).isFalse(), wff.getStringRep());
+    }
+
+    @Test
+    public void testConjunctionConstants() {
+        assertSimplifiesTo("A", binary(new AndNode(), parse("A"), new TruthNode()));
+        assertSimplifiesTo("A", binary(new AndNode(), new TruthNode(), parse("A")));
+        assertSimplifiesToFalse(binary(new AndNode(), parse("A"), new FalseNode()));
+        assertSimplifiesTo("(A & B)", binary(new AndNode(), parse("(A & B)"), new TruthNode()));
+    }
+
+    @Test
+    public void testDisjunctionConstants() {
+        assertSimplifiesTo("A", binary(new OrNode(), parse("A"), new FalseNode()));
+        assertSimplifiesToTruth(binary(new OrNode(), new TruthNode(), parse("A")));
+    }
+
+    @Test
+    public void testImplicationConstants() {
+        assertSimplifiesTo("~A", binary(new ImpNode(), parse("A"), new FalseNode()));
+        assertSimplifiesTo("A", binary(new ImpNode(), parse("~A"), new FalseNode()));
+        assertSimplifiesTo("A", binary(new ImpNode(), new TruthNode(), parse("A")));
+        assertSimplifiesToTruth(binary(new ImpNode(), new FalseNode(), parse("A")));
+        assertSimplifiesToTruth(binary(new ImpNode(), parse("A"), new TruthNode()));
+        assertSimplifiesToTruth(parse("(A -> A)"));
+    }
+
+    @Test
+    public void testNegations() {
+        assertSimplifiesTo("A", parse("~~A"));
+        assertSimplifiesTo("~A", parse("~~~A"));
+        assertSimplifiesTo("(A & B)", parse("~~(A & B)"));
+        assertSimplifiesToFalse(neg(new TruthNode()));
+        assertSimplifiesToTruth(neg(new FalseNode()));
+    }
+
+    @Test
+    public void testComplementsAndRepeats() {
+        assertSimplifiesToFalse(parse("(A & ~A)"));
+        assertSimplifiesToFalse(parse("(~A & A)"));
+        assertSimplifiesToTruth(parse("(A | ~A)"));
+        assertSimplifiesTo("A", parse("(A & A)"));
+        assertSimplifiesTo("A", parse("(A | A)"));
+        assertSimplifiesToFalse(parse("((A & B) & ~(A & B))"));
+    }
+
+    @Test
+    public void testBiconditional() {
+        assertSimplifiesToTruth(parse("(A <-> A)"));
+        assertSimplifiesToFalse(parse("(A <-> ~A)"));
+        assertSimplifiesTo("A", binary(new BicondNode(), parse("A"), new TruthNode()));
+        assertSimplifiesTo("~A", binary(new BicondNode(), parse("A"), new FalseNode()));
+        assertSimplifiesTo("~A", binary(new BicondNode(), new FalseNode(), parse("A")));
+    }
+
+    @Test
+    public void testExclusiveOr() {
+        assertSimplifiesTo("~A", binary(new ExclusiveOrNode(), parse("A"), new TruthNode()));
+        assertSimplifiesTo("~A", binary(new ExclusiveOrNode(), new TruthNode(), parse("A")));
+        assertSimplifiesTo("A", binary(new ExclusiveOrNode(), parse("A"), new FalseNode()));
+        assertSimplifiesTo("A", binary(new ExclusiveOrNode(), new FalseNode(), parse("A")));
+        assertSimplifiesToFalse(parse("(A ⊕ A)"));
+        assertSimplifiesToTruth(parse("(A ⊕ ~A)"));
+    }
+
+    @Test
+    public void testNested() {
+        // ((A & TRUE) -> (B | FALSE)) is (A -> B).
+        WffTree wff = binary(new ImpNode(),
+                binary(new AndNode(), parse("A"), new TruthNode()),
+                binary(new OrNode(), parse("B"), new FalseNode()));
+        assertSimplifiesTo("(A -> B)", wff);
+        assertSimplifiesTo("(A -> B)", parse("(~~A -> (B & B))"));
+    }
+
+    @Test
+    public void testUnchangedIsShared() {
+        WffTree wff = parse("((A & B) -> (C | ~D))");
+        assertSame(wff, WffSimplifier.simplify(wff, context));
+    }
+
+    @Test
+    public void testVacuousQuantifiers() {
+        assertTrue(WffSimplifier.simplify(parse("(∀x)Fa"), context).stringEquals(parse("Fa")));
+        assertTrue(WffSimplifier.simplify(parse("(∃x)(∀y)Fx"), context).stringEquals(parse("(∃x)Fx")));
+        assertTrue(WffSimplifier.simplify(parse("(∀x)(∃x)Fx"), context).stringEquals(parse("(∃x)Fx")));
+        WffTree bound = parse("(∀x)(∃y)Rxy");
+        assertSame(bound, WffSimplifier.simplify(bound, context));
+    }
+
+    @Test
+    public void testValidatorVerdicts() {
+        for (int i = 1; i <= 20; i++) {
+            String testName = String.format("test%03d", i);
+            String inName = "src/main/resources/testdata/argumenttruthtreevalidator/" + testName + ".in";
+            String expName = "src/main/resources/testdata/argumenttruthtreevalidator/" + testName + ".out";
+            NDTPParserListener parser = ParserTest.parseFromFile(inName);
+            if (parser == null)
+                throw new AssertionFailedError("Failed reading test input file " + inName);
+
+            boolean expected;
+            try {
+                expected = Boolean.parseBoolean(new String(Files.readAllBytes(Paths.get(expName))).trim());
+            } catch (IOException e) {
+                throw new AssertionFailedError("Missing expected output file " + expName);
+            }
+
+            ArgumentTruthTreeValidator validator = new ArgumentTruthTreeValidator(parser.getSyntaxTrees());
+            validator.setSimplification(true);
+            assertEquals(expected, validator.isValid(), testName);
+        }
+    }
+}
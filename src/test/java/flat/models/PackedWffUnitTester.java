@@ -0,0 +1,154 @@
+package flat.models;
+
+import com.ndtp.input.NDTPParserListener;
+import com.ndtp.input.tests.ParserTest;
+import com.ndtp.models.treenode.AndNode;
+import com.ndtp.models.treenode.AtomNode;
+import com.ndtp.models.treenode.PackedWff;
+import com.ndtp.models.treenode.QuantifierNode;
+import com.ndtp.models.treenode.WffTree;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PackedWffUnitTester {
+
+    private static final String[] TEST_DIRECTORIES = {
+            "argumenttruthtreevalidator", "propositionalnd", "predicatend", "propositionaltree", "predicatetree"
+    };
+
+    /**
+     * Parses every input file of the test data directories that holds wffs. Inputs that the
+     * parser rejects are skipped.
+     *
+     * @return all of the parsed wffs.
+     */
+    private static ArrayList<WffTree> parseTestData() {
+        ArrayList<WffTree> wffs = new ArrayList<>();
+        PrintStream origErr = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            for (String directory : TEST_DIRECTORIES) {
+                File[] files = new File("src/main/resources/testdata/" + directory).listFiles();
+                if (files == null) {
+                    continue;
+                }
+                Arrays.sort(files);
+                for (File file : files) {
+                    if (!file.getName().endsWith(".in")) {
+                        continue;
+                    }
+                    NDTPParserListener parser;
+                    try {
+                        parser = ParserTest.parseFromFile(file.getPath());
+                    } catch (RuntimeException e) {
+                        continue;
+                    }
+                    if (parser != null && parser.getSyntaxTrees() != null) {
+                        wffs.addAll(parser.getSyntaxTrees());
+                    }
+                }
+            }
+        } finally {
+            System.setErr(origErr);
+        }
+        return wffs;
+    }
+
+    private static void assertSameWff(WffTree expected, WffTree actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getNodeType(), actual.getNodeType());
+        assertEquals(expected.getSymbol(), actual.getSymbol());
+        assertEquals(expected.getFlags(), actual.getFlags());
+        if (expected instanceof QuantifierNode) {
+            assertEquals(((QuantifierNode) expected).getVariableSymbol(), ((QuantifierNode) actual).getVariableSymbol());
+        }
+        assertEquals(expected.getChildrenSize(), actual.getChildrenSize());
+        for (int i = 0; i < expected.getChildrenSize(); i++) {
+            assertSameWff(expected.getChild(i), actual.getChild(i));
+        }
+        assertEquals(expected.getStringRep(), actual.getStringRep());
+    }
+
+    /**
+     * Checks that the packed node at _index describes _node and its subtree.
+     *
+     * @return number of nodes in the subtree.
+     */
+    private static int assertPackedNode(PackedWff packed, int index, WffTree node) {
+        assertEquals(node.getNodeType(), packed.getNodeType(index));
+        assertEquals(node.getSymbol(), packed.getSymbol(index));
+        assertEquals(node.getFlags(), packed.getFlags(index));
+        assertEquals(node.getChildrenSize(), packed.getChildCount(index));
+        int size = 1;
+        for (int i = 0; i < node.getChildrenSize(); i++) {
+            size += assertPackedNode(packed, packed.getChildIndex(index, i), node.getChild(i));
+        }
+        assertEquals(size, packed.getSubtreeSize(index));
+        return size;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        ArrayList<WffTree> wffs = parseTestData();
+        assertFalse(wffs.isEmpty());
+        for (WffTree wff : wffs) {
+            PackedWff packed = new PackedWff(wff);
+            WffTree unpacked = packed.toWffTree();
+            assertSameWff(wff, unpacked);
+            assertEquals(packed, new PackedWff(unpacked));
+            assertEquals(packed.hashCode(), new PackedWff(unpacked).hashCode());
+        }
+    }
+
+    @Test
+    public void testNavigation() {
+        for (WffTree wff : parseTestData()) {
+            PackedWff packed = new PackedWff(wff);
+            assertEquals(packed.getRootIndex(), packed.size() - 1);
+            assertEquals(packed.size(), assertPackedNode(packed, packed.getRootIndex(), wff));
+            assertEquals(0, packed.getSubtreeStart(packed.getRootIndex()));
+        }
+    }
+
+    @Test
+    public void testEquality() {
+        ArrayList<WffTree> wffs = parseTestData();
+        for (int i = 1; i < wffs.size(); i++) {
+            if (!wffs.get(i).getStringRep().equals(wffs.get(i - 1).getStringRep())) {
+                assertNotEquals(new PackedWff(wffs.get(i)), new PackedWff(wffs.get(i - 1)));
+            }
+        }
+    }
+
+    @Test
+    public void testDeepWff() {
+        // (B & (B & ... (B & A))) is deeper than a recursive walk could go.
+        WffTree wff = new AtomNode("A");
+        for (int i = 0; i < 10000; i++) {
+            AndNode and = new AndNode("&");
+            and.addChild(new AtomNode("B"));
+            and.addChild(wff);
+            wff = and;
+        }
+        PackedWff packed = new PackedWff(wff);
+        assertEquals(20001, packed.size());
+        assertEquals(packed, new PackedWff(packed.toWffTree()));
+    }
+
+    @Test
+    public void testBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new PackedWff(null));
+        PackedWff packed = new PackedWff(new AtomNode("A"));
+        assertThrows(IndexOutOfBoundsException.class, () -> packed.getChildIndex(0, 0));
+    }
+}
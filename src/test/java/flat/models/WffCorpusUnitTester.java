@@ -0,0 +1,131 @@
+package flat.models;
+
+import com.ndtp.input.NDTPParserAdapter;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.AndNode;
+import com.ndtp.models.treenode.AtomNode;
+import com.ndtp.models.treenode.NodeType;
+import com.ndtp.models.treenode.SymbolTable;
+import com.ndtp.models.treenode.WffCorpus;
+import com.ndtp.models.treenode.WffTree;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class WffCorpusUnitTester {
+
+    private static WffTree parse(String _wff) {
+        return NDTPParserAdapter.getAbstractSyntaxTree(_wff).get(0);
+    }
+
+    @Test
+    public void testAddAndGet() {
+        String[] wffs = {"A", "~(A & B)", "((A -> B) <-> (~B -> ~A))", "(∀x)(∃y)(Rxy -> Fa)", "a = b"};
+        WffCorpus corpus = new WffCorpus(64);
+        for (int i = 0; i < wffs.length; i++) {
+            assertEquals(i, corpus.add(parse(wffs[i])));
+        }
+        assertEquals(wffs.length, corpus.size());
+
+        for (int i = 0; i < wffs.length; i++) {
+            WffTree expected = parse(wffs[i]);
+            WffTree actual = corpus.get(i);
+            assertEquals(expected, actual);
+            assertEquals(expected.getStringRep(), actual.getStringRep());
+            assertEquals(expected.getFlags(), actual.getFlags());
+            assertEquals(expected.getAnalytics().getSize(), corpus.getNodeCount(i));
+        }
+    }
+
+    @Test
+    public void testNodeAccessors() {
+        WffCorpus corpus = new WffCorpus();
+        int id = corpus.add(parse("(∀x)(Fx -> Ga)"));
+        SymbolTable table = corpus.getSymbolTable();
+        assertEquals(NodeType.ROOT, corpus.getNodeType(id, 0));
+        assertEquals(NodeType.UNIVERSAL, corpus.getNodeType(id, 1));
+        assertEquals("x", table.getSymbol(corpus.getVariableSymbolId(id, 1)));
+        assertEquals(NodeType.IMP, corpus.getNodeType(id, 2));
+        assertEquals("->", table.getSymbol(corpus.getSymbolId(id, 2)));
+        assertEquals(2, corpus.getChildCount(id, 2));
+        assertEquals(SymbolTable.NO_SYMBOL, corpus.getVariableSymbolId(id, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> corpus.getNodeType(id, corpus.getNodeCount(id)));
+        assertThrows(IndexOutOfBoundsException.class, () -> corpus.get(1));
+    }
+
+    @Test
+    public void testIndexOf() {
+        WffCorpus corpus = new WffCorpus();
+        int first = corpus.add(parse("(A & B)"));
+        int second = corpus.add(parse("(B & A)"));
+        assertEquals(first, corpus.indexOf(parse("(A & B)")));
+        assertEquals(second, corpus.indexOf(parse("(B & A)")));
+        assertEquals(-1, corpus.indexOf(parse("(A | B)")));
+        assertEquals(-1, corpus.indexOf(parse("((A & B) & C)")));
+
+        // Adding or looking up a wff caches nothing on it, so it can still be changed.
+        WffTree wff = parse("(A & B)");
+        corpus.add(wff);
+        corpus.indexOf(wff);
+        wff.getChild(0).setChild(0, new AtomNode("C"));
+        assertEquals(first, corpus.indexOf(parse("(A & B)")));
+        assertEquals(-1, corpus.indexOf(wff));
+    }
+
+    @Test
+    public void testAddIfAbsent() {
+        WffCorpus corpus = new WffCorpus();
+        int id = corpus.addIfAbsent(parse("((A -> B) & ~C)"));
+        // Notation variants are the same formula; the first notation is kept.
+        assertEquals(id, corpus.addIfAbsent(parse("((A → B) ∧ ¬C)")));
+        assertEquals(id, corpus.addIfAbsent(parse("((A->B)&~C)")));
+        assertEquals(id, corpus.indexOf(parse("((A → B) ∧ ¬C)")));
+        assertEquals(1, corpus.size());
+        assertEquals("->", corpus.get(id).getChild(0).getChild(0).getSymbol());
+
+        assertNotEquals(id, corpus.addIfAbsent(parse("((A -> C) & ~B)")));
+        assertEquals(2, corpus.size());
+
+        // add does not deduplicate.
+        assertNotEquals(id, corpus.add(parse("((A -> B) & ~C)")));
+        assertEquals(3, corpus.size());
+    }
+
+    @Test
+    public void testSymbolTable() {
+        ProverContext context = new ProverContext();
+        WffCorpus corpus = new WffCorpus(WffCorpus.DEFAULT_CHUNK_SIZE, context.getSymbolTable());
+        assertSame(context.getSymbolTable(), corpus.getSymbolTable());
+        int id = corpus.add(parse("(A -> B)"));
+        assertEquals("->", context.getSymbolTable().getSymbol(corpus.getSymbolId(id, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new WffCorpus(WffCorpus.DEFAULT_CHUNK_SIZE, null));
+        assertThrows(IllegalArgumentException.class, () -> new WffCorpus(63));
+    }
+
+    @Test
+    public void testDeepWff() {
+        // (B & (B & ... (B & A))) is deeper than a recursive walk could go.
+        WffTree wff = new AtomNode("A");
+        for (int i = 0; i < 10000; i++) {
+            AndNode and = new AndNode("&");
+            and.addChild(new AtomNode("B"));
+            and.addChild(wff);
+            wff = and;
+        }
+        WffCorpus corpus = new WffCorpus();
+        int id = corpus.add(wff);
+        assertEquals(20001, corpus.getNodeCount(id));
+        assertEquals(id, corpus.addIfAbsent(wff));
+
+        WffTree copy = corpus.get(id);
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(NodeType.AND, copy.getNodeType());
+            assertEquals("B", copy.getChild(0).getSymbol());
+            copy = copy.getChild(1);
+        }
+        assertEquals("A", copy.getSymbol());
+    }
+}
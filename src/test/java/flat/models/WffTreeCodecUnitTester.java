@@ -0,0 +1,203 @@
+package flat.models;
+
+import com.ndtp.input.NDTPParserListener;
+import com.ndtp.input.tests.ParserTest;
+import com.ndtp.models.treenode.QuantifierNode;
+import com.ndtp.models.treenode.WffTree;
+import com.ndtp.models.treenode.WffTreeCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WffTreeCodecUnitTester {
+
+    private static final String[] TEST_DIRECTORIES = {
+            "argumenttruthtreevalidator", "propositionalnd", "predicatend", "propositionaltree", "predicatetree"
+    };
+
+    /**
+     * Parses every input file of the test data directories that holds wffs. Inputs that the
+     * parser rejects are skipped.
+     *
+     * @return one list of wffs per input file that parsed.
+     */
+    private static ArrayList<ArrayList<WffTree>> parseTestData() {
+        ArrayList<ArrayList<WffTree>> inputs = new ArrayList<>();
+        PrintStream origErr = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            for (String directory : TEST_DIRECTORIES) {
+                File[] files = new File("src/main/resources/testdata/" + directory).listFiles();
+                if (files == null) {
+                    continue;
+                }
+                Arrays.sort(files);
+                for (File file : files) {
+                    if (!file.getName().endsWith(".in")) {
+                        continue;
+                    }
+                    NDTPParserListener parser;
+                    try {
+                        parser = ParserTest.parseFromFile(file.getPath());
+                    } catch (RuntimeException e) {
+                        // Only the inputs that parse are encoded.
+                        continue;
+                    }
+                    if (parser != null && parser.getSyntaxTrees() != null && !parser.getSyntaxTrees().isEmpty()) {
+                        inputs.add(parser.getSyntaxTrees());
+                    }
+                }
+            }
+        } finally {
+            System.setErr(origErr);
+        }
+        return inputs;
+    }
+
+    /**
+     * Checks that two wffs have the same shape, node classes, symbols, flags, quantified
+     * variables, and string representation.
+     */
+    private static void assertSameWff(WffTree expected, WffTree actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getNodeType(), actual.getNodeType());
+        assertEquals(expected.getSymbol(), actual.getSymbol());
+        assertEquals(expected.getFlags(), actual.getFlags());
+        if (expected instanceof QuantifierNode) {
+            assertEquals(((QuantifierNode) expected).getVariableSymbol(), ((QuantifierNode) actual).getVariableSymbol());
+        }
+        assertEquals(expected.getChildrenSize(), actual.getChildrenSize());
+        for (int i = 0; i < expected.getChildrenSize(); i++) {
+            assertSameWff(expected.getChild(i), actual.getChild(i));
+        }
+        assertEquals(expected.getStringRep(), actual.getStringRep());
+    }
+
+    private static void assertSameWffs(ArrayList<WffTree> expected, ArrayList<WffTree> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSameWff(expected.get(i), actual.get(i));
+        }
+    }
+
+    @Test
+    public void testRoundTripBuffer() {
+        ArrayList<ArrayList<WffTree>> inputs = parseTestData();
+        assertFalse(inputs.isEmpty());
+        for (ArrayList<WffTree> wffs : inputs) {
+            ByteBuffer buffer = WffTreeCodec.encode(wffs);
+            assertSameWffs(wffs, WffTreeCodec.decode(buffer));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testRoundTripStream() throws IOException {
+        for (ArrayList<WffTree> wffs : parseTestData()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            WffTreeCodec.encode(wffs, out);
+            out.write(7);
+            ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+            assertSameWffs(wffs, WffTreeCodec.decode(in));
+            // Only the bytes of the one encoding are read.
+            assertEquals(7, in.read());
+        }
+    }
+
+    @Test
+    public void testConsecutiveEncodings() {
+        ArrayList<ArrayList<WffTree>> inputs = parseTestData();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        for (ArrayList<WffTree> wffs : inputs) {
+            WffTreeCodec.encode(wffs, buffer);
+        }
+        buffer.flip();
+        for (ArrayList<WffTree> wffs : inputs) {
+            assertSameWffs(wffs, WffTreeCodec.decode(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testBadMagic() {
+        byte[] bytes = encodeFirstInput();
+        bytes[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(bytes)));
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testWrongVersion() {
+        byte[] bytes = encodeFirstInput();
+        bytes[4] = (byte) (WffTreeCodec.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(bytes)));
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testTruncated() {
+        byte[] bytes = encodeFirstInput();
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(truncated)));
+            assertThrows(IOException.class, () -> WffTreeCodec.decode(new ByteArrayInputStream(truncated)));
+        }
+    }
+
+    @Test
+    public void testTrailingBytes() {
+        byte[] bytes = encodeFirstInput();
+        // Grow the payload by one byte that the wffs do not account for.
+        byte[] padded = Arrays.copyOf(bytes, bytes.length + 1);
+        ByteBuffer.wrap(padded).putInt(5, bytes.length - 9 + 1);
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(padded)));
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(new ByteArrayInputStream(padded)));
+        // A shorter payload leaves the wffs incomplete.
+        ByteBuffer.wrap(bytes).putInt(5, bytes.length - 9 - 1);
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(bytes)));
+    }
+
+    @Test
+    public void testHugeCounts() {
+        // Header with a 5-byte payload whose symbol count is 2^31 - 1.
+        byte[] symbolCount = {'N', 'D', 'T', 'W', (byte) WffTreeCodec.VERSION, 0, 0, 0, 5,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(symbolCount)));
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(new ByteArrayInputStream(symbolCount)));
+
+        // One symbol that claims to be 2^31 - 1 bytes long.
+        byte[] symbolLength = {'N', 'D', 'T', 'W', (byte) WffTreeCodec.VERSION, 0, 0, 0, 6,
+                1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(symbolLength)));
+
+        // No symbols and 2^31 - 1 wffs.
+        byte[] wffCount = {'N', 'D', 'T', 'W', (byte) WffTreeCodec.VERSION, 0, 0, 0, 6,
+                0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(wffCount)));
+
+        // A stream whose header claims a payload of 2^31 - 1 bytes but then ends.
+        byte[] payloadLength = {'N', 'D', 'T', 'W', (byte) WffTreeCodec.VERSION, 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+        assertThrows(IOException.class, () -> WffTreeCodec.decode(new ByteArrayInputStream(payloadLength)));
+        assertThrows(IllegalArgumentException.class, () -> WffTreeCodec.decode(ByteBuffer.wrap(payloadLength)));
+    }
+
+    private static byte[] encodeFirstInput() {
+        ByteBuffer buffer = WffTreeCodec.encode(parseTestData().get(0));
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        assertTrue(bytes.length > 9);
+        return bytes;
+    }
+}
@@ -0,0 +1,100 @@
+package flat.models;
+
+import com.ndtp.input.NDTPParserAdapter;
+import com.ndtp.models.treenode.AndNode;
+import com.ndtp.models.treenode.AtomNode;
+import com.ndtp.models.treenode.SymbolTable;
+import com.ndtp.models.treenode.WffTree;
+import com.ndtp.models.treenode.WffTreeInterner;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WffTreeInternerUnitTester {
+
+    private static WffTree parse(String _wff) {
+        return NDTPParserAdapter.getAbstractSyntaxTree(_wff).get(0);
+    }
+
+    @Test
+    public void testInputIsNotModified() {
+        WffTree wff = parse("((A & B) -> (A & B))");
+        WffTree left = wff.getChild(0).getChild(0);
+        WffTreeInterner interner = new WffTreeInterner();
+        WffTree interned = interner.intern(wff);
+
+        assertNotSame(wff, interned);
+        assertFalse(wff.isInterned());
+        assertSame(left, wff.getChild(0).getChild(0));
+        assertTrue(interner.owns(interned));
+        assertSame(interned, interner.intern(parse("((A & B) -> (A & B))")));
+        assertSame(interned.getChild(0).getChild(0), interned.getChild(0).getChild(1));
+
+        // Interning reads no cached values of the input, so it can still be modified.
+        wff.getChild(0).setChild(0, new AtomNode("C"));
+        assertNotSame(left, wff.getChild(0).getChild(0));
+        assertEquals("((A & B) -> (A & B))", interned.getStringRep());
+    }
+
+    @Test
+    public void testInternersDoNotShareNodes() {
+        WffTreeInterner first = new WffTreeInterner();
+        WffTreeInterner second = new WffTreeInterner();
+        WffTree wff = first.intern(parse("(A | ~B)"));
+        WffTree copy = second.intern(wff);
+
+        assertNotSame(wff, copy);
+        assertTrue(first.owns(wff));
+        assertFalse(second.owns(wff));
+        assertTrue(second.owns(copy));
+        assertSame(copy, second.intern(copy));
+
+        // Negation links are only written to the interner's own nodes.
+        assertThrows(IllegalArgumentException.class, () -> second.getNegation(wff, null));
+        assertThrows(IllegalArgumentException.class, () -> second.getComplement(wff, null));
+        assertSame(second.getNegation(copy, null), second.getNegation(copy, null));
+        assertSame(copy, second.getComplement(second.getNegation(copy, null), null));
+    }
+
+    @Test
+    public void testDeepWff() {
+        // (B & (B & ... (B & A))) is deeper than a recursive walk could go.
+        WffTree wff = new AtomNode("A");
+        for (int i = 0; i < 10000; i++) {
+            AndNode and = new AndNode("&");
+            and.addChild(new AtomNode("B"));
+            and.addChild(wff);
+            wff = and;
+        }
+        WffTreeInterner interner = new WffTreeInterner();
+        WffTree interned = interner.intern(wff);
+        assertTrue(interner.owns(interned));
+        // One node per conjunction; the shared atoms are not counted.
+        assertEquals(10000, interner.size());
+    }
+
+    @Test
+    public void testSymbolTablesAreIndependent() {
+        SymbolTable first = new WffTreeInterner().getSymbolTable();
+        SymbolTable second = new WffTreeInterner().getSymbolTable();
+        int arrow = first.getSymbolId("->");
+        assertEquals(arrow, second.getSymbolId("and"));
+        assertEquals("->", first.getSymbol(arrow));
+        assertEquals("and", second.getSymbol(arrow));
+        assertEquals('A', first.getSymbolId("A"));
+        assertEquals(first.getSymbolId("A"), second.getSymbolId("A"));
+        assertThrows(IllegalArgumentException.class, () -> first.getSymbol(arrow + 1));
+
+        // Each table has its own range of ids for longer symbols.
+        for (int i = 0; i < 6000; i++) {
+            first.getSymbolId("s" + i);
+            second.getSymbolId("s" + i);
+        }
+        assertEquals("s5999", second.getSymbol(second.getSymbolId("s5999")));
+    }
+}
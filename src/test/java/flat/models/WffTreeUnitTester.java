@@ -0,0 +1,154 @@
+package flat.models;
+
+import com.ndtp.algorithms.models.TruthTree;
+import com.ndtp.algorithms.propositional.PropositionalTruthTreeGenerator;
+import com.ndtp.input.NDTPParserAdapter;
+import com.ndtp.models.ProverContext;
+import com.ndtp.models.treenode.AndNode;
+import com.ndtp.models.treenode.AtomNode;
+import com.ndtp.models.treenode.NodeType;
+import com.ndtp.models.treenode.WffTree;
+import com.ndtp.models.treenode.WffTreeAnalytics;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WffTreeUnitTester {
+
+    private static final int DEPTH = 10000;
+
+    private static WffTree parse(String _wff) {
+        return NDTPParserAdapter.getAbstractSyntaxTree(_wff).get(0);
+    }
+
+    /**
+     * @return (B & (B & ... (B & _last))), which is deeper than a recursive walk could go.
+     */
+    private static WffTree chain(String _last) {
+        WffTree wff = new AtomNode(_last);
+        for (int i = 0; i < DEPTH; i++) {
+            AndNode and = new AndNode("&");
+            and.addChild(new AtomNode("B"));
+            and.addChild(wff);
+            wff = and;
+        }
+        WffTree root = new WffTree();
+        root.addChild(wff);
+        return root;
+    }
+
+    @Test
+    public void testEncodings() {
+        WffTree wff = parse("((∀x)(Fx & x = a) | (Gb & Ha))");
+        assertTrue(wff.alphaEquals(parse("((∀y)(Fy & a = y) or (Gb ∧ Ha))")));
+        assertFalse(wff.alphaEquals(parse("((∀y)(Fy & a = y) | (Ha & Gb))")));
+        assertTrue(wff.acEquals(parse("((Ha & Gb) | (∀y)(y = a & Fy))")));
+        assertTrue(wff.stringEquals(parse("((∀x)(Fx ∧ x = a) ∨ (Gb ∧ Ha))")));
+        assertEquals(wff, parse("((∀x)(Fx & a = x) | (Gb & Ha))"));
+        assertEquals(wff.hashCode(), parse("((∀x)(Fx & a = x) | (Gb & Ha))").hashCode());
+        assertEquals(wff.getAnalytics().getSize() - 1, wff.getCanonicalEncoding().length);
+
+        WffTree chain = parse("(((A & B) & ~C) & (D | (E | A)))");
+        assertTrue(chain.acEquals(parse("((((A | E) | D) & ~C) & (B & A))")));
+        assertTrue(chain.acEquals(parse("(A & (B & (~C & ((A | D) | E))))")));
+        assertFalse(chain.acEquals(parse("((A & B) & (~C | (D | (E | A))))")));
+        assertEquals(9, chain.getACEncoding().length);
+        assertTrue(chain.stringEquals(chain.getChild(0)));
+        assertFalse(chain.stringEquals(parse("(((B & A) & ~C) & (D | (E | A)))")));
+    }
+
+    @Test
+    public void testAnalyticsNodeTypeCounts() {
+        WffTree wff = parse("~~(~(∀x)(Fx -> Gx) & ~Ha)");
+        WffTreeAnalytics analytics = wff.getAnalytics();
+        assertEquals(1, analytics.getNodeTypeCount(NodeType.ROOT));
+        assertEquals(4, analytics.getNodeTypeCount(NodeType.NEG));
+        assertEquals(1, analytics.getNodeTypeCount(NodeType.UNIVERSAL));
+        assertEquals(1, analytics.getNodeTypeCount(NodeType.AND));
+        assertEquals(1, analytics.getNodeTypeCount(NodeType.IMP));
+        assertEquals(3, analytics.getNodeTypeCount(NodeType.PREDICATE));
+        assertEquals(2, analytics.getNodeTypeCount(NodeType.VARIABLE));
+        assertEquals(1, analytics.getNodeTypeCount(NodeType.CONSTANT));
+        assertEquals(0, analytics.getNodeTypeCount(NodeType.OR));
+        assertEquals(7, analytics.getOperatorCount());
+
+        // The outer negation of ~~(...) shares the histogram of the inner one.
+        WffTreeAnalytics inner = wff.getChild(0).getChild(0).getAnalytics();
+        assertEquals(3, inner.getNodeTypeCount(NodeType.NEG));
+        assertEquals(1, inner.getNodeTypeCount(NodeType.AND));
+        assertEquals(6, inner.getOperatorCount());
+        assertEquals(4, wff.getChild(0).getAnalytics().getNodeTypeCount(NodeType.NEG));
+    }
+
+    @Test
+    public void testMutationAfterCachedRead() {
+        // A node's own caches are dropped when it is mutated.
+        AndNode and = new AndNode("&");
+        and.addChild(new AtomNode("A"));
+        assertEquals("(A)", and.getStringRep());
+        int hash = and.hashCode();
+        and.addChild(new AtomNode("B"));
+        assertEquals("(A & B)", and.getStringRep());
+        assertNotEquals(hash, and.hashCode());
+        and.setSymbol("∧");
+        assertEquals("(A ∧ B)", and.getStringRep());
+
+        // Once a parent has cached a value built from a node, that node can no longer change.
+        WffTree wff = parse("(A & ~B)");
+        WffTree parsed = wff.getChild(0);
+        parsed.setChild(0, new AtomNode("C"));
+        assertEquals("(C & ~B)", wff.getStringRep());
+        assertThrows(IllegalStateException.class, () -> parsed.setChild(0, new AtomNode("D")));
+        assertThrows(IllegalStateException.class, () -> parsed.addChild(new AtomNode("D")));
+        assertThrows(IllegalStateException.class, () -> parsed.getChild(1).getChild(0).setSymbol("D"));
+        // The root has no parent, so it can still change.
+        wff.setChild(0, new AtomNode("D"));
+        assertEquals("D", wff.getStringRep());
+    }
+
+    @Test
+    public void testDeepWff() {
+        WffTree wff = chain("A");
+        WffTree same = chain("A");
+        WffTree other = chain("C");
+
+        assertEquals(same.hashCode(), wff.hashCode());
+        assertEquals(same, wff);
+        assertFalse(wff.equals(other));
+        assertEquals(2 * DEPTH + 1, wff.getCanonicalEncoding().length);
+        assertArrayEquals(same.getCanonicalEncoding(), wff.getCanonicalEncoding());
+        assertTrue(wff.stringEquals(same));
+        assertTrue(wff.alphaEquals(same));
+        assertFalse(wff.alphaEquals(other));
+        assertTrue(wff.acEquals(same));
+        assertFalse(wff.acEquals(other));
+        assertEquals(same.getAlphaKey(), wff.getAlphaKey());
+        assertSame(wff.getAlphaKey(), wff.getAlphaKey());
+
+        ProverContext context = new ProverContext();
+        context.recordNotation(wff);
+        assertEquals("&", context.getOperatorSymbol(NodeType.AND));
+    }
+
+    @Test
+    public void testDeepTruthTree() {
+        PrintStream origErr = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));
+        try {
+            TruthTree tree = new PropositionalTruthTreeGenerator(chain("A"), new ProverContext()).getTruthTree();
+            assertNotNull(tree);
+        } finally {
+            System.setErr(origErr);
+        }
+    }
+}